@@ -13,11 +13,28 @@ public class PetStoreApplication {
     private static final String AI_CONNECTION_STRING_ENV = "APPLICATIONINSIGHTS_CONNECTION_STRING";
     private static final String APPLICATIONINSIGHTS_ENABLED = "APPLICATIONINSIGHTS_ENABLED";
 
+    private static final String HTTP_CLIENT_IDLE_TIMEOUT_ENV = "PETSTORE_HTTP_CLIENT_IDLE_TIMEOUT_SECONDS";
+
     public static void main(String[] args) {
+        configureHttpClientIdleTimeout();
         configureApplicationInsights();
         SpringApplication.run(PetStoreApplication.class, args);
     }
 
+    /**
+     * The JDK HttpClient reads its keep-alive settings once, so idle connection eviction for
+     * the Feign transport has to be configured before any client is created.
+     */
+    private static void configureHttpClientIdleTimeout() {
+        String idleTimeout = StringUtils.defaultIfBlank(System.getenv(HTTP_CLIENT_IDLE_TIMEOUT_ENV), "30");
+        if (System.getProperty("jdk.httpclient.keepalive.timeout") == null) {
+            System.setProperty("jdk.httpclient.keepalive.timeout", idleTimeout);
+        }
+        if (System.getProperty("jdk.httpclient.keepalive.timeout.h2") == null) {
+            System.setProperty("jdk.httpclient.keepalive.timeout.h2", idleTimeout);
+        }
+    }
+
     private static void configureApplicationInsights() {
         String aiEnabledStr = System.getenv(APPLICATIONINSIGHTS_ENABLED);
         boolean aiEnabled = !"false".equalsIgnoreCase(aiEnabledStr); // Default: true
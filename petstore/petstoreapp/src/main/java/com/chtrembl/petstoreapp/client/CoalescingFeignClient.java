@@ -0,0 +1,233 @@
+package com.chtrembl.petstoreapp.client;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.chtrembl.petstoreapp.config.Constants.X_AUTHENTICATED;
+import static com.chtrembl.petstoreapp.config.Constants.X_HTTP_SESSION_ID;
+import static com.chtrembl.petstoreapp.config.Constants.X_SESSION_ID;
+import static com.chtrembl.petstoreapp.config.Constants.X_USER_EMAIL;
+import static com.chtrembl.petstoreapp.config.Constants.X_USER_NAME;
+
+/**
+ * Feign transport decorator that de-duplicates idempotent GETs.
+ * <p>
+ * Concurrent identical GETs share one downstream call (single flight): the first caller
+ * executes it, the others wait for its buffered response. Within one web request, a
+ * successful GET is also memoized, so asking for the same data twice while rendering a
+ * page costs one call; any non-GET call clears that memo. GETs under the shared path
+ * prefixes (the catalogs, which answer the same for every user) are identical when their
+ * URLs are; any other GET is only identical to one carrying the same session and user
+ * headers, so no caller is ever handed a response fetched for someone else. Every GET is
+ * counted as {@code executed}, {@code joined} or {@code memoized} in
+ * {@code petstore.feign.coalescing}; the share of non-executed calls is the coalescing ratio.
+ */
+public class CoalescingFeignClient implements Client {
+
+    private static final String IF_NONE_MATCH = "If-None-Match";
+    private static final String MEMO_ATTRIBUTE = CoalescingFeignClient.class.getName() + ".memo";
+    private static final List<String> USER_HEADERS = List.of(
+            X_SESSION_ID, X_HTTP_SESSION_ID, X_USER_NAME, X_USER_EMAIL, X_AUTHENTICATED);
+
+    private final Client delegate;
+    private final List<String> sharedPathPrefixes;
+    private final Map<String, CompletableFuture<BufferedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter joined;
+    private final Counter memoized;
+
+    public CoalescingFeignClient(Client delegate, List<String> sharedPathPrefixes, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.sharedPathPrefixes = List.copyOf(sharedPathPrefixes);
+        this.executed = counter(meterRegistry, "executed");
+        this.joined = counter(meterRegistry, "joined");
+        this.memoized = counter(meterRegistry, "memoized");
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        if (request.httpMethod() != Request.HttpMethod.GET) {
+            // A write may change what later GETs in this request should see
+            Map<String, BufferedResponse> memo = requestMemo();
+            if (memo != null) {
+                memo.clear();
+            }
+            return delegate.execute(request, options);
+        }
+        String key = keyOf(request);
+
+        Map<String, BufferedResponse> memo = requestMemo();
+        if (memo != null) {
+            BufferedResponse remembered = memo.get(key);
+            if (remembered != null) {
+                increment(memoized);
+                return remembered.toResponse(request);
+            }
+        }
+
+        CompletableFuture<BufferedResponse> call = new CompletableFuture<>();
+        CompletableFuture<BufferedResponse> existing = inFlight.putIfAbsent(key, call);
+        BufferedResponse response;
+        if (existing == null) {
+            increment(executed);
+            try {
+                response = BufferedResponse.of(delegate.execute(request, options));
+                call.complete(response);
+            } catch (IOException | RuntimeException e) {
+                call.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, call);
+            }
+        } else {
+            increment(joined);
+            response = await(existing, key, options);
+        }
+
+        if (memo != null && response.status() >= 200 && response.status() < 300) {
+            memo.put(key, response);
+        }
+        return response.toResponse(request);
+    }
+
+    private static BufferedResponse await(CompletableFuture<BufferedResponse> call, String url,
+                                          Request.Options options) throws IOException {
+        try {
+            return call.get(options.connectTimeoutMillis() + options.readTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for shared call to " + url);
+        } catch (TimeoutException e) {
+            throw new IOException("Timed out waiting for shared call to " + url, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException("Shared call to " + url + " failed", e.getCause());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, BufferedResponse> requestMemo() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Object memo = attributes.getAttribute(MEMO_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (memo == null) {
+            memo = new ConcurrentHashMap<String, BufferedResponse>();
+            attributes.setAttribute(MEMO_ATTRIBUTE, memo, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (Map<String, BufferedResponse>) memo;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return meterRegistry == null ? null : Counter.builder("petstore.feign.coalescing")
+                .description("Idempotent Feign GETs by how they were served")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    /**
+     * A conditional GET may be answered with an empty 304, which only means something to
+     * a caller holding that same ETag, so it never shares a call with a plain GET.
+     */
+    private String keyOf(Request request) {
+        StringBuilder key = new StringBuilder(request.url());
+        appendHeader(key, request, IF_NONE_MATCH);
+        if (!isShared(request.url())) {
+            for (String header : USER_HEADERS) {
+                appendHeader(key, request, header);
+            }
+        }
+        return key.toString();
+    }
+
+    private boolean isShared(String url) {
+        String path = URI.create(url).getRawPath();
+        if (path == null) {
+            return false;
+        }
+        for (String prefix : sharedPathPrefixes) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void appendHeader(StringBuilder key, Request request, String header) {
+        Collection<String> values = request.headers().get(header);
+        key.append('\n');
+        if (values != null) {
+            key.append(String.join(",", values));
+        }
+    }
+
+    /**
+     * Status, headers and fully read body of a response, so it can be handed to
+     * several callers.
+     */
+    private static final class BufferedResponse {
+
+        private final int status;
+        private final String reason;
+        private final Map<String, Collection<String>> headers;
+        private final byte[] body;
+
+        private BufferedResponse(int status, String reason, Map<String, Collection<String>> headers, byte[] body) {
+            this.status = status;
+            this.reason = reason;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        static BufferedResponse of(Response response) throws IOException {
+            try (response) {
+                byte[] body = response.body() != null ? Util.toByteArray(response.body().asInputStream()) : null;
+                return new BufferedResponse(response.status(), response.reason(), response.headers(), body);
+            }
+        }
+
+        int status() {
+            return status;
+        }
+
+        Response toResponse(Request request) {
+            return Response.builder()
+                    .status(status)
+                    .reason(reason)
+                    .headers(headers)
+                    .body(body)
+                    .request(request)
+                    .build();
+        }
+    }
+}
@@ -2,11 +2,15 @@ package com.chtrembl.petstoreapp.client;
 
 import com.chtrembl.petstoreapp.config.FeignConfig;
 import com.chtrembl.petstoreapp.model.Order;
+import feign.Response;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 
 @FeignClient(
         name = "order-service",
@@ -16,10 +20,18 @@ import org.springframework.web.bind.annotation.RequestBody;
 public interface OrderServiceClient {
 
     @PostMapping("/petstoreorderservice/v2/store/order")
-    Order createOrUpdateOrder(@RequestBody String orderJson);
+    ResponseEntity<Order> createOrUpdateOrder(@RequestBody String orderJson);
 
     @GetMapping("/petstoreorderservice/v2/store/order/{orderId}")
-    Order getOrder(@PathVariable("orderId") String orderId);
+    ResponseEntity<Order> getOrder(@PathVariable("orderId") String orderId);
+
+    /**
+     * Conditional GET: 304 with no body while the order still has the given ETag. Returns
+     * the raw response so a 304 is not treated as an error.
+     */
+    @GetMapping("/petstoreorderservice/v2/store/order/{orderId}")
+    Response getOrderIfNoneMatch(@PathVariable("orderId") String orderId,
+                                 @RequestHeader(HttpHeaders.IF_NONE_MATCH) String eTag);
 
     @GetMapping("/petstoreorderservice/v2/health")
     String getHealth();
@@ -1,8 +1,10 @@
 package com.chtrembl.petstoreapp.client;
 
+import com.chtrembl.petstore.catalog.model.CatalogDelta;
 import com.chtrembl.petstoreapp.config.FeignConfig;
 import com.chtrembl.petstoreapp.model.Pet;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
@@ -18,6 +20,21 @@ public interface PetServiceClient {
     @GetMapping("/petstorepetservice/v2/pet/findByStatus")
     List<Pet> getPetsByStatus(@RequestParam("status") String status);
 
+    /**
+     * One keyset page; the cursor of the next page is in the {@code X-Next-Cursor} header.
+     */
+    @GetMapping("/petstorepetservice/v2/pet/findByStatus")
+    ResponseEntity<List<Pet>> getPetsPage(@RequestParam("status") String status,
+                                          @RequestParam("category") String category,
+                                          @RequestParam("limit") int limit,
+                                          @RequestParam(value = "cursor", required = false) String cursor,
+                                          @RequestParam("fields") String fields);
+
+    @GetMapping("/petstorepetservice/v2/pet/changes")
+    CatalogDelta<Pet> getPetChanges(@RequestParam("status") String status,
+                                    @RequestParam(value = "epoch", required = false) String epoch,
+                                    @RequestParam(value = "since", required = false) Long since);
+
     @GetMapping("/petstorepetservice/v2/health")
     String getHealth();
 }
\ No newline at end of file
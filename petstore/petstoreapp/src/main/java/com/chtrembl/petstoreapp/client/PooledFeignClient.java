@@ -0,0 +1,164 @@
+package com.chtrembl.petstoreapp.client;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Feign transport on a shared JDK {@link HttpClient}.
+ * <p>
+ * The JDK client keeps connections alive and reuses them, negotiates HTTP/2 where the
+ * server supports it (so concurrent calls multiplex over one connection) and falls
+ * back to HTTP/1.1 otherwise. Idle connections are closed after
+ * {@code jdk.httpclient.keepalive.timeout}. On top of that, each target
+ * (scheme + host + port) gets a bounded number of in-flight requests; callers beyond
+ * the limit wait up to the connect timeout and then fail, instead of piling up
+ * connections on a slow service. Active and waiting requests per target, and requests
+ * by protocol version, are published as Micrometer meters.
+ */
+@Slf4j
+public class PooledFeignClient implements Client {
+
+    // Managed by HttpClient itself and rejected when set on a request
+    private static final Set<String> RESTRICTED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        RESTRICTED_HEADERS.addAll(Set.of("connection", "content-length", "expect", "host", "upgrade"));
+    }
+
+    private final HttpClient httpClient;
+    private final int maxPerTarget;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TargetPool> pools = new ConcurrentHashMap<>();
+
+    public PooledFeignClient(Duration connectTimeout, boolean followRedirects, int maxPerTarget,
+                             MeterRegistry meterRegistry) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(followRedirects ? HttpClient.Redirect.NORMAL : HttpClient.Redirect.NEVER)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.maxPerTarget = maxPerTarget;
+        this.meterRegistry = meterRegistry;
+        log.info("Feign clients use the pooled JDK HttpClient transport, at most {} requests in flight per target",
+                maxPerTarget);
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        URI uri = URI.create(request.url());
+        TargetPool pool = pools.computeIfAbsent(uri.getScheme() + "://" + uri.getAuthority(), TargetPool::new);
+
+        pool.acquire(options.connectTimeoutMillis());
+        try {
+            HttpResponse<byte[]> response = httpClient.send(toHttpRequest(uri, request, options),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            pool.record(response.version());
+
+            Map<String, Collection<String>> headers = new LinkedHashMap<>(response.headers().map());
+            return Response.builder()
+                    .status(response.statusCode())
+                    .headers(headers)
+                    .body(response.body())
+                    .request(request)
+                    .build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted calling " + request.url());
+        } finally {
+            pool.release();
+        }
+    }
+
+    private static HttpRequest toHttpRequest(URI uri, Request request, Request.Options options) {
+        HttpRequest.BodyPublisher body = request.body() != null
+                ? HttpRequest.BodyPublishers.ofByteArray(request.body())
+                : HttpRequest.BodyPublishers.noBody();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMillis(options.readTimeoutMillis()))
+                .method(request.httpMethod().name(), body);
+        request.headers().forEach((name, values) -> {
+            if (!RESTRICTED_HEADERS.contains(name)) {
+                values.forEach(value -> builder.header(name, value));
+            }
+        });
+        return builder.build();
+    }
+
+    private final class TargetPool {
+
+        private final String target;
+        private final Semaphore permits = new Semaphore(maxPerTarget, true);
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final Map<HttpClient.Version, Counter> requestsByVersion = new ConcurrentHashMap<>();
+
+        TargetPool(String target) {
+            this.target = target;
+            if (meterRegistry != null) {
+                Gauge.builder("petstore.feign.pool.active", this, pool -> maxPerTarget - pool.permits.availablePermits())
+                        .description("Feign requests in flight")
+                        .tag("target", target)
+                        .register(meterRegistry);
+                Gauge.builder("petstore.feign.pool.waiting", waiting, AtomicInteger::get)
+                        .description("Feign requests waiting for a free slot")
+                        .tag("target", target)
+                        .register(meterRegistry);
+                Gauge.builder("petstore.feign.pool.max", () -> maxPerTarget)
+                        .description("Maximum Feign requests in flight")
+                        .tag("target", target)
+                        .register(meterRegistry);
+            }
+        }
+
+        void acquire(long timeoutMillis) throws IOException {
+            waiting.incrementAndGet();
+            try {
+                if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new IOException("No free connection to " + target + " within " + timeoutMillis + " ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for a connection to " + target);
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+
+        void release() {
+            permits.release();
+        }
+
+        void record(HttpClient.Version version) {
+            if (meterRegistry != null) {
+                requestsByVersion.computeIfAbsent(version, key -> Counter.builder("petstore.feign.requests")
+                        .description("Feign requests by negotiated protocol")
+                        .tag("target", target)
+                        .tag("protocol", key.name())
+                        .register(meterRegistry)).increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.chtrembl.petstoreapp.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/**
+ * Cache headers for {@code /content/**}: a file name carrying a content hash
+ * ({@code petstoreapp-<md5>.css}) can never change, so browsers may keep it as immutable
+ * for {@code maxAge}; any other name, e.g. one a template links to without
+ * {@code @{...}}, must be revalidated on each use against its ETag and Last-Modified.
+ * The resource handler only accepts a hash that matches the file's content.
+ */
+@RequiredArgsConstructor
+public class AssetCacheControlInterceptor implements HandlerInterceptor {
+
+    private static final Pattern FINGERPRINTED = Pattern.compile("-[0-9a-f]{32}\\.[^/]+$");
+
+    private final Duration maxAge;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object pathWithinMapping = request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
+        String path = pathWithinMapping != null ? pathWithinMapping.toString() : request.getRequestURI();
+        CacheControl cacheControl = FINGERPRINTED.matcher(path).find()
+                ? CacheControl.maxAge(maxAge).cachePublic().immutable()
+                : CacheControl.noCache().cachePublic();
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        return true;
+    }
+}
@@ -0,0 +1,21 @@
+package com.chtrembl.petstoreapp.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executor for the asynchronous facade calls. Downstream calls spend their time
+ * blocked on I/O, so each task gets its own virtual thread rather than a slot in a
+ * bounded pool; the Feign transport limits concurrency per target.
+ */
+@Configuration
+public class AsyncConfig {
+
+    @Bean(destroyMethod = "close")
+    public ExecutorService facadeExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("petstore-facade-", 0).factory());
+    }
+}
@@ -0,0 +1,94 @@
+package com.chtrembl.petstoreapp.config;
+
+import com.chtrembl.petstore.catalog.client.CatalogChangeStreamClient;
+import com.chtrembl.petstore.catalog.service.CatalogReplica;
+import com.chtrembl.petstoreapp.client.PetServiceClient;
+import com.chtrembl.petstoreapp.client.ProductServiceClient;
+import com.chtrembl.petstoreapp.model.Pet;
+import com.chtrembl.petstoreapp.model.Product;
+import com.chtrembl.petstoreapp.service.CatalogCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+
+import static com.chtrembl.petstoreapp.model.Status.AVAILABLE;
+
+/**
+ * Keeps application-wide replicas of the pet and product catalogs in sync through the
+ * services' change streams. The replicas always exist; when streaming is disabled or
+ * disconnected they stay non-live and the catalog caches refresh them through the
+ * Feign clients instead.
+ */
+@Configuration
+@Slf4j
+public class CatalogStreamConfig {
+
+    @Value("${petstore.catalog.stream.enabled:true}")
+    private boolean streamEnabled;
+
+    @Value("${petstore.catalog.cache.refresh-after:30s}")
+    private Duration refreshAfter;
+
+    @Bean
+    public CatalogReplica<Pet> petCatalogReplica() {
+        return new CatalogReplica<>("pet", Pet::getId,
+                pet -> pet.getCategory() != null ? pet.getCategory().getName() : null);
+    }
+
+    @Bean
+    public CatalogReplica<Product> productCatalogReplica() {
+        return new CatalogReplica<>("product", Product::getId);
+    }
+
+    @Bean
+    public CatalogCache<Pet> petCatalogCache(CatalogReplica<Pet> petCatalogReplica,
+                                             PetServiceClient petServiceClient) {
+        return new CatalogCache<>("pet", petCatalogReplica,
+                replica -> replica.applyDelta(petServiceClient.getPetChanges(AVAILABLE.getValue(),
+                        replica.getEpoch(), replica.getVersion())),
+                refreshAfter);
+    }
+
+    @Bean
+    public CatalogCache<Product> productCatalogCache(CatalogReplica<Product> productCatalogReplica,
+                                                     ProductServiceClient productServiceClient) {
+        // The product service has no delta endpoint; a full fetch carries no stream position
+        return new CatalogCache<>("product", productCatalogReplica,
+                replica -> replica.replaceAll(null, -1, productServiceClient.getProductsByStatus(AVAILABLE.getValue())),
+                refreshAfter);
+    }
+
+    @Bean(destroyMethod = "stop")
+    public CatalogChangeStreamClient<Pet> petCatalogStreamClient(
+            @Value("${petstore.service.pet.url}") String petServiceUrl,
+            CatalogReplica<Pet> petCatalogReplica, ObjectMapper objectMapper) {
+        return new CatalogChangeStreamClient<>("pet",
+                petServiceUrl + "/petstorepetservice/v2/pet/changes/stream?status=available",
+                Pet.class, petCatalogReplica, objectMapper);
+    }
+
+    @Bean(destroyMethod = "stop")
+    public CatalogChangeStreamClient<Product> productCatalogStreamClient(
+            @Value("${petstore.service.product.url}") String productServiceUrl,
+            CatalogReplica<Product> productCatalogReplica, ObjectMapper objectMapper) {
+        return new CatalogChangeStreamClient<>("product",
+                productServiceUrl + "/petstoreproductservice/v2/product/changes/stream?status=available",
+                Product.class, productCatalogReplica, objectMapper);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startCatalogStreams(ApplicationReadyEvent event) {
+        if (!streamEnabled) {
+            log.info("Catalog change streams are disabled, catalog reads go through the service clients");
+            return;
+        }
+        event.getApplicationContext().getBean("petCatalogStreamClient", CatalogChangeStreamClient.class).start();
+        event.getApplicationContext().getBean("productCatalogStreamClient", CatalogChangeStreamClient.class).start();
+    }
+}
@@ -36,6 +36,7 @@ public final class Constants {
 
     // HTTP Headers
     public static final String X_CORRELATION_ID = "X-Correlation-ID";
+    public static final String X_NEXT_CURSOR = "X-Next-Cursor";
     public static final String X_PARENT_SPAN_ID = "X-Parent-Span-ID";
     public static final String X_REQUEST_DURATION = "X-Request-Duration";
     public static final String X_REQUEST_ID = "X-Request-ID";
@@ -71,6 +72,9 @@ public final class Constants {
     public static final String X_REQUEST_METHOD = "X-Request-Method";
     public static final String X_SOURCE_CONTAINER = "X-Source-Container";
 
+    // Cookies
+    public static final String PETSTORE_SESSION_COOKIE = "PETSTORE_SESSION";
+
     private Constants() {
         throw new UnsupportedOperationException("Utility class, do not instantiate");
     }
@@ -1,52 +1,47 @@
 package com.chtrembl.petstoreapp.config;
 
-import com.chtrembl.petstoreapp.model.User;
-import com.chtrembl.petstoreapp.model.WebRequest;
+import com.chtrembl.petstoreapp.client.CoalescingFeignClient;
+import com.chtrembl.petstoreapp.client.PooledFeignClient;
+import feign.Client;
 import feign.RequestInterceptor;
 import feign.RequestTemplate;
 import feign.codec.ErrorDecoder;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.util.StringUtils;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
-import static com.chtrembl.petstoreapp.config.Constants.AUTH_TYPE;
 import static com.chtrembl.petstoreapp.config.Constants.CACHE_CONTROL;
 import static com.chtrembl.petstoreapp.config.Constants.CONTAINER_HOST;
-import static com.chtrembl.petstoreapp.config.Constants.IS_AUTHENTICATED;
 import static com.chtrembl.petstoreapp.config.Constants.REQUEST_ID;
 import static com.chtrembl.petstoreapp.config.Constants.REQUEST_METHOD;
 import static com.chtrembl.petstoreapp.config.Constants.REQUEST_URI;
 import static com.chtrembl.petstoreapp.config.Constants.SPAN_ID;
 import static com.chtrembl.petstoreapp.config.Constants.TRACE_ID;
-import static com.chtrembl.petstoreapp.config.Constants.X_AUTHENTICATED;
-import static com.chtrembl.petstoreapp.config.Constants.X_AUTH_TYPE;
 import static com.chtrembl.petstoreapp.config.Constants.X_CORRELATION_ID;
-import static com.chtrembl.petstoreapp.config.Constants.X_HTTP_SESSION_ID;
 import static com.chtrembl.petstoreapp.config.Constants.X_PARENT_SPAN_ID;
 import static com.chtrembl.petstoreapp.config.Constants.X_REQUEST_ID;
 import static com.chtrembl.petstoreapp.config.Constants.X_REQUEST_METHOD;
 import static com.chtrembl.petstoreapp.config.Constants.X_REQUEST_TIMESTAMP;
 import static com.chtrembl.petstoreapp.config.Constants.X_REQUEST_URI;
-import static com.chtrembl.petstoreapp.config.Constants.X_SESSION_ID;
-import static com.chtrembl.petstoreapp.config.Constants.X_SESSION_ID_LOWERCASE;
 import static com.chtrembl.petstoreapp.config.Constants.X_SOURCE_CONTAINER;
 import static com.chtrembl.petstoreapp.config.Constants.X_SOURCE_SERVICE;
 import static com.chtrembl.petstoreapp.config.Constants.X_SOURCE_VERSION;
 import static com.chtrembl.petstoreapp.config.Constants.X_TARGET_SERVICE;
 import static com.chtrembl.petstoreapp.config.Constants.X_TRACE_ID;
-import static com.chtrembl.petstoreapp.config.Constants.X_USER_EMAIL;
-import static com.chtrembl.petstoreapp.config.Constants.X_USER_NAME;
 
 @Configuration
 @EnableFeignClients(basePackages = "com.chtrembl.petstoreapp.client")
@@ -54,8 +49,7 @@ import static com.chtrembl.petstoreapp.config.Constants.X_USER_NAME;
 @Slf4j
 public class FeignConfig {
 
-    private final WebRequest webRequest;
-    private final User sessionUser;
+    private final ForwardedHeaders forwardedHeaders;
 
     @Bean
     public RequestInterceptor requestInterceptor() {
@@ -76,6 +70,26 @@ public class FeignConfig {
         );
     }
 
+    /**
+     * Transport for all Feign clients: the pooled, HTTP/2-capable JDK client, or Feign's
+     * one-connection-per-call {@code HttpURLConnection} client with
+     * {@code petstore.feign.transport=default}. Either way, identical GETs are coalesced,
+     * across users only under {@code petstore.feign.shared-paths}.
+     */
+    @Bean
+    public Client feignClient(feign.Request.Options feignOptions,
+                              @Value("${petstore.feign.transport:pooled}") String transport,
+                              @Value("${petstore.feign.max-per-target:64}") int maxPerTarget,
+                              @Value("${petstore.feign.shared-paths:/petstorepetservice/,/petstoreproductservice/}")
+                              List<String> sharedPaths,
+                              ObjectProvider<MeterRegistry> meterRegistry) {
+        Client delegate = "default".equalsIgnoreCase(transport)
+                ? new Client.Default(null, null)
+                : new PooledFeignClient(Duration.ofMillis(feignOptions.connectTimeoutMillis()),
+                        feignOptions.isFollowRedirects(), maxPerTarget, meterRegistry.getIfAvailable());
+        return new CoalescingFeignClient(delegate, sharedPaths, meterRegistry.getIfAvailable());
+    }
+
     private static class PetstoreErrorDecoder implements ErrorDecoder {
         @Override
         public Exception decode(String methodKey, feign.Response response) {
@@ -159,17 +173,13 @@ public class FeignConfig {
 
         @Override
         public void apply(RequestTemplate template) {
-            webRequest.getHeaders().forEach((key, values) -> {
-                values.forEach(value -> template.header(key, value));
-            });
+            forwardedHeaders.current().forEach(template::header);
 
             template.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
             template.header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
             template.header(CACHE_CONTROL, "no-cache");
 
-            addSessionHeaders(template);
             addCorrelationHeaders(template);
-            addUserContextHeaders(template);
             addServiceHeaders(template);
 
             template.header(X_REQUEST_TIMESTAMP, String.valueOf(System.currentTimeMillis()));
@@ -186,25 +196,6 @@ public class FeignConfig {
             log.debug("All headers: {}", template.headers());
         }
 
-        private void addSessionHeaders(RequestTemplate template) {
-            if (sessionUser != null && StringUtils.hasText(sessionUser.getSessionId())) {
-                template.header(X_SESSION_ID, sessionUser.getSessionId());
-                template.header(X_SESSION_ID_LOWERCASE, sessionUser.getSessionId());
-                log.debug("Added session ID header: {}", sessionUser.getSessionId());
-            }
-
-            try {
-                ServletRequestAttributes attributes =
-                        (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
-                String sessionId = attributes.getRequest().getSession().getId();
-                if (StringUtils.hasText(sessionId)) {
-                    template.header(X_HTTP_SESSION_ID, sessionId);
-                }
-            } catch (Exception e) {
-                log.debug("Could not extract HTTP session ID: {}", e.getMessage());
-            }
-        }
-
         private void addCorrelationHeaders(RequestTemplate template) {
             String requestId = MDC.get(REQUEST_ID);
             if (StringUtils.hasText(requestId)) {
@@ -228,28 +219,6 @@ public class FeignConfig {
             }
         }
 
-        private void addUserContextHeaders(RequestTemplate template) {
-            if (sessionUser != null) {
-                if (StringUtils.hasText(sessionUser.getName())) {
-                    template.header(X_USER_NAME, sessionUser.getName());
-                }
-
-                if (StringUtils.hasText(sessionUser.getEmail())) {
-                    template.header(X_USER_EMAIL, sessionUser.getEmail());
-                }
-
-                String authType = MDC.get(AUTH_TYPE);
-                if (StringUtils.hasText(authType)) {
-                    template.header(X_AUTH_TYPE, authType);
-                }
-
-                String isAuthenticated = MDC.get(IS_AUTHENTICATED);
-                if (StringUtils.hasText(isAuthenticated)) {
-                    template.header(X_AUTHENTICATED, isAuthenticated);
-                }
-            }
-        }
-
         private void addServiceHeaders(RequestTemplate template) {
             template.header(X_SOURCE_SERVICE, "petstoreapp");
             template.header(X_SOURCE_VERSION, getAppVersion());
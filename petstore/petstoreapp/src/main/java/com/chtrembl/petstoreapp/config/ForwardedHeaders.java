@@ -0,0 +1,117 @@
+package com.chtrembl.petstoreapp.config;
+
+import com.chtrembl.petstoreapp.model.SessionState;
+import com.chtrembl.petstoreapp.model.User;
+import com.chtrembl.petstoreapp.model.WebRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static com.chtrembl.petstoreapp.config.Constants.AUTH_TYPE;
+import static com.chtrembl.petstoreapp.config.Constants.IS_AUTHENTICATED;
+import static com.chtrembl.petstoreapp.config.Constants.X_AUTHENTICATED;
+import static com.chtrembl.petstoreapp.config.Constants.X_AUTH_TYPE;
+import static com.chtrembl.petstoreapp.config.Constants.X_HTTP_SESSION_ID;
+import static com.chtrembl.petstoreapp.config.Constants.X_SESSION_ID;
+import static com.chtrembl.petstoreapp.config.Constants.X_SESSION_ID_LOWERCASE;
+import static com.chtrembl.petstoreapp.config.Constants.X_USER_EMAIL;
+import static com.chtrembl.petstoreapp.config.Constants.X_USER_NAME;
+
+/**
+ * The headers every Feign call forwards from the current web request and session: the
+ * request's own forwarded headers, the session ids and the user context.
+ * <p>
+ * On a request thread they are read when the call is made. A task forked off a request
+ * {@link #capture() captures} them by value first and {@link #bind binds} the copy to its
+ * own thread, so a task that is still running when its request ends never reads a
+ * request object the container may already be reusing for someone else.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ForwardedHeaders {
+
+    private static final ThreadLocal<MultiValueMap<String, String>> BOUND = new ThreadLocal<>();
+
+    private final WebRequest webRequest;
+    private final User sessionUser;
+
+    /**
+     * A copy of the current request's forwarded headers; empty outside a request, e.g.
+     * for background catalog refreshes, which have no request or session to read from.
+     */
+    public MultiValueMap<String, String> capture() {
+        MultiValueMap<String, String> headers = new LinkedMultiValueMap<>();
+        if (RequestContextHolder.getRequestAttributes() == null) {
+            return headers;
+        }
+        webRequest.getHeaders().forEach(headers::addAll);
+        addSessionHeaders(headers);
+        addUserContextHeaders(headers);
+        return headers;
+    }
+
+    /**
+     * The headers for a call made on this thread: the bound copy in a forked task,
+     * otherwise a fresh capture.
+     */
+    public MultiValueMap<String, String> current() {
+        MultiValueMap<String, String> bound = BOUND.get();
+        return bound != null ? bound : capture();
+    }
+
+    public static void bind(MultiValueMap<String, String> headers) {
+        BOUND.set(headers);
+    }
+
+    public static void unbind() {
+        BOUND.remove();
+    }
+
+    private void addSessionHeaders(MultiValueMap<String, String> headers) {
+        String userSessionId = sessionUser.getSessionId();
+        if (StringUtils.hasText(userSessionId)) {
+            headers.add(X_SESSION_ID, userSessionId);
+            headers.add(X_SESSION_ID_LOWERCASE, userSessionId);
+            log.debug("Added session ID header: {}", userSessionId);
+        }
+
+        try {
+            ServletRequestAttributes attributes =
+                    (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+            String sessionId = attributes.getRequest().getSession().getId();
+            if (StringUtils.hasText(sessionId)) {
+                headers.add(X_HTTP_SESSION_ID, sessionId);
+            }
+        } catch (Exception e) {
+            log.debug("Could not extract HTTP session ID: {}", e.getMessage());
+        }
+    }
+
+    private void addUserContextHeaders(MultiValueMap<String, String> headers) {
+        SessionState session = sessionUser.snapshot();
+        if (StringUtils.hasText(session.getName())) {
+            headers.add(X_USER_NAME, session.getName());
+        }
+
+        if (StringUtils.hasText(session.getEmail())) {
+            headers.add(X_USER_EMAIL, session.getEmail());
+        }
+
+        String authType = MDC.get(AUTH_TYPE);
+        if (StringUtils.hasText(authType)) {
+            headers.add(X_AUTH_TYPE, authType);
+        }
+
+        String isAuthenticated = MDC.get(IS_AUTHENTICATED);
+        if (StringUtils.hasText(isAuthenticated)) {
+            headers.add(X_AUTHENTICATED, isAuthenticated);
+        }
+    }
+}
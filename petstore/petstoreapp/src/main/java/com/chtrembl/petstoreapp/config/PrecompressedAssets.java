@@ -0,0 +1,115 @@
+package com.chtrembl.petstoreapp.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip variants of the compressible static assets, generated once at startup.
+ * <p>
+ * Every text asset under {@code classpath:/static/content/} is copied, together with
+ * a {@code .gz} next to it, into a work directory that the {@code /content/**} resource
+ * handler searches before the classpath, so the encoded resource resolver can serve
+ * the precompressed file instead of compressing per request. Images and other already
+ * compressed formats are left on the classpath. Files are written to a temporary name
+ * and moved into place, so replicas sharing a configured directory never see a partial file.
+ */
+@Component
+@Slf4j
+public class PrecompressedAssets {
+
+    static final String CLASSPATH_LOCATION = "classpath:/static/content/";
+
+    private static final Set<String> COMPRESSIBLE = Set.of("css", "js", "svg", "json", "html", "txt", "ico");
+
+    private final Path directory;
+
+    public PrecompressedAssets(@Value("${petstore.assets.precompressed-dir:}") String precompressedDir) {
+        try {
+            this.directory = precompressedDir.isBlank()
+                    ? Files.createTempDirectory("petstoreapp-assets")
+                    : Files.createDirectories(Path.of(precompressedDir));
+            int compressed = precompress(new PathMatchingResourcePatternResolver());
+            log.info("Precompressed {} static assets into {}", compressed, directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not precompress static assets", e);
+        }
+    }
+
+    /**
+     * Resource location of the precompressed assets, for the resource handler.
+     */
+    public String getLocation() {
+        return directory.toUri().toString();
+    }
+
+    private int precompress(ResourcePatternResolver resolver) throws IOException {
+        String root = resolver.getResource(CLASSPATH_LOCATION).getURL().toString();
+        int compressed = 0;
+        for (Resource resource : resolver.getResources(CLASSPATH_LOCATION + "**/*.*")) {
+            String url = resource.getURL().toString();
+            if (!resource.isReadable() || !url.startsWith(root) || !isCompressible(url)) {
+                continue;
+            }
+            byte[] content;
+            try (InputStream in = resource.getInputStream()) {
+                content = in.readAllBytes();
+            }
+            byte[] gzipped = gzip(content);
+            if (gzipped.length >= content.length) {
+                continue;
+            }
+            Path target = directory.resolve(url.substring(root.length())).normalize();
+            if (!target.startsWith(directory)) {
+                continue;
+            }
+            Files.createDirectories(target.getParent());
+            write(target, content);
+            write(target.resolveSibling(target.getFileName() + ".gz"), gzipped);
+            compressed++;
+        }
+        return compressed;
+    }
+
+    private static boolean isCompressible(String url) {
+        String extension = url.substring(url.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        return COMPRESSIBLE.contains(extension);
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 3 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(content);
+        }
+        return out.toByteArray();
+    }
+
+    private static void write(Path target, byte[] content) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), ".asset", ".tmp");
+        try {
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.chtrembl.petstoreapp.config;
+
+import com.chtrembl.petstoreapp.model.SessionState;
+import com.chtrembl.petstoreapp.model.User;
+import com.chtrembl.petstoreapp.service.SessionStateRepository;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import static com.chtrembl.petstoreapp.config.Constants.PETSTORE_SESSION_COOKIE;
+
+/**
+ * Keeps the session-scoped {@link User} in a {@link SessionStateRepository}.
+ * <p>
+ * The store key is the session id, carried in its own cookie so it outlives the
+ * container session. The first request a node sees for a session restores the state
+ * from the store; after that the in-memory bean is authoritative. Session ids are only
+ * ever issued by the server: a cookie the store has no state for is not adopted, and
+ * the id is rotated whenever the signed-in principal changes, so an id planted in a
+ * browser before login never carries the signed-in session. A request only writes back
+ * when the state changed, or when half the time-to-live has passed so the stored copy
+ * of an active session does not expire.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SessionStateInterceptor implements HandlerInterceptor {
+
+    private static final Pattern SESSION_ID = Pattern.compile("[A-Za-z0-9_-]{1,128}");
+
+    private final SessionStateRepository repository;
+    private final User sessionUser;
+    private final Duration timeToLive;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String principal = request.getUserPrincipal() != null ? request.getUserPrincipal().getName() : null;
+        SessionState session = sessionUser.snapshot();
+        boolean issued = false;
+
+        if (session.getSessionId() == null) {
+            String cookieId = sessionCookie(request);
+            Optional<SessionState> restored = cookieId != null ? load(cookieId) : Optional.empty();
+            if (restored.isPresent() && cookieId.equals(restored.get().getSessionId())) {
+                sessionUser.restore(restored.get());
+                log.debug("Restored session {} from the session store", cookieId);
+            } else {
+                sessionUser.rotate(request.getSession().getId(), principal);
+            }
+            session = sessionUser.snapshot();
+            issued = true;
+        }
+
+        if (!Objects.equals(principal, session.getPrincipal())) {
+            String previous = session.getSessionId();
+            sessionUser.rotate(newSessionId(request, previous), principal);
+            delete(previous);
+            log.info("Rotated session id after the signed-in principal changed");
+            issued = true;
+        }
+
+        if (issued) {
+            ResponseCookie cookie = ResponseCookie.from(PETSTORE_SESSION_COOKIE, sessionUser.getSessionId())
+                    .path("/")
+                    .httpOnly(true)
+                    .secure(request.isSecure())
+                    .sameSite("Lax")
+                    .maxAge(timeToLive)
+                    .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        SessionState session = sessionUser.snapshot();
+        if (session.getSessionId() == null) {
+            return;
+        }
+        boolean changed = !session.equals(sessionUser.getPersistedState());
+        boolean refreshDue = System.currentTimeMillis() - sessionUser.getPersistedAt() > timeToLive.toMillis() / 2;
+        if (!changed && !refreshDue) {
+            return;
+        }
+        try {
+            repository.save(session.getSessionId(), session);
+            sessionUser.markPersisted(session);
+        } catch (RuntimeException e) {
+            log.warn("Unable to write session {} to the session store: {}", session.getSessionId(), e.getMessage());
+        }
+    }
+
+    private Optional<SessionState> load(String sessionId) {
+        try {
+            return repository.load(sessionId);
+        } catch (RuntimeException e) {
+            log.warn("Unable to load session {} from the session store: {}", sessionId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void delete(String sessionId) {
+        try {
+            repository.delete(sessionId);
+        } catch (RuntimeException e) {
+            log.warn("Unable to delete session {} from the session store: {}", sessionId, e.getMessage());
+        }
+    }
+
+    /**
+     * A container session id other than {@code previous}; login usually changed it already.
+     */
+    private static String newSessionId(HttpServletRequest request, String previous) {
+        String sessionId = request.getSession().getId();
+        return sessionId.equals(previous) ? request.changeSessionId() : sessionId;
+    }
+
+    private static String sessionCookie(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return null;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (PETSTORE_SESSION_COOKIE.equals(cookie.getName()) && SESSION_ID.matcher(cookie.getValue()).matches()) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+}
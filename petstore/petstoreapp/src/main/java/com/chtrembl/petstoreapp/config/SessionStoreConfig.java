@@ -0,0 +1,59 @@
+package com.chtrembl.petstoreapp.config;
+
+import com.chtrembl.petstoreapp.service.FileSessionStateRepository;
+import com.chtrembl.petstoreapp.service.LocalRespServer;
+import com.chtrembl.petstoreapp.service.RespSessionStateRepository;
+import com.chtrembl.petstoreapp.service.SessionStateRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Selects where session state lives via {@code petstore.session.store}: {@code memory}
+ * (the default, container sessions only), {@code file} (one node or local testing)
+ * or {@code resp} (a Redis-protocol server shared by all replicas). With
+ * {@code petstore.session.resp.local-server} the {@code resp} store talks to an in-process
+ * {@link LocalRespServer} instead, for development without Redis. When a repository
+ * exists, {@link WebMvcConfig} installs the {@link SessionStateInterceptor} for it.
+ */
+@Configuration
+public class SessionStoreConfig {
+
+    @Value("${petstore.session.time-to-live:30m}")
+    private Duration timeToLive;
+
+    @Bean
+    @ConditionalOnProperty(name = "petstore.session.store", havingValue = "file")
+    public SessionStateRepository fileSessionStateRepository(
+            @Value("${petstore.session.file.directory}") String directory) {
+        return new FileSessionStateRepository(Path.of(directory), timeToLive);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "petstore.session.store", havingValue = "resp")
+    public SessionStateRepository respSessionStateRepository(
+            @Value("${petstore.session.resp.host}") String host,
+            @Value("${petstore.session.resp.port}") int port,
+            @Value("${petstore.session.resp.timeout:2s}") Duration timeout,
+            @Value("${petstore.session.resp.pool-size:16}") int poolSize,
+            ObjectProvider<LocalRespServer> localRespServer) {
+        LocalRespServer localServer = localRespServer.getIfAvailable();
+        if (localServer != null) {
+            return new RespSessionStateRepository(localServer.getHost(), localServer.getPort(),
+                    timeToLive, timeout, poolSize);
+        }
+        return new RespSessionStateRepository(host, port, timeToLive, timeout, poolSize);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "petstore.session.resp.local-server", havingValue = "true")
+    public LocalRespServer localRespServer(@Value("${petstore.session.resp.port}") int port) throws IOException {
+        return new LocalRespServer(port);
+    }
+}
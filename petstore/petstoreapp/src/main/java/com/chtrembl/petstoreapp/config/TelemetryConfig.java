@@ -0,0 +1,70 @@
+package com.chtrembl.petstoreapp.config;
+
+import com.chtrembl.petstoreapp.telemetry.ApplicationInsightsTelemetryExporter;
+import com.chtrembl.petstoreapp.telemetry.FileTelemetryExporter;
+import com.chtrembl.petstoreapp.telemetry.MetricAggregator;
+import com.chtrembl.petstoreapp.telemetry.TelemetryExporter;
+import com.chtrembl.petstoreapp.telemetry.TelemetryPipeline;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Selects where telemetry goes via {@code petstore.telemetry.exporter}:
+ * {@code applicationinsights} (the default), {@code file} (JSON lines, for offline use)
+ * or {@code none}. Whichever it is sits behind the asynchronous {@link TelemetryPipeline};
+ * metric samples are first pre-aggregated by the {@link MetricAggregator}.
+ */
+@Configuration
+public class TelemetryConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "petstore.telemetry.exporter", havingValue = "applicationinsights",
+            matchIfMissing = true)
+    public TelemetryExporter applicationInsightsTelemetryExporter() {
+        return new ApplicationInsightsTelemetryExporter();
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "petstore.telemetry.exporter", havingValue = "file")
+    public TelemetryExporter fileTelemetryExporter(
+            @Value("${petstore.telemetry.file.path}") String path) throws IOException {
+        return new FileTelemetryExporter(Path.of(path));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "petstore.telemetry.exporter", havingValue = "none")
+    public TelemetryExporter noOpTelemetryExporter() {
+        return batch -> {
+        };
+    }
+
+    @Bean(destroyMethod = "close")
+    public TelemetryPipeline telemetryPipeline(
+            TelemetryExporter telemetryExporter,
+            @Value("${petstore.telemetry.buffer-size:8192}") int bufferSize,
+            @Value("${petstore.telemetry.batch-size:256}") int batchSize,
+            @Value("${petstore.telemetry.linger:500ms}") Duration linger,
+            @Value("${petstore.telemetry.overload:drop}") String overload,
+            @Value("${petstore.telemetry.sample-rate:0.1}") double sampleRate,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new TelemetryPipeline(telemetryExporter, bufferSize, batchSize, linger,
+                TelemetryPipeline.Overload.valueOf(overload.trim().toUpperCase()), sampleRate,
+                meterRegistry.getIfAvailable());
+    }
+
+    @Bean(destroyMethod = "close")
+    public MetricAggregator metricAggregator(
+            TelemetryPipeline telemetryPipeline,
+            @Value("${petstore.telemetry.metrics.flush-interval:60s}") Duration flushInterval,
+            @Value("${petstore.telemetry.metrics.max-metrics:1000}") int maxMetrics) {
+        return new MetricAggregator(telemetryPipeline, flushInterval, maxMetrics);
+    }
+}
@@ -1,23 +1,86 @@
 package com.chtrembl.petstoreapp.config;
 
+import com.chtrembl.petstoreapp.model.User;
+import com.chtrembl.petstoreapp.service.SessionStateRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.io.IOException;
+import java.time.Duration;
 
 /**
- * Web MVC configuration for interceptors and request handling
+ * Web MVC configuration for interceptors, request handling and static assets.
+ * <p>
+ * Assets under {@code /content/**} are served with a content hash in their file name
+ * ({@code petstoreapp-<md5>.css}) and cached by browsers as immutable for a year; a
+ * changed file gets a new name. Links written with {@code @{...}} in templates are
+ * rewritten to the fingerprinted name by the {@link ResourceUrlEncodingFilter}, and
+ * gzip-accepting clients get the {@link PrecompressedAssets} variant. Assets requested
+ * under their plain name are revalidated instead, see {@link AssetCacheControlInterceptor}.
  */
 @Configuration
 @RequiredArgsConstructor
 public class WebMvcConfig implements WebMvcConfigurer {
 
     private final MDCInterceptor mdcInterceptor;
+    private final ObjectProvider<SessionStateRepository> sessionStateRepository;
+    private final User sessionUser;
+    private final PrecompressedAssets precompressedAssets;
+
+    @Value("${petstore.session.time-to-live:30m}")
+    private Duration sessionTimeToLive;
+
+    @Value("${petstore.assets.max-age:365d}")
+    private Duration assetsMaxAge;
+
+    @Bean
+    public ResourceUrlEncodingFilter resourceUrlEncodingFilter() {
+        return new ResourceUrlEncodingFilter();
+    }
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler("/content/**")
+                .addResourceLocations(precompressedAssets.getLocation(), PrecompressedAssets.CLASSPATH_LOCATION)
+                .setEtagGenerator(WebMvcConfig::assetEtag)
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+    }
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
+        sessionStateRepository.ifAvailable(repository ->
+                registry.addInterceptor(new SessionStateInterceptor(repository, sessionUser, sessionTimeToLive))
+                        .addPathPatterns("/**")
+                        .excludePathPatterns("/content/**", "/css/**", "/js/**", "/images/**",
+                                "/api/activeusers/**", "/api/health/**"));
         registry.addInterceptor(mdcInterceptor)
                 .addPathPatterns("/**")
                 .excludePathPatterns("/content/**", "/css/**", "/js/**", "/images/**");
+        registry.addInterceptor(new AssetCacheControlInterceptor(assetsMaxAge))
+                .addPathPatterns("/content/**");
+    }
+
+    /**
+     * Cheap validator for revalidating plain-named assets; the content hash is only
+     * computed for fingerprinted names.
+     */
+    private static String assetEtag(Resource resource) {
+        try {
+            return Long.toHexString(resource.lastModified()) + "-" + Long.toHexString(resource.contentLength());
+        } catch (IOException e) {
+            return null;
+        }
     }
 }
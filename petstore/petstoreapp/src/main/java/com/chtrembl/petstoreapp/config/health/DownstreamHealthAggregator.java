@@ -0,0 +1,198 @@
+package com.chtrembl.petstoreapp.config.health;
+
+import com.chtrembl.petstoreapp.model.ContainerEnvironment;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Probes the pet, product and order services' {@code /health} endpoints in parallel on
+ * its own schedule, over one shared HTTP client, and keeps the latest result of each.
+ * The health indicators only read these cached results, so the cost of health checks
+ * no longer grows with the number of {@code /actuator/health} callers. Listeners are
+ * told after every probe round.
+ */
+@Component
+@Slf4j
+public class DownstreamHealthAggregator {
+
+    private static final Health NOT_CHECKED = Health.unknown()
+            .withDetail("reason", "Not checked yet")
+            .build();
+
+    private final Map<String, Backend> backends = new LinkedHashMap<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private final HttpClient httpClient;
+    private final Duration timeout;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile Map<String, Health> results = Map.of();
+
+    public DownstreamHealthAggregator(ContainerEnvironment containerEnvironment,
+                                      @Value("${petstore.health.refresh-interval:15s}") Duration refreshInterval,
+                                      @Value("${petstore.health.timeout:5s}") Duration timeout) {
+        backends.put("petService", new Backend("Pet service",
+                containerEnvironment::getPetStorePetServiceURL, "/petstorepetservice/v2/health"));
+        backends.put("productService", new Backend("Product service",
+                containerEnvironment::getPetStoreProductServiceURL, "/petstoreproductservice/v2/health"));
+        backends.put("orderService", new Backend("Order service",
+                containerEnvironment::getPetStoreOrderServiceURL, "/petstoreorderservice/v2/health"));
+
+        this.timeout = timeout;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .build();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "downstream-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::probeAll, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Latest probe result for a backend, by health component name.
+     */
+    public Health getHealth(String name) {
+        return results.getOrDefault(name, NOT_CHECKED);
+    }
+
+    /**
+     * Latest probe status of every backend, by health component name.
+     */
+    public Map<String, Status> getStatuses() {
+        Map<String, Status> statuses = new LinkedHashMap<>();
+        backends.keySet().forEach(name -> statuses.put(name, getHealth(name).getStatus()));
+        return statuses;
+    }
+
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void probeAll() {
+        try {
+            Map<String, CompletableFuture<Health>> probes = new LinkedHashMap<>();
+            backends.forEach((name, backend) -> probes.put(name, probe(backend)));
+
+            Map<String, Health> next = new LinkedHashMap<>();
+            probes.forEach((name, probe) -> next.put(name, probe.join()));
+            results = Collections.unmodifiableMap(next);
+            log.debug("Downstream health refreshed: {}", next.keySet());
+        } catch (RuntimeException e) {
+            log.warn("Downstream health refresh failed: {}", e.getMessage());
+        }
+        for (Runnable listener : listeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                log.warn("Downstream health listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private CompletableFuture<Health> probe(Backend backend) {
+        String baseUrl = backend.baseUrl.get();
+        if (baseUrl == null || baseUrl.isEmpty()) {
+            return CompletableFuture.completedFuture(Health.down()
+                    .withDetail("reason", backend.label + " URL not configured")
+                    .withDetail("url", "not set")
+                    .build());
+        }
+
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(baseUrl + backend.path))
+                    .timeout(timeout)
+                    .header("Accept", "application/json")
+                    .GET()
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(failure(backend, baseUrl, e));
+        }
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> toHealth(backend, baseUrl, response))
+                .exceptionally(e -> failure(backend, baseUrl,
+                        e instanceof CompletionException && e.getCause() != null ? e.getCause() : e));
+    }
+
+    private Health toHealth(Backend backend, String baseUrl, HttpResponse<String> response) {
+        if (response.statusCode() >= 400) {
+            log.warn("{} health check failed with HTTP {}", backend.label, response.statusCode());
+            return Health.down()
+                    .withDetail("url", baseUrl)
+                    .withDetail("error", "HTTP " + response.statusCode())
+                    .withDetail("responseBody", response.body())
+                    .build();
+        }
+        try {
+            JsonNode healthData = objectMapper.readTree(response.body());
+            String status = healthData.get("status").asText();
+            String version = healthData.has("version") ? healthData.get("version").asText() : "unknown";
+            String date = healthData.has("date") ? healthData.get("date").asText() : "unknown";
+            String container = healthData.has("container") ? healthData.get("container").asText() : "unknown";
+
+            Health.Builder health = "UP".equalsIgnoreCase(status)
+                    ? Health.up().withDetail("status", "Service responding")
+                    : Health.down().withDetail("reason", "Service status: " + status);
+            return health
+                    .withDetail("url", baseUrl)
+                    .withDetail("version", version)
+                    .withDetail("appDate", date)
+                    .withDetail("container", container)
+                    .build();
+        } catch (Exception e) {
+            return failure(backend, baseUrl, e);
+        }
+    }
+
+    private Health failure(Backend backend, String baseUrl, Throwable e) {
+        log.warn("{} health check failed: {}", backend.label, e.getMessage());
+        return Health.down()
+                .withDetail("url", baseUrl)
+                .withDetail("error", String.valueOf(e.getMessage()))
+                .withDetail("errorType", e.getClass().getSimpleName())
+                .build();
+    }
+
+    private static final class Backend {
+        private final String label;
+        private final Supplier<String> baseUrl;
+        private final String path;
+
+        private Backend(String label, Supplier<String> baseUrl, String path) {
+            this.label = label;
+            this.baseUrl = baseUrl;
+            this.path = path;
+        }
+    }
+}
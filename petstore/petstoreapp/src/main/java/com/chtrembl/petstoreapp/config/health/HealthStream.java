@@ -0,0 +1,98 @@
+package com.chtrembl.petstoreapp.config.health;
+
+import com.chtrembl.petstore.catalog.service.SseBroadcaster;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Server-Sent Events feed of the application's health, in the same JSON shape as
+ * {@code /actuator/health}. A subscriber gets the current health as a {@code health}
+ * event and another whenever a {@link DownstreamHealthAggregator} round changes the
+ * status of a downstream service, so browsers no longer poll. Details that move on
+ * every round, such as free disk space, do not count as a change on their own.
+ */
+@Component
+@Slf4j
+public class HealthStream {
+
+    private static final int BACKLOG = 16;
+
+    private final DownstreamHealthAggregator downstreamHealthAggregator;
+    private final ObjectProvider<HealthEndpoint> healthEndpoint;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SseBroadcaster<Void> broadcaster = new SseBroadcaster<>("health-stream", BACKLOG);
+
+    private volatile Map<String, Status> publishedStatuses;
+    private volatile String published;
+
+    public HealthStream(DownstreamHealthAggregator downstreamHealthAggregator,
+                        ObjectProvider<HealthEndpoint> healthEndpoint) {
+        this.downstreamHealthAggregator = downstreamHealthAggregator;
+        this.healthEndpoint = healthEndpoint;
+
+        // Aggregator rounds run on its one scheduler thread, so publishing is never concurrent
+        downstreamHealthAggregator.addListener(this::publishIfChanged);
+    }
+
+    public SseEmitter subscribe() {
+        return broadcaster.subscribe(null, subscriber -> {
+            String health = published != null ? published : currentHealth();
+            if (health != null) {
+                send(subscriber, health);
+            }
+        }).getEmitter();
+    }
+
+    public int getSubscriberCount() {
+        return broadcaster.getSubscriberCount();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        broadcaster.shutdown();
+    }
+
+    private void publishIfChanged() {
+        Map<String, Status> statuses = downstreamHealthAggregator.getStatuses();
+        if (statuses.equals(publishedStatuses)) {
+            return;
+        }
+        String health = currentHealth();
+        if (health == null) {
+            return;
+        }
+        publishedStatuses = statuses;
+        published = health;
+        broadcaster.broadcast(subscriber -> send(subscriber, health));
+    }
+
+    private String currentHealth() {
+        HealthEndpoint endpoint = healthEndpoint.getIfAvailable();
+        if (endpoint == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(endpoint.health());
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Could not serialize application health: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static void send(SseBroadcaster.Subscriber<Void> subscriber, String health) throws IOException {
+        subscriber.emit(SseEmitter.event()
+                .name("health")
+                .data(health, MediaType.APPLICATION_JSON));
+    }
+}
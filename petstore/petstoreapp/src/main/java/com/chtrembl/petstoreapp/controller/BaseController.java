@@ -1,14 +1,14 @@
 package com.chtrembl.petstoreapp.controller;
 
 import com.chtrembl.petstoreapp.model.ContainerEnvironment;
+import com.chtrembl.petstoreapp.model.SessionState;
 import com.chtrembl.petstoreapp.model.User;
+import com.chtrembl.petstoreapp.service.ActiveUsersTracker;
 import com.microsoft.applicationinsights.telemetry.PageViewTelemetry;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Controller;
@@ -36,8 +36,6 @@ import static com.chtrembl.petstoreapp.config.Constants.USER_NAME;
 @Slf4j
 public abstract class BaseController {
 
-    private static final String CURRENT_USERS_HUB = "currentUsers";
-
     // Model attribute constants
     private static final String MODEL_APP_VERSION = "appVersion";
     private static final String MODEL_CART_SIZE = "cartSize";
@@ -53,7 +51,7 @@ public abstract class BaseController {
 
     protected final ContainerEnvironment containerEnvironment;
     protected final User sessionUser;
-    protected final CacheManager currentUsersCacheManager;
+    protected final ActiveUsersTracker activeUsersTracker;
 
     /**
      * Common model setup for all controllers.
@@ -64,40 +62,39 @@ public abstract class BaseController {
         setupSessionUser(request, model, token); // Pass token to session setup
         setupAuthenticationDetails(model, token);
         setupContainerInfo(model);
-        setupCacheInfo(model);
+        setupActiveUsers(model);
     }
 
     /**
      * Setup session user information.
      */
     private void setupSessionUser(HttpServletRequest request, Model model, OAuth2AuthenticationToken token) {
-        CaffeineCache caffeineCache = (CaffeineCache) this.currentUsersCacheManager
-                .getCache(CURRENT_USERS_HUB);
-
-        if (sessionUser.getSessionId() == null) {
+        SessionState session = sessionUser.snapshot();
+        if (session.getSessionId() == null) {
             String sessionId = RequestContextHolder.currentRequestAttributes().getSessionId();
             sessionUser.setSessionId(sessionId);
-            caffeineCache.put(sessionUser.getSessionId(), sessionUser.getName());
+            session = sessionUser.snapshot();
         }
 
         if (token != null) {
             final OAuth2User user = token.getPrincipal();
             String authenticatedUserName = (String) user.getAttributes().get("name");
-            if (authenticatedUserName != null && !authenticatedUserName.equals(sessionUser.getName())) {
+            if (authenticatedUserName != null && !authenticatedUserName.equals(session.getName())) {
                 sessionUser.setName(authenticatedUserName);
+                session = sessionUser.snapshot();
                 log.debug("Updated session user name to: {}", authenticatedUserName);
             }
         }
 
-        MDC.put(SESSION_ID, sessionUser.getSessionId());
-        MDC.put(USER_NAME, sessionUser.getName());
+        MDC.put(SESSION_ID, session.getSessionId());
+        MDC.put(USER_NAME, session.getName());
         MDC.put(CONTAINER_HOST, this.containerEnvironment.getContainerHostName());
 
-        caffeineCache.put(sessionUser.getSessionId(), sessionUser.getName());
+        activeUsersTracker.record(session.getSessionId());
 
-        model.addAttribute(MODEL_USER_NAME, sessionUser.getName());
-        model.addAttribute(MODEL_SESSION_ID, sessionUser.getSessionId());
-        model.addAttribute(MODEL_CART_SIZE, sessionUser.getCartCount());
+        model.addAttribute(MODEL_USER_NAME, session.getName());
+        model.addAttribute(MODEL_SESSION_ID, session.getSessionId());
+        model.addAttribute(MODEL_CART_SIZE, session.getCartCount());
     }
 
     /**
@@ -157,15 +154,10 @@ public abstract class BaseController {
     }
 
     /**
-     * Setup cache information.
+     * Setup the approximate count of users on the site.
      */
-    private void setupCacheInfo(Model model) {
-        CaffeineCache caffeineCache = (CaffeineCache) this.currentUsersCacheManager
-                .getCache(CURRENT_USERS_HUB);
-        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache =
-                caffeineCache.getNativeCache();
-
-        model.addAttribute(MODEL_CURRENT_USERS_ON_SITE, nativeCache.asMap().size());
+    private void setupActiveUsers(Model model) {
+        model.addAttribute(MODEL_CURRENT_USERS_ON_SITE, activeUsersTracker.getActiveUsers());
     }
 
     /**
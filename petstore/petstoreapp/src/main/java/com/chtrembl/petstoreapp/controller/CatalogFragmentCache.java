@@ -0,0 +1,144 @@
+package com.chtrembl.petstoreapp.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Rendered HTML of the catalog sections of the breeds and products pages, shared by all
+ * visitors.
+ * <p>
+ * A section is rendered from {@code fragments/catalog} on its own, keyed by fragment and
+ * a caller-supplied key (path, category, page), and stored with the catalog version it
+ * was rendered at; a different version re-renders it on the next request. Everything
+ * per user (name, cart count, CSRF token) stays in the page around it, which is still
+ * rendered per request and inlines the cached section. Links are built without session
+ * URL rewriting so no session id ends up in a shared fragment. Lookups are counted in
+ * {@code petstore.render.cache} by outcome and re-renders are timed in
+ * {@code petstore.render.fragment}.
+ */
+@Component
+@Slf4j
+class CatalogFragmentCache {
+
+    private static final String TEMPLATE = "fragments/catalog";
+
+    private final ITemplateEngine templateEngine;
+    private final JakartaServletWebApplication application;
+    private final Cache<String, Entry> fragments;
+    private final boolean enabled;
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer renderTimer;
+
+    CatalogFragmentCache(ITemplateEngine templateEngine,
+                         ServletContext servletContext,
+                         @Value("${petstore.render.cache.enabled:true}") boolean enabled,
+                         @Value("${petstore.render.cache.maximum-size:500}") long maximumSize,
+                         ObjectProvider<MeterRegistry> meterRegistry) {
+        this.templateEngine = templateEngine;
+        this.application = JakartaServletWebApplication.buildApplication(servletContext);
+        this.fragments = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+        this.enabled = enabled;
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        this.hits = counter(registry, "hit");
+        this.misses = counter(registry, "miss");
+        this.renderTimer = registry != null ? Timer.builder("petstore.render.fragment").register(registry) : null;
+    }
+
+    /**
+     * The rendered fragment for {@code key} at {@code catalogVersion}; {@code variables}
+     * is only called when it has to be rendered.
+     */
+    String render(String fragment, String key, long catalogVersion,
+                  HttpServletRequest request, HttpServletResponse response,
+                  Supplier<Map<String, Object>> variables) {
+        String cacheKey = fragment + '|' + key;
+        Entry entry = enabled ? fragments.getIfPresent(cacheKey) : null;
+        if (entry != null && entry.catalogVersion == catalogVersion) {
+            increment(hits);
+            return entry.html;
+        }
+        increment(misses);
+
+        long start = System.nanoTime();
+        WebContext context = new WebContext(
+                application.buildExchange(request, new UnencodedUrlResponse(response)),
+                LocaleContextHolder.getLocale(), variables.get());
+        String html = templateEngine.process(TEMPLATE, Set.of(fragment), context);
+        if (renderTimer != null) {
+            renderTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        if (enabled) {
+            fragments.put(cacheKey, new Entry(catalogVersion, html));
+            log.debug("Rendered catalog fragment {} at version {}", cacheKey, catalogVersion);
+        }
+        return html;
+    }
+
+    private static Counter counter(MeterRegistry registry, String outcome) {
+        return registry != null
+                ? Counter.builder("petstore.render.cache").tag("outcome", outcome).register(registry)
+                : null;
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    private static final class Entry {
+
+        private final long catalogVersion;
+        private final String html;
+
+        private Entry(long catalogVersion, String html) {
+            this.catalogVersion = catalogVersion;
+            this.html = html;
+        }
+    }
+
+    /**
+     * Leaves URLs as written; the container would otherwise append {@code ;jsessionid}
+     * for a visitor without a session cookie.
+     */
+    private static final class UnencodedUrlResponse extends HttpServletResponseWrapper {
+
+        private UnencodedUrlResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public String encodeURL(String url) {
+            return url;
+        }
+
+        @Override
+        public String encodeRedirectURL(String url) {
+            return url;
+        }
+    }
+}
@@ -2,9 +2,9 @@ package com.chtrembl.petstoreapp.controller;
 
 import com.chtrembl.petstoreapp.model.ContainerEnvironment;
 import com.chtrembl.petstoreapp.model.User;
+import com.chtrembl.petstoreapp.service.ActiveUsersTracker;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.CacheManager;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -25,8 +25,8 @@ public class HomeController extends BaseController {
 
     public HomeController(ContainerEnvironment containerEnvironment,
                           User sessionUser,
-                          CacheManager currentUsersCacheManager) {
-        super(containerEnvironment, sessionUser, currentUsersCacheManager);
+                          ActiveUsersTracker activeUsersTracker) {
+        super(containerEnvironment, sessionUser, activeUsersTracker);
     }
 
     /**
@@ -1,20 +1,31 @@
 package com.chtrembl.petstoreapp.controller;
 
 import com.chtrembl.petstoreapp.model.ContainerEnvironment;
+import com.chtrembl.petstoreapp.model.Order;
 import com.chtrembl.petstoreapp.model.Pet;
 import com.chtrembl.petstoreapp.model.User;
+import com.chtrembl.petstoreapp.service.ActiveUsersTracker;
+import com.chtrembl.petstoreapp.service.PetPages;
 import com.chtrembl.petstoreapp.service.PetStoreFacadeService;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.CacheManager;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URISyntaxException;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Controller for pet breeds management.
@@ -24,23 +35,35 @@ import java.util.Collection;
 @Slf4j
 public class PetController extends BaseController {
 
+    private static final String MODEL_BREEDS_PATH = "breedsPath";
+    private static final String MODEL_CART_SIZE = "cartSize";
+    private static final String MODEL_CATALOG_HTML = "catalogHtml";
+    private static final String MODEL_CATEGORY = "category";
     private static final String MODEL_ERROR = "error";
+    private static final String MODEL_NEXT_AFTER = "nextAfter";
     private static final String MODEL_PET = "pet";
+    private static final String MODEL_PET_PAGES = "petPages";
     private static final String MODEL_PETS = "pets";
     private static final String MODEL_STACKTRACE = "stacktrace";
 
+    private static final int BREEDS_PAGE_SIZE = 24;
+    private static final int BREEDS_STREAM_CHUNK_SIZE = 100;
+
     private static final String VIEW_HOME = "home";
     private static final String VIEW_BREEDS = "breeds";
     private static final String VIEW_BREED_DETAILS = "breeddetails";
 
     private final PetStoreFacadeService petStoreService;
+    private final CatalogFragmentCache catalogFragmentCache;
 
     public PetController(ContainerEnvironment containerEnvironment,
                          User sessionUser,
-                         CacheManager currentUsersCacheManager,
-                         PetStoreFacadeService petStoreService) {
-        super(containerEnvironment, sessionUser, currentUsersCacheManager);
+                         ActiveUsersTracker activeUsersTracker,
+                         PetStoreFacadeService petStoreService,
+                         CatalogFragmentCache catalogFragmentCache) {
+        super(containerEnvironment, sessionUser, activeUsersTracker);
         this.petStoreService = petStoreService;
+        this.catalogFragmentCache = catalogFragmentCache;
     }
 
     /**
@@ -51,13 +74,15 @@ public class PetController extends BaseController {
     public String breeds(Model model,
                          OAuth2AuthenticationToken token,
                          HttpServletRequest request,
-                         @RequestParam(name = "category") String category) throws URISyntaxException {
+                         HttpServletResponse response,
+                         @RequestParam(name = "category") String category,
+                         @RequestParam(name = "after", required = false) Long after) throws URISyntaxException {
 
         sessionUser.getTelemetryClient().trackMetric("TestMetric", System.currentTimeMillis() % 100);
 
         trackPageView(request, category.toLowerCase() + "breeds");
 
-        sessionUser.getTelemetryClient().trackMetric("PageViews_" + category, 1);
+        sessionUser.getTelemetryClient().trackMetric("PageViews", category, 1);
 
         if (!isValidCategory(category)) {
             log.warn("Invalid category requested: {}", category);
@@ -71,13 +96,33 @@ public class PetController extends BaseController {
         try {
             long startTime = System.currentTimeMillis();
 
+            // Read before the pets so a cached grid is never newer than the version it is stored with
+            long catalogVersion = this.petStoreService.getPetCatalogVersion();
             final Collection<Pet> pets = this.petStoreService.getPets(category);
-            model.addAttribute(MODEL_PETS, pets);
+
+            // Keyset page over the id-ordered category list; only one page is rendered
+            List<Pet> page = pets.stream()
+                    .filter(pet -> after == null || (pet.getId() != null && pet.getId() > after))
+                    .limit(BREEDS_PAGE_SIZE + 1L)
+                    .toList();
+            Map<String, Object> catalog = new HashMap<>();
+            if (page.size() > BREEDS_PAGE_SIZE) {
+                page = page.subList(0, BREEDS_PAGE_SIZE);
+                catalog.put(MODEL_NEXT_AFTER, page.get(BREEDS_PAGE_SIZE - 1).getId());
+            }
+            sessionUser.setShownPetIds(page.stream().map(Pet::getId).toList());
+            catalog.put(MODEL_PETS, page);
+            catalog.put(MODEL_CATEGORY, category);
+            catalog.put(MODEL_BREEDS_PATH, request.getRequestURI());
+
+            model.addAttribute(MODEL_CATALOG_HTML, catalogFragmentCache.render(VIEW_BREEDS,
+                    request.getRequestURI() + '|' + category + '|' + after, catalogVersion,
+                    request, response, () -> catalog));
 
             long duration = System.currentTimeMillis() - startTime;
 
-            sessionUser.getTelemetryClient().trackMetric("PetLoadDuration_" + category, duration);
-            sessionUser.getTelemetryClient().trackMetric("PetsFound_" + category, pets != null ? pets.size() : 0);
+            sessionUser.getTelemetryClient().trackMetric("PetLoadDuration", category, duration);
+            sessionUser.getTelemetryClient().trackMetric("PetsFound", category, pets != null ? pets.size() : 0);
             sessionUser.getTelemetryClient().trackMetric("TotalPetsLoaded", pets != null ? pets.size() : 0);
 
             log.info("Successfully loaded {} pets for category: {}",
@@ -86,7 +131,54 @@ public class PetController extends BaseController {
         } catch (Exception ex) {
             log.error("Error loading pets from service for category {}: ", category, ex);
             sessionUser.getTelemetryClient().trackMetric("PetLoadErrors", 1);
-            sessionUser.getTelemetryClient().trackMetric("PetLoadErrors_" + category, 1);
+            sessionUser.getTelemetryClient().trackMetric("PetLoadErrors", category, 1);
+
+            model.addAttribute(MODEL_ERROR, "Sorry, we couldn't load pet breeds.");
+            model.addAttribute(MODEL_STACKTRACE, getStackTrace(ex));
+        }
+
+        return VIEW_BREEDS;
+    }
+
+    /**
+     * Display every pet of a category on one page, rendered while it is read.
+     * The page shell is flushed before the first chunk and each chunk of pets before
+     * the next one is read, so the first byte does not wait for the category and the
+     * request holds one chunk at a time.
+     */
+    @GetMapping(value = {"/dogbreeds", "/catbreeds", "/fishbreeds"}, params = "all")
+    public String allBreeds(Model model,
+                            OAuth2AuthenticationToken token,
+                            HttpServletRequest request,
+                            HttpServletResponse response,
+                            @RequestParam(name = "category") String category) throws URISyntaxException {
+
+        trackPageView(request, category.toLowerCase() + "breeds");
+
+        if (!isValidCategory(category)) {
+            log.warn("Invalid category requested: {}", category);
+            sessionUser.getTelemetryClient().trackMetric("InvalidCategoryRequests", 1);
+            return VIEW_HOME;
+        }
+
+        log.debug("PetStoreApp /{} all breeds requested for category: {}", category.toLowerCase(), category);
+
+        try {
+            PetPages petPages = this.petStoreService.getPetPages(category, BREEDS_STREAM_CHUNK_SIZE)
+                    .beforeEachPage(() -> {
+                        try {
+                            response.flushBuffer();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+            // Products only need to know that a breeds page was shown; all ids would not be bounded
+            sessionUser.setShownPetIds(List.of());
+            model.addAttribute(MODEL_PET_PAGES, petPages);
+            model.addAttribute(MODEL_CATEGORY, category);
+        } catch (Exception ex) {
+            log.error("Error loading pets from service for category {}: ", category, ex);
+            sessionUser.getTelemetryClient().trackMetric("PetLoadErrors", category, 1);
 
             model.addAttribute(MODEL_ERROR, "Sorry, we couldn't load pet breeds.");
             model.addAttribute(MODEL_STACKTRACE, getStackTrace(ex));
@@ -116,21 +208,19 @@ public class PetController extends BaseController {
         trackPageView(request, "breeddetails");
 
         try {
-            if (sessionUser.getPets() == null) {
-                log.debug("Pets not loaded in session, loading for category: {}", category);
-                this.petStoreService.getPets(category);
+            // The pet and the cart load in parallel
+            CompletableFuture<Optional<Pet>> petLookup = this.petStoreService.getPetAsync((long) id);
+            CompletableFuture<Order> cartLookup = this.petStoreService.retrieveOrderAsync(sessionUser.getSessionId());
+
+            Pet pet;
+            try {
+                pet = petLookup.join()
+                        .orElseThrow(() -> new IllegalArgumentException("Invalid pet ID: " + id));
+            } finally {
+                // The cart lookup runs with this request's attributes, so it is joined even when the pet is missing
+                refreshCartSize(model, cartLookup);
             }
 
-            if (sessionUser.getPets() == null || sessionUser.getPets().isEmpty()) {
-                throw new IllegalArgumentException("No pets available in session");
-            }
-
-            if (id < 1 || id > sessionUser.getPets().size()) {
-                throw new IllegalArgumentException("Invalid pet ID: " + id);
-            }
-
-            Pet pet = sessionUser.getPets().get(id - 1);
-
             log.debug("PetStoreApp /breeddetails requested for {}, routing to breeddetails view...",
                     pet.getName());
 
@@ -145,6 +235,18 @@ public class PetController extends BaseController {
         return VIEW_BREED_DETAILS;
     }
 
+    private void refreshCartSize(Model model, CompletableFuture<Order> cartLookup) {
+        try {
+            Order order = cartLookup.join();
+            int cartSize = order != null && order.getProducts() != null && !order.isComplete()
+                    ? order.getProducts().size() : 0;
+            sessionUser.setCartCount(cartSize);
+            model.addAttribute(MODEL_CART_SIZE, cartSize);
+        } catch (CompletionException ex) {
+            log.warn("Could not refresh cart size on breed details: {}", ex.getMessage());
+        }
+    }
+
     /**
      * Validate if the provided category is supported.
      */
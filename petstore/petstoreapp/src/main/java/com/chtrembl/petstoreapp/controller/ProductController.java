@@ -3,10 +3,11 @@ package com.chtrembl.petstoreapp.controller;
 import com.chtrembl.petstoreapp.model.ContainerEnvironment;
 import com.chtrembl.petstoreapp.model.Pet;
 import com.chtrembl.petstoreapp.model.User;
+import com.chtrembl.petstoreapp.service.ActiveUsersTracker;
 import com.chtrembl.petstoreapp.service.PetStoreFacadeService;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.CacheManager;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -15,6 +16,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 
 import java.net.URISyntaxException;
 import java.util.Collection;
+import java.util.Map;
 
 /**
  * Controller for product catalog management.
@@ -24,6 +26,7 @@ import java.util.Collection;
 @Slf4j
 public class ProductController extends BaseController {
 
+    private static final String MODEL_CATALOG_HTML = "catalogHtml";
     private static final String MODEL_ERROR = "error";
     private static final String MODEL_PRODUCTS = "products";
     private static final String MODEL_STACKTRACE = "stacktrace";
@@ -32,13 +35,16 @@ public class ProductController extends BaseController {
     private static final String VIEW_PRODUCTS = "products";
 
     private final PetStoreFacadeService petStoreService;
+    private final CatalogFragmentCache catalogFragmentCache;
 
     public ProductController(ContainerEnvironment containerEnvironment,
                              User sessionUser,
-                             CacheManager currentUsersCacheManager,
-                             PetStoreFacadeService petStoreService) {
-        super(containerEnvironment, sessionUser, currentUsersCacheManager);
+                             ActiveUsersTracker activeUsersTracker,
+                             PetStoreFacadeService petStoreService,
+                             CatalogFragmentCache catalogFragmentCache) {
+        super(containerEnvironment, sessionUser, activeUsersTracker);
         this.petStoreService = petStoreService;
+        this.catalogFragmentCache = catalogFragmentCache;
     }
 
     /**
@@ -49,6 +55,7 @@ public class ProductController extends BaseController {
     public String products(Model model,
                            OAuth2AuthenticationToken token,
                            HttpServletRequest request,
+                           HttpServletResponse response,
                            @RequestParam(name = "category") String category,
                            @RequestParam(name = "id") int id) throws URISyntaxException {
 
@@ -63,28 +70,31 @@ public class ProductController extends BaseController {
         trackPageView(request, "products");
 
         try {
-            // Ensure pets are loaded in session
-            if (sessionUser.getPets() == null || sessionUser.getPets().isEmpty()) {
-                log.warn("No pets available in session for products request");
+            // Ensure a breeds page was shown in this session
+            if (sessionUser.getShownPetIds() == null) {
+                log.warn("No pets shown in session for products request");
                 throw new IllegalStateException("Pet information not available. Please select a pet breed first.");
             }
 
             // Validate pet ID
-            if (id < 1 || id > sessionUser.getPets().size()) {
-                throw new IllegalArgumentException("Invalid pet ID: " + id);
-            }
-
-            Pet pet = sessionUser.getPets().get(id - 1);
+            Pet pet = this.petStoreService.getPet((long) id)
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid pet ID: " + id));
 
             log.debug("PetStoreApp /products requested for category: {}, pet: {}", category, pet.getName());
 
             // Build product category search term
             String productCategory = pet.getCategory().getName() + " " + category;
 
+            // Read before the products so a cached grid is never newer than the version it is stored with
+            long catalogVersion = this.petStoreService.getProductCatalogVersion();
+
             // Retrieve products for the specified category and pet
             Collection<?> products = this.petStoreService.getProducts(productCategory, pet.getTags());
 
-            model.addAttribute(MODEL_PRODUCTS, products);
+            // The product list depends only on the category and the pet's tags, not on the pet
+            model.addAttribute(MODEL_CATALOG_HTML, catalogFragmentCache.render(VIEW_PRODUCTS,
+                    productCategory + '|' + pet.getTags(), catalogVersion,
+                    request, response, () -> Map.of(MODEL_PRODUCTS, products)));
 
             log.info("Successfully loaded {} products for category: {}, pet: {}",
                     products != null ? products.size() : 0, category, pet.getName());
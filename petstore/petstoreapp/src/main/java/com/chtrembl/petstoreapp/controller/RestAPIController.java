@@ -1,13 +1,23 @@
 package com.chtrembl.petstoreapp.controller;
 
+import com.chtrembl.petstoreapp.config.health.HealthStream;
+import com.chtrembl.petstoreapp.model.BreedPage;
 import com.chtrembl.petstoreapp.model.User;
+import com.chtrembl.petstoreapp.service.ActiveUsersTracker;
+import com.chtrembl.petstoreapp.service.BreedPageService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * Rest API controller for the PetStore application.
- * Provides endpoints for contact information and session introspection.
+ * Provides endpoints for contact information, session introspection, the
+ * active users counter, the health feed and page data for API clients.
  */
 
 @RestController
@@ -16,6 +26,15 @@ public class RestAPIController {
 	@Autowired
 	private User sessionUser;
 
+	@Autowired
+	private ActiveUsersTracker activeUsersTracker;
+
+	@Autowired
+	private HealthStream healthStream;
+
+	@Autowired
+	private BreedPageService breedPageService;
+
 	@GetMapping("/api/contactus")
 	public String contactus() {
 		this.sessionUser.getTelemetryClient().trackEvent(
@@ -28,5 +47,41 @@ public class RestAPIController {
 	public String sessionid() {
 		return this.sessionUser.getSessionId();
 	}
-}
 
+	/**
+	 * Pushes the approximate number of users on the site whenever it changes.
+	 */
+	@GetMapping(value = "/api/activeusers/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter activeUsersStream() {
+		return this.activeUsersTracker.subscribe();
+	}
+
+	/**
+	 * This replica's active users sketch, merged by its peers.
+	 */
+	@GetMapping(value = "/api/activeusers/sketch", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+	public byte[] activeUsersSketch() {
+		return this.activeUsersTracker.windowSketch();
+	}
+
+	/**
+	 * Pushes the application's health, as served by /actuator/health, whenever it changes.
+	 */
+	@GetMapping(value = "/api/health/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter healthStream() {
+		return this.healthStream.subscribe();
+	}
+
+	/**
+	 * Breed details, the breed's toys and food and the session's cart summary in one payload.
+	 * Sections that could not be loaded are listed in "unavailable"; without the pet it is a 503.
+	 */
+	@GetMapping(value = "/api/page/breed/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<BreedPage> breedPage(@PathVariable("id") long id) {
+		return this.breedPageService.getBreedPage(id)
+				.map(page -> page.getPet() != null
+						? ResponseEntity.ok(page)
+						: ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(page))
+				.orElseGet(() -> ResponseEntity.notFound().build());
+	}
+}
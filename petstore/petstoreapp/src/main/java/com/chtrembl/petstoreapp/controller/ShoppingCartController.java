@@ -3,11 +3,11 @@ package com.chtrembl.petstoreapp.controller;
 import com.chtrembl.petstoreapp.model.ContainerEnvironment;
 import com.chtrembl.petstoreapp.model.Order;
 import com.chtrembl.petstoreapp.model.User;
+import com.chtrembl.petstoreapp.service.ActiveUsersTracker;
 import com.chtrembl.petstoreapp.service.PetStoreFacadeService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.cache.CacheManager;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -39,9 +39,9 @@ public class ShoppingCartController extends BaseController {
 
     public ShoppingCartController(ContainerEnvironment containerEnvironment,
                                   User sessionUser,
-                                  CacheManager currentUsersCacheManager,
+                                  ActiveUsersTracker activeUsersTracker,
                                   PetStoreFacadeService petStoreService) {
-        super(containerEnvironment, sessionUser, currentUsersCacheManager);
+        super(containerEnvironment, sessionUser, activeUsersTracker);
         this.petStoreService = petStoreService;
     }
 
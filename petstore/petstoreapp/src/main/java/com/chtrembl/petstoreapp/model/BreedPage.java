@@ -0,0 +1,33 @@
+package com.chtrembl.petstoreapp.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Everything the breed details page shows, for clients that render it themselves.
+ * Sections that could not be loaded in time are left out and named in {@code unavailable}.
+ */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BreedPage {
+	private Pet pet;
+	private Collection<Product> toys;
+	private Collection<Product> food;
+	private CartSummary cart;
+	private List<String> unavailable;
+
+	/**
+	 * Size of the session's open cart.
+	 */
+	@Data
+	@Builder
+	public static class CartSummary {
+		private int items;
+		private int quantity;
+	}
+}
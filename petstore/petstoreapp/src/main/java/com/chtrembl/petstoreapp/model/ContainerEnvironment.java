@@ -5,9 +5,7 @@ import jakarta.annotation.PostConstruct;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.CacheManager;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
 
@@ -37,9 +35,6 @@ public class ContainerEnvironment {
 	@Value("${petstore.service.order.url:}")
 	private String petStoreOrderServiceURL;
 
-	@Autowired
-	private CacheManager currentUsersCacheManager;
-
 	@PostConstruct
 	private void initialize() {
 		try {
@@ -0,0 +1,35 @@
+package com.chtrembl.petstoreapp.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Immutable snapshot of one user's session. This is all the session holds, so it is
+ * also the serialized form for external session stores: a few strings, a counter and
+ * the ids of the pets last shown.
+ */
+@Value
+@Builder(toBuilder = true)
+public class SessionState implements Serializable {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	public static final SessionState EMPTY = SessionState.builder().build();
+
+	@Builder.Default
+	String name = "Guest";
+	String sessionId;
+	String email;
+	int cartCount;
+	List<Long> shownPetIds;
+	boolean initialTelemetryRecorded;
+	/**
+	 * Authenticated principal the session id was issued to, null while anonymous.
+	 */
+	String principal;
+}
@@ -1,8 +1,6 @@
 package com.chtrembl.petstoreapp.model;
 
 import com.chtrembl.petstoreapp.telemetry.PetStoreTelemetryClient;
-import lombok.Getter;
-import lombok.Setter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Scope;
 import org.springframework.context.annotation.ScopedProxyMode;
@@ -11,23 +9,29 @@ import org.springframework.stereotype.Component;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
 /**
  * Session based for each user, each user will also have a unique Telemetry
  * Client instance.
+ * <p>
+ * The state lives in an immutable {@link SessionState} behind an atomic reference:
+ * getters never lock, setters swap in a modified copy, and code that reads several
+ * values per request should take one {@link #snapshot()} instead, since every call on
+ * the session-scoped proxy resolves the bean from the session again.
+ * <p>
+ * The bean itself is not serializable, since it holds injected singletons; session
+ * stores persist its {@link SessionState} and {@link #restore restore} it.
  */
 @Component
 @Scope(value = "session", proxyMode = ScopedProxyMode.TARGET_CLASS)
-@Getter
-@Setter
 public class User {
-	private String name = "Guest";
-	private String sessionId;
-	private String email;
-	private List<Pet> pets;
-	private List<Product> products;
-	private int cartCount;
-	private boolean initialTelemetryRecorded;
+
+	private final AtomicReference<SessionState> state = new AtomicReference<>(SessionState.EMPTY);
+
+	private volatile SessionState persistedState;
+	private volatile long persistedAt;
 
 	@Autowired(required = false)
 	private transient PetStoreTelemetryClient telemetryClient;
@@ -35,28 +39,122 @@ public class User {
 	@Autowired
 	private ContainerEnvironment containerEnvironment;
 
-	public synchronized void setPets(List<Pet> pets) {
-		this.pets = pets;
+	public SessionState snapshot() {
+		return state.get();
+	}
+
+	/**
+	 * Replaces the whole state with one loaded from a session store.
+	 */
+	public void restore(SessionState restored) {
+		state.set(restored);
+		markPersisted(restored);
+	}
+
+	/**
+	 * Moves the session to a new id issued for {@code principal}, e.g. on login. What a
+	 * previous signed-in principal left in the session is not carried over.
+	 */
+	public void rotate(String sessionId, String principal) {
+		update(s -> (s.getPrincipal() != null ? SessionState.EMPTY : s).toBuilder()
+				.sessionId(sessionId)
+				.principal(principal)
+				.build());
+	}
+
+	/**
+	 * The state last written to or read from a session store, or null; used to skip
+	 * writes when nothing changed.
+	 */
+	public SessionState getPersistedState() {
+		return persistedState;
+	}
+
+	public long getPersistedAt() {
+		return persistedAt;
+	}
+
+	public void markPersisted(SessionState persisted) {
+		this.persistedState = persisted;
+		this.persistedAt = System.currentTimeMillis();
+	}
+
+	public String getName() {
+		String name = state.get().getName();
+		return name != null ? name : "Guest";
+	}
+
+	public void setName(String name) {
+		update(s -> s.toBuilder().name(name != null ? name : "Guest").build());
+	}
+
+	public String getSessionId() {
+		return state.get().getSessionId();
+	}
+
+	public void setSessionId(String sessionId) {
+		update(s -> s.toBuilder().sessionId(sessionId).build());
 	}
 
-	public synchronized void setProducts(List<Product> products) {
-		this.products = products;
+	public String getEmail() {
+		return state.get().getEmail();
 	}
 
-	public synchronized String getName() {
-		return this.name != null ? this.name : "Guest";
+	public void setEmail(String email) {
+		update(s -> s.toBuilder().email(email).build());
 	}
 
-	public synchronized void setName(String name) {
-		this.name = name != null ? name : "Guest";
+	public int getCartCount() {
+		return state.get().getCartCount();
+	}
+
+	public void setCartCount(int cartCount) {
+		update(s -> s.toBuilder().cartCount(cartCount).build());
+	}
+
+	public List<Long> getShownPetIds() {
+		return state.get().getShownPetIds();
+	}
+
+	public void setShownPetIds(List<Long> shownPetIds) {
+		List<Long> ids = shownPetIds != null ? List.copyOf(shownPetIds) : null;
+		update(s -> s.toBuilder().shownPetIds(ids).build());
+	}
+
+	public boolean isInitialTelemetryRecorded() {
+		return state.get().isInitialTelemetryRecorded();
+	}
+
+	public void setInitialTelemetryRecorded(boolean initialTelemetryRecorded) {
+		update(s -> s.toBuilder().initialTelemetryRecorded(initialTelemetryRecorded).build());
+	}
+
+	public PetStoreTelemetryClient getTelemetryClient() {
+		return telemetryClient;
+	}
+
+	public void setTelemetryClient(PetStoreTelemetryClient telemetryClient) {
+		this.telemetryClient = telemetryClient;
+	}
+
+	public ContainerEnvironment getContainerEnvironment() {
+		return containerEnvironment;
+	}
+
+	public void setContainerEnvironment(ContainerEnvironment containerEnvironment) {
+		this.containerEnvironment = containerEnvironment;
 	}
 
 	public Map<String, String> getCustomEventProperties() {
 		Map<String, String> properties = new HashMap<>();
-		properties.put("session_Id", this.sessionId);
+		properties.put("session_Id", state.get().getSessionId());
 		properties.put("appDate", this.containerEnvironment.getAppDate());
 		properties.put("appVersion", this.containerEnvironment.getAppVersion());
 		properties.put("containerHostName", this.containerEnvironment.getContainerHostName());
 		return properties;
 	}
-}
\ No newline at end of file
+
+	private void update(UnaryOperator<SessionState> change) {
+		state.updateAndGet(change);
+	}
+}
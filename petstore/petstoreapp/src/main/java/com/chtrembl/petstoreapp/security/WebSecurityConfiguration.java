@@ -49,6 +49,9 @@ public class WebSecurityConfiguration {
                             .requestMatchers("/*product*").permitAll()
                             .requestMatchers("/*cart*").permitAll()
                             .requestMatchers("/api/contactus").permitAll()
+                            .requestMatchers("/api/activeusers/**").permitAll()
+                            .requestMatchers("/api/health/**").permitAll()
+                            .requestMatchers("/api/page/**").permitAll()
                             .requestMatchers("/login*").permitAll()
                             .requestMatchers("/content/**").permitAll()
                             .requestMatchers("/.well-known/**").permitAll()
@@ -0,0 +1,214 @@
+package com.chtrembl.petstoreapp.service;
+
+import com.chtrembl.petstore.catalog.service.SseBroadcaster;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Approximate count of distinct sessions seen in a sliding time window.
+ * <p>
+ * The window is a ring of buckets, each a {@link HyperLogLog}; recording a session is a
+ * hash and a CAS on one register of the current bucket, and a bucket that has aged out
+ * is replaced with a fresh one by CAS on its ring slot. The count merges the buckets
+ * still inside the window, plus the window sketches last fetched from the replicas in
+ * {@code petstore.active-users.peers}, and is memoized for a second. Subscribers of
+ * {@link #subscribe()} get an {@code active-users} event whenever the count changes,
+ * sent through an {@link SseBroadcaster} as the catalog change stream is.
+ */
+@Component
+@Slf4j
+public class ActiveUsersTracker {
+
+    private static final int BACKLOG = 16;
+    private static final long ESTIMATE_TTL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final String SKETCH_PATH = "/api/activeusers/sketch";
+
+    private final AtomicReferenceArray<Bucket> ring;
+    private final long bucketMillis;
+    private final List<String> peers;
+    private final long peerStaleAfterMillis;
+    private final Map<String, PeerSketch> peerSketches = new ConcurrentHashMap<>();
+    private final SseBroadcaster<Void> broadcaster = new SseBroadcaster<>("active-users", BACKLOG);
+    private final ScheduledExecutorService scheduler;
+    private final HttpClient httpClient;
+
+    private volatile Estimate estimate;
+    private long published = -1;
+
+    public ActiveUsersTracker(@Value("${petstore.active-users.window:5m}") Duration window,
+                              @Value("${petstore.active-users.buckets:10}") int buckets,
+                              @Value("${petstore.active-users.publish-interval:5s}") Duration publishInterval,
+                              @Value("${petstore.active-users.peers:}") List<String> peers) {
+        if (buckets < 1 || window.toMillis() < buckets) {
+            throw new IllegalArgumentException("Active users window must hold at least one millisecond per bucket");
+        }
+        this.ring = new AtomicReferenceArray<>(buckets);
+        this.bucketMillis = window.toMillis() / buckets;
+        this.peers = peers.stream().filter(peer -> !peer.isBlank()).map(String::trim).toList();
+        this.peerStaleAfterMillis = Math.max(publishInterval.toMillis() * 3, bucketMillis);
+        this.httpClient = this.peers.isEmpty() ? null : HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "active-users");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long intervalMillis = publishInterval.toMillis();
+        scheduler.scheduleAtFixedRate(this::tick, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Counts a session as active now.
+     */
+    public void record(String sessionId) {
+        if (sessionId != null) {
+            currentBucket().sketch.offer(sessionId);
+        }
+    }
+
+    /**
+     * Estimated distinct sessions in the window, across this replica and its peers.
+     */
+    public long getActiveUsers() {
+        long now = System.nanoTime();
+        Estimate current = estimate;
+        if (current == null || now - current.at > ESTIMATE_TTL_NANOS) {
+            byte[] merged = windowSketch();
+            long oldest = System.currentTimeMillis() - peerStaleAfterMillis;
+            peerSketches.values().stream()
+                    .filter(peer -> peer.receivedAt >= oldest)
+                    .forEach(peer -> HyperLogLog.merge(merged, peer.registers));
+            current = new Estimate(HyperLogLog.estimate(merged), now);
+            estimate = current;
+        }
+        return current.value;
+    }
+
+    /**
+     * Registers of this replica's own window, for peers to merge.
+     */
+    public byte[] windowSketch() {
+        long epoch = System.currentTimeMillis() / bucketMillis;
+        byte[] merged = new byte[HyperLogLog.REGISTERS];
+        for (int i = 0; i < ring.length(); i++) {
+            Bucket bucket = ring.get(i);
+            if (bucket != null && epoch - bucket.epoch < ring.length()) {
+                bucket.sketch.mergeInto(merged);
+            }
+        }
+        return merged;
+    }
+
+    public SseEmitter subscribe() {
+        return broadcaster.subscribe(null, subscriber -> send(subscriber, getActiveUsers())).getEmitter();
+    }
+
+    public int getSubscriberCount() {
+        return broadcaster.getSubscriberCount();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+        broadcaster.shutdown();
+    }
+
+    private Bucket currentBucket() {
+        long epoch = System.currentTimeMillis() / bucketMillis;
+        int slot = (int) (epoch % ring.length());
+        Bucket bucket = ring.get(slot);
+        while (bucket == null || bucket.epoch < epoch) {
+            Bucket fresh = new Bucket(epoch);
+            if (ring.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+            bucket = ring.get(slot);
+        }
+        // A clock step backwards lands in a newer bucket, which still counts the session
+        return bucket;
+    }
+
+    private void tick() {
+        peers.forEach(this::fetchPeer);
+        long activeUsers = getActiveUsers();
+        if (activeUsers == published) {
+            return;
+        }
+        published = activeUsers;
+        broadcaster.broadcast(subscriber -> send(subscriber, activeUsers));
+    }
+
+    private void fetchPeer(String peer) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(peer + SKETCH_PATH))
+                .timeout(Duration.ofSeconds(2))
+                .header("Accept", MediaType.APPLICATION_OCTET_STREAM_VALUE)
+                .GET()
+                .build();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, failure) -> {
+                    if (failure != null) {
+                        log.debug("Could not fetch active users sketch from {}: {}", peer, failure.getMessage());
+                    } else if (response.statusCode() != 200 || response.body().length != HyperLogLog.REGISTERS) {
+                        log.debug("Ignoring active users sketch from {}: HTTP {}, {} bytes",
+                                peer, response.statusCode(), response.body().length);
+                    } else {
+                        peerSketches.put(peer, new PeerSketch(response.body(), System.currentTimeMillis()));
+                    }
+                });
+    }
+
+    private static void send(SseBroadcaster.Subscriber<Void> subscriber, long activeUsers) throws IOException {
+        subscriber.emit(SseEmitter.event()
+                .name("active-users")
+                .data(Map.of("activeUsers", activeUsers), MediaType.APPLICATION_JSON));
+    }
+
+    private static final class Bucket {
+        private final long epoch;
+        private final HyperLogLog sketch = new HyperLogLog();
+
+        private Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    private static final class Estimate {
+        private final long value;
+        private final long at;
+
+        private Estimate(long value, long at) {
+            this.value = value;
+            this.at = at;
+        }
+    }
+
+    private static final class PeerSketch {
+        private final byte[] registers;
+        private final long receivedAt;
+
+        private PeerSketch(byte[] registers, long receivedAt) {
+            this.registers = registers;
+            this.receivedAt = receivedAt;
+        }
+    }
+}
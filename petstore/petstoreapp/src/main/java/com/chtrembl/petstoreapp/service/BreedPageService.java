@@ -0,0 +1,138 @@
+package com.chtrembl.petstoreapp.service;
+
+import com.chtrembl.petstoreapp.model.BreedPage;
+import com.chtrembl.petstoreapp.model.Order;
+import com.chtrembl.petstoreapp.model.Pet;
+import com.chtrembl.petstoreapp.model.Product;
+import com.chtrembl.petstoreapp.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Assembles the breed details page as one {@link BreedPage} for API clients.
+ * <p>
+ * The pet and the cart load in parallel, and the pet's toys and food in parallel as
+ * soon as the pet is known. Each dependency has its own timeout; a section that fails
+ * or times out is left out and named in {@code unavailable} rather than failing the
+ * page. Only the pet itself is required. The session id and the forwarded headers are
+ * captured before anything is forked, and every fork is either joined or cancelled before
+ * the page is returned, so no lookup outlives the request.
+ */
+@Service
+@Slf4j
+public class BreedPageService {
+
+    public static final String PET = "pet";
+    public static final String TOYS = "toys";
+    public static final String FOOD = "food";
+    public static final String CART = "cart";
+
+    private final PetStoreFacadeService petStoreService;
+    private final User sessionUser;
+    private final Duration petTimeout;
+    private final Duration productTimeout;
+    private final Duration cartTimeout;
+
+    public BreedPageService(PetStoreFacadeService petStoreService,
+                            User sessionUser,
+                            @Value("${petstore.api.page.timeout.pet:2s}") Duration petTimeout,
+                            @Value("${petstore.api.page.timeout.product:2s}") Duration productTimeout,
+                            @Value("${petstore.api.page.timeout.cart:1s}") Duration cartTimeout) {
+        this.petStoreService = petStoreService;
+        this.sessionUser = sessionUser;
+        this.petTimeout = petTimeout;
+        this.productTimeout = productTimeout;
+        this.cartTimeout = cartTimeout;
+    }
+
+    /**
+     * The page for a pet, or empty if there is no such pet.
+     */
+    public Optional<BreedPage> getBreedPage(long id) {
+        String sessionId = sessionUser.getSessionId();
+        CompletableFuture<Optional<Pet>> petLookup = withTimeout(petStoreService.getPetAsync(id), petTimeout);
+        // A session that never went through a page has no cart yet
+        CompletableFuture<Order> cartLookup = sessionId != null
+                ? withTimeout(petStoreService.retrieveOrderAsync(sessionId), cartTimeout)
+                : CompletableFuture.completedFuture(null);
+        try {
+            CompletableFuture<Collection<Product>> toysLookup = productsOf(petLookup, "Toy");
+            CompletableFuture<Collection<Product>> foodLookup = productsOf(petLookup, "Food");
+
+            List<String> unavailable = new ArrayList<>();
+            Optional<Pet> pet = join(petLookup, PET, unavailable);
+            if (pet != null && pet.isEmpty()) {
+                // Without a pet there are no product lookups; the cart one is cancelled below
+                return Optional.empty();
+            }
+            Collection<Product> toys = join(toysLookup, TOYS, unavailable);
+            Collection<Product> food = join(foodLookup, FOOD, unavailable);
+            Order order = join(cartLookup, CART, unavailable);
+
+            return Optional.of(BreedPage.builder()
+                    .pet(pet != null ? pet.get() : null)
+                    .toys(toys)
+                    .food(food)
+                    .cart(unavailable.contains(CART) ? null : cartSummary(order))
+                    .unavailable(unavailable.isEmpty() ? null : unavailable)
+                    .build());
+        } finally {
+            // No-ops for lookups already joined; stops the rest on a missing pet or an error
+            petLookup.cancel(true);
+            cartLookup.cancel(true);
+        }
+    }
+
+    private CompletableFuture<Collection<Product>> productsOf(CompletableFuture<Optional<Pet>> petLookup,
+                                                             String kind) {
+        return petLookup.thenCompose(found -> found
+                .map(pet -> withTimeout(petStoreService.getProductsAsync(
+                        pet.getCategory().getName() + " " + kind, pet.getTags()), productTimeout))
+                .orElseGet(() -> CompletableFuture.completedFuture(List.of())));
+    }
+
+    private static <T> CompletableFuture<T> withTimeout(CompletableFuture<T> future, Duration timeout) {
+        return future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private static <T> T join(CompletableFuture<T> future, String section, List<String> unavailable) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof TimeoutException) {
+                log.warn("Breed page section {} timed out", section);
+            } else {
+                log.warn("Breed page section {} failed: {}", section, cause.getMessage());
+            }
+            unavailable.add(section);
+            return null;
+        }
+    }
+
+    private static BreedPage.CartSummary cartSummary(Order order) {
+        if (order == null || order.getProducts() == null || order.isComplete()) {
+            return BreedPage.CartSummary.builder().build();
+        }
+        return BreedPage.CartSummary.builder()
+                .items(order.getProducts().size())
+                .quantity(order.getProducts().stream()
+                        .map(Product::getQuantity)
+                        .filter(Objects::nonNull)
+                        .mapToInt(Integer::intValue)
+                        .sum())
+                .build();
+    }
+}
@@ -0,0 +1,150 @@
+package com.chtrembl.petstoreapp.service;
+
+import com.chtrembl.petstoreapp.model.Order;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Local copy of each session's order, written through from the response of every order
+ * update and revalidated against the order service by ETag.
+ * <p>
+ * A copy written or verified less than {@code trust-for} ago is served as is; an older
+ * one costs a conditional GET, normally answered with an empty 304. Losing an entry
+ * (eviction, another replica) only costs one full GET. Each downstream order call made
+ * on behalf of the cart, and each call saved, is counted in {@code petstore.cart.mirror}
+ * by outcome: {@code hit}, {@code not-modified}, {@code refreshed}, {@code fetched} and
+ * {@code written}.
+ */
+@Component
+@Slf4j
+public class CartMirror {
+
+    private final Cache<String, Entry> orders;
+    private final long trustForNanos;
+    private final Counter hits;
+    private final Counter notModified;
+    private final Counter refreshed;
+    private final Counter fetched;
+    private final Counter written;
+
+    public CartMirror(@Value("${petstore.cart.mirror.trust-for:5s}") Duration trustFor,
+                      @Value("${petstore.session.time-to-live:30m}") Duration timeToLive,
+                      @Value("${petstore.cart.mirror.maximum-size:10000}") long maximumSize,
+                      ObjectProvider<MeterRegistry> meterRegistry) {
+        this.orders = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(timeToLive)
+                .build();
+        this.trustForNanos = trustFor.toNanos();
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        this.hits = counter(registry, "hit");
+        this.notModified = counter(registry, "not-modified");
+        this.refreshed = counter(registry, "refreshed");
+        this.fetched = counter(registry, "fetched");
+        this.written = counter(registry, "written");
+    }
+
+    /**
+     * The mirrored order, or null if there is none.
+     */
+    public Entry get(String orderId) {
+        return orderId != null ? orders.getIfPresent(orderId) : null;
+    }
+
+    /**
+     * Whether an entry is recent enough to be served without asking the order service.
+     */
+    public boolean isTrusted(Entry entry) {
+        return System.nanoTime() - entry.verifiedAt < trustForNanos;
+    }
+
+    /**
+     * Records the order returned by an order update.
+     */
+    public void write(Order order, String eTag) {
+        put(order, eTag);
+        increment(written);
+    }
+
+    /**
+     * Records an order fetched in full; {@code revalidated} when it replaced a stale copy.
+     */
+    public void fetched(Order order, String eTag, boolean revalidated) {
+        put(order, eTag);
+        increment(revalidated ? refreshed : fetched);
+    }
+
+    /**
+     * Marks a copy as confirmed current by a 304.
+     */
+    public void notModified(String orderId, Entry entry) {
+        orders.put(orderId, new Entry(entry.order, entry.eTag, System.nanoTime()));
+        increment(notModified);
+    }
+
+    public void hit() {
+        increment(hits);
+    }
+
+    public void evict(String orderId) {
+        if (orderId != null) {
+            orders.invalidate(orderId);
+        }
+    }
+
+    private void put(Order order, String eTag) {
+        if (order == null || order.getId() == null) {
+            return;
+        }
+        if (eTag == null) {
+            // Nothing to revalidate with, so a later read fetches it again
+            orders.invalidate(order.getId());
+            return;
+        }
+        orders.put(order.getId(), new Entry(order, eTag, System.nanoTime()));
+    }
+
+    private static Counter counter(MeterRegistry registry, String outcome) {
+        return registry != null
+                ? Counter.builder("petstore.cart.mirror").tag("outcome", outcome).register(registry)
+                : null;
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    /**
+     * A mirrored order with its ETag and when it was last known to be current.
+     */
+    public static final class Entry {
+
+        private final Order order;
+        private final String eTag;
+        private final long verifiedAt;
+
+        private Entry(Order order, String eTag, long verifiedAt) {
+            this.order = order;
+            this.eTag = eTag;
+            this.verifiedAt = verifiedAt;
+        }
+
+        public Order getOrder() {
+            return order;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.chtrembl.petstoreapp.service;
+
+import com.chtrembl.petstore.catalog.service.CatalogReplica;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Application-wide read path for a {@link CatalogReplica}, shared by all sessions.
+ * <p>
+ * While the replica is live it is served as is. Otherwise the first read loads it
+ * synchronously, and later reads are always served from memory: once the data is
+ * older than {@code refreshAfter}, a single background refresh is started
+ * (refresh-ahead). A failed refresh keeps serving the previous data (stale-on-error);
+ * only a catalog that has never loaded surfaces the error to the caller.
+ */
+@Slf4j
+public class CatalogCache<T> {
+
+    private final String name;
+    private final CatalogReplica<T> replica;
+    private final Consumer<CatalogReplica<T>> refresher;
+    private final long refreshAfterNanos;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile long refreshedAt;
+    private volatile boolean loaded;
+
+    public CatalogCache(String name, CatalogReplica<T> replica, Consumer<CatalogReplica<T>> refresher,
+                        Duration refreshAfter) {
+        this.name = name;
+        this.replica = replica;
+        this.refresher = refresher;
+        this.refreshAfterNanos = refreshAfter.toNanos();
+    }
+
+    public List<T> values() {
+        ensureFresh();
+        return replica.values();
+    }
+
+    public List<T> values(String group) {
+        ensureFresh();
+        return replica.values(group);
+    }
+
+    public Optional<T> findById(Long id) {
+        ensureFresh();
+        return replica.get(id);
+    }
+
+    /**
+     * Whether reads are served from memory, i.e. without a blocking load of the catalog.
+     */
+    public boolean isLoaded() {
+        return loaded || replica.isLive();
+    }
+
+    /**
+     * Identifies the catalog content; read it before the data it should describe.
+     */
+    public long getVersion() {
+        return replica.getGeneration();
+    }
+
+    private void ensureFresh() {
+        if (replica.isLive()) {
+            if (!loaded) {
+                // Streamed data counts as fresh from now on if the stream drops later
+                refreshedAt = System.nanoTime();
+                loaded = true;
+            }
+            return;
+        }
+        if (!loaded) {
+            loadNow();
+        } else if (System.nanoTime() - refreshedAt > refreshAfterNanos && refreshing.compareAndSet(false, true)) {
+            Thread.ofVirtual().name(name + "-catalog-refresh").start(() -> {
+                try {
+                    refresh();
+                } catch (Exception e) {
+                    log.warn("Refreshing {} catalog failed, serving data from {} s ago: {}", name,
+                            Duration.ofNanos(System.nanoTime() - refreshedAt).toSeconds(), e.getMessage());
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        }
+    }
+
+    private synchronized void loadNow() {
+        if (!loaded) {
+            refresh();
+        }
+    }
+
+    private void refresh() {
+        refresher.accept(replica);
+        refreshedAt = System.nanoTime();
+        loaded = true;
+        log.debug("Refreshed {} catalog: {} items", name, replica.values().size());
+    }
+}
@@ -0,0 +1,94 @@
+package com.chtrembl.petstoreapp.service;
+
+import com.chtrembl.petstoreapp.model.SessionState;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Stores each session as one small file named after its id, for single-node
+ * deployments and local testing. Writes go to a temporary file that is atomically
+ * moved into place, so a reader never sees a partial session. A session whose file
+ * has not been written for longer than the time-to-live is treated as gone.
+ */
+@Slf4j
+public class FileSessionStateRepository implements SessionStateRepository {
+
+    private static final Pattern SESSION_ID = Pattern.compile("[A-Za-z0-9_-]{1,128}");
+
+    private final Path directory;
+    private final Duration timeToLive;
+
+    public FileSessionStateRepository(Path directory, Duration timeToLive) {
+        this.directory = directory;
+        this.timeToLive = timeToLive;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create session directory " + directory, e);
+        }
+        log.info("Storing sessions in {} with a time-to-live of {}", directory, timeToLive);
+    }
+
+    @Override
+    public Optional<SessionState> load(String sessionId) {
+        Path file = file(sessionId);
+        try {
+            if (Files.getLastModifiedTime(file).toInstant().isBefore(Instant.now().minus(timeToLive))) {
+                delete(sessionId);
+                return Optional.empty();
+            }
+            return Optional.of(SessionStateCodec.decode(Files.readAllBytes(file)));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read session " + sessionId, e);
+        }
+    }
+
+    @Override
+    public void save(String sessionId, SessionState state) {
+        Path file = file(sessionId);
+        try {
+            Path temp = Files.createTempFile(directory, sessionId, ".tmp");
+            try {
+                Files.write(temp, SessionStateCodec.encode(state));
+                try {
+                    Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write session " + sessionId, e);
+        }
+    }
+
+    @Override
+    public void delete(String sessionId) {
+        try {
+            Files.deleteIfExists(file(sessionId));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to delete session " + sessionId, e);
+        }
+    }
+
+    private Path file(String sessionId) {
+        if (sessionId == null || !SESSION_ID.matcher(sessionId).matches()) {
+            throw new IllegalArgumentException("Invalid session id");
+        }
+        return directory.resolve(sessionId + ".session");
+    }
+}
@@ -0,0 +1,245 @@
+package com.chtrembl.petstoreapp.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for a Redis-protocol server, so the networked
+ * {@link RespSessionStateRepository} can run on a developer machine, in tests and in
+ * benchmarks without Redis. It listens on the loopback interface, speaks RESP over real
+ * sockets and implements just what the repository uses: {@code PING}, {@code GET},
+ * {@code SET} with {@code PX}, and {@code DEL}. Expired keys are dropped when read and
+ * by a sweep every few thousand writes. One virtual thread per connection; state is
+ * lost on shutdown, as with a non-persistent Redis.
+ */
+@Slf4j
+public class LocalRespServer implements AutoCloseable {
+
+    private static final int SWEEP_EVERY_WRITES = 4096;
+
+    private final ServerSocket serverSocket;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong writes = new AtomicLong();
+    private final Thread acceptor;
+
+    private volatile boolean running = true;
+
+    /**
+     * Starts listening on {@code port}; 0 picks a free port, see {@link #getPort()}.
+     */
+    public LocalRespServer(int port) throws IOException {
+        this.serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+        this.acceptor = Thread.ofVirtual().name("local-resp-acceptor").start(this::accept);
+        log.info("Local RESP session store stand-in listening on {}", serverSocket.getLocalSocketAddress());
+    }
+
+    public String getHost() {
+        return serverSocket.getInetAddress().getHostAddress();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            log.debug("Error closing local RESP server: {}", e.getMessage());
+        }
+        acceptor.interrupt();
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Thread.ofVirtual().name("local-resp-connection").start(() -> serve(socket));
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Local RESP server accept failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            byte[][] command;
+            while ((command = readCommand(in)) != null) {
+                execute(command, out);
+                out.flush();
+            }
+        } catch (SocketException | EOFException e) {
+            log.debug("Local RESP connection closed: {}", e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Local RESP connection failed: {}", e.getMessage());
+        }
+    }
+
+    private void execute(byte[][] command, OutputStream out) throws IOException {
+        String name = command.length > 0 ? ascii(command[0]).toUpperCase(Locale.ROOT) : "";
+        switch (name) {
+            case "PING" -> simple(out, "PONG");
+            case "GET" -> {
+                if (command.length != 2) {
+                    error(out, "wrong number of arguments for 'get'");
+                    return;
+                }
+                Entry entry = live(ascii(command[1]));
+                bulk(out, entry != null ? entry.value : null);
+            }
+            case "SET" -> {
+                if (command.length != 3 && command.length != 5) {
+                    error(out, "wrong number of arguments for 'set'");
+                    return;
+                }
+                long expiresAt = Long.MAX_VALUE;
+                if (command.length == 5) {
+                    if (!"PX".equalsIgnoreCase(ascii(command[3]))) {
+                        error(out, "syntax error");
+                        return;
+                    }
+                    expiresAt = System.currentTimeMillis() + Long.parseLong(ascii(command[4]));
+                }
+                entries.put(ascii(command[1]), new Entry(command[2], expiresAt));
+                if (writes.incrementAndGet() % SWEEP_EVERY_WRITES == 0) {
+                    long now = System.currentTimeMillis();
+                    entries.values().removeIf(entry -> entry.expiresAt <= now);
+                }
+                simple(out, "OK");
+            }
+            case "DEL" -> {
+                long removed = 0;
+                for (int i = 1; i < command.length; i++) {
+                    if (entries.remove(ascii(command[i])) != null) {
+                        removed++;
+                    }
+                }
+                out.write(':');
+                out.write(Long.toString(removed).getBytes(StandardCharsets.US_ASCII));
+                crlf(out);
+            }
+            default -> error(out, "unknown command '" + name + "'");
+        }
+    }
+
+    private Entry live(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Reads one array-of-bulk-strings command, or null at end of stream.
+     */
+    private static byte[][] readCommand(InputStream in) throws IOException {
+        int type = in.read();
+        if (type == -1) {
+            return null;
+        }
+        if (type != '*') {
+            throw new IOException("Expected a RESP array, got '" + (char) type + "'");
+        }
+        int count = Integer.parseInt(readLine(in));
+        byte[][] command = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            if (in.read() != '$') {
+                throw new IOException("Expected a RESP bulk string");
+            }
+            int length = Integer.parseInt(readLine(in));
+            command[i] = in.readNBytes(length);
+            if (command[i].length < length || in.read() != '\r' || in.read() != '\n') {
+                throw new EOFException("Truncated RESP command");
+            }
+        }
+        return command;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\r') {
+            if (b == -1) {
+                throw new EOFException("Connection closed mid-command");
+            }
+            line.append((char) b);
+        }
+        if (in.read() != '\n') {
+            throw new IOException("Malformed RESP line");
+        }
+        return line.toString();
+    }
+
+    private static void simple(OutputStream out, String value) throws IOException {
+        out.write('+');
+        out.write(value.getBytes(StandardCharsets.US_ASCII));
+        crlf(out);
+    }
+
+    private static void error(OutputStream out, String message) throws IOException {
+        out.write('-');
+        out.write(("ERR " + message).getBytes(StandardCharsets.US_ASCII));
+        crlf(out);
+    }
+
+    private static void bulk(OutputStream out, byte[] value) throws IOException {
+        out.write('$');
+        if (value == null) {
+            out.write("-1".getBytes(StandardCharsets.US_ASCII));
+            crlf(out);
+            return;
+        }
+        out.write(Integer.toString(value.length).getBytes(StandardCharsets.US_ASCII));
+        crlf(out);
+        out.write(value);
+        crlf(out);
+    }
+
+    private static void crlf(OutputStream out) throws IOException {
+        out.write('\r');
+        out.write('\n');
+    }
+
+    private static String ascii(byte[] bytes) {
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private static final class Entry {
+
+        private final byte[] value;
+        private final long expiresAt;
+
+        private Entry(byte[] value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
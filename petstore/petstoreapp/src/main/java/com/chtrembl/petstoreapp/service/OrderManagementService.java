@@ -6,15 +6,24 @@ import com.chtrembl.petstoreapp.model.Order;
 import com.chtrembl.petstoreapp.model.Product;
 import com.chtrembl.petstoreapp.model.User;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import feign.FeignException;
+import feign.Response;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import static com.chtrembl.petstoreapp.config.Constants.COMPLETE_ORDER;
@@ -28,8 +37,13 @@ import static com.chtrembl.petstoreapp.config.Constants.QUANTITY;
 @Slf4j
 public class OrderManagementService {
 
+    private static final ObjectReader ORDER_READER = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .readerFor(Order.class);
+
     private final User sessionUser;
     private final OrderServiceClient orderServiceClient;
+    private final CartMirror cartMirror;
 
     public void updateOrder(long productId, int quantity, boolean completeOrder) {
         MDC.put(OPERATION, "updateOrder");
@@ -46,14 +60,21 @@ public class OrderManagementService {
             Order updatedOrder = buildOrderUpdate(productId, quantity, completeOrder);
             String orderJSON = serializeOrder(updatedOrder);
 
-            Order resultOrder = orderServiceClient.createOrUpdateOrder(orderJSON);
+            ResponseEntity<Order> result = orderServiceClient.createOrUpdateOrder(orderJSON);
+            Order resultOrder = result.getBody();
             log.info("Successfully updated order: {}", resultOrder);
 
+            // Write-through: the next cart view reads this instead of fetching it again
+            cartMirror.write(resultOrder, result.getHeaders().getETag());
+            this.sessionUser.setCartCount(cartSizeOf(resultOrder));
+
         } catch (FeignException fe) {
+            cartMirror.evict(this.sessionUser.getSessionId());
             log.error("Unable to update order via Feign client: HTTP {} - {}", fe.status(), fe.getMessage(), fe);
             this.sessionUser.getTelemetryClient().trackException(fe);
             throw new OrderServiceException("Unable to update order via order service", fe);
         } catch (Exception e) {
+            cartMirror.evict(this.sessionUser.getSessionId());
             log.error("Unexpected error updating order", e);
             this.sessionUser.getTelemetryClient().trackException(e);
             throw new OrderServiceException("Unable to update order via order service", e);
@@ -72,12 +93,28 @@ public class OrderManagementService {
                         this.sessionUser.getName()), this.sessionUser.getCustomEventProperties(), null);
 
         try {
-            Order order = orderServiceClient.getOrder(orderId);
-            log.info("Successfully retrieved order: {}", order);
+            CartMirror.Entry mirrored = cartMirror.get(orderId);
+            Order order;
+            if (mirrored != null && cartMirror.isTrusted(mirrored)) {
+                cartMirror.hit();
+                order = mirrored.getOrder();
+                log.debug("Serving order {} from the cart mirror", orderId);
+            } else if (mirrored != null) {
+                order = revalidate(orderId, mirrored);
+            } else {
+                ResponseEntity<Order> result = orderServiceClient.getOrder(orderId);
+                order = result.getBody();
+                cartMirror.fetched(order, result.getHeaders().getETag(), false);
+                log.info("Successfully retrieved order: {}", order);
+            }
+            if (orderId.equals(this.sessionUser.getSessionId())) {
+                this.sessionUser.setCartCount(cartSizeOf(order));
+            }
             return order;
 
         } catch (FeignException.NotFound e) {
             log.debug("Order not found: {}", orderId);
+            cartMirror.evict(orderId);
             return null;
         } catch (FeignException fe) {
             log.error("Unable to retrieve order via Feign client: HTTP {} - {}", fe.status(), fe.getMessage(), fe);
@@ -93,6 +130,47 @@ public class OrderManagementService {
         }
     }
 
+    /**
+     * Asks the order service whether the mirrored copy is still current; a 304 carries no
+     * body and skips the order service's product enrichment.
+     */
+    private Order revalidate(String orderId, CartMirror.Entry mirrored) throws IOException {
+        try (Response response = orderServiceClient.getOrderIfNoneMatch(orderId, mirrored.getETag())) {
+            int status = response.status();
+            if (status == HttpStatus.NOT_MODIFIED.value()) {
+                cartMirror.notModified(orderId, mirrored);
+                log.debug("Cart mirror for order {} is current", orderId);
+                return mirrored.getOrder();
+            }
+            if (status == HttpStatus.NOT_FOUND.value()) {
+                log.debug("Order not found: {}", orderId);
+                cartMirror.evict(orderId);
+                return null;
+            }
+            if (status != HttpStatus.OK.value() || response.body() == null) {
+                cartMirror.evict(orderId);
+                throw new IOException("Unexpected status " + status + " revalidating order " + orderId);
+            }
+            Order order;
+            try (InputStream body = response.body().asInputStream()) {
+                order = ORDER_READER.readValue(body);
+            }
+            cartMirror.fetched(order, header(response, HttpHeaders.ETAG), true);
+            log.info("Successfully retrieved changed order: {}", order);
+            return order;
+        }
+    }
+
+    private static String header(Response response, String name) {
+        Collection<String> values = response.headers().get(name);
+        return values == null || values.isEmpty() ? null : values.iterator().next();
+    }
+
+    private static int cartSizeOf(Order order) {
+        return order != null && order.getProducts() != null && !order.isComplete()
+                ? order.getProducts().size() : 0;
+    }
+
     private Order buildOrderUpdate(long productId, int quantity, boolean completeOrder) {
         Order updatedOrder = new Order();
         updatedOrder.setId(this.sessionUser.getSessionId());
@@ -2,7 +2,6 @@ package com.chtrembl.petstoreapp.service;
 
 import com.chtrembl.petstoreapp.client.PetServiceClient;
 import com.chtrembl.petstoreapp.exception.PetServiceException;
-import com.chtrembl.petstoreapp.model.Category;
 import com.chtrembl.petstoreapp.model.ContainerEnvironment;
 import com.chtrembl.petstoreapp.model.Pet;
 import com.chtrembl.petstoreapp.model.User;
@@ -10,16 +9,18 @@ import feign.FeignException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import static com.chtrembl.petstoreapp.config.Constants.CATEGORY;
 import static com.chtrembl.petstoreapp.config.Constants.OPERATION;
 import static com.chtrembl.petstoreapp.config.Constants.REQUEST_ID;
 import static com.chtrembl.petstoreapp.config.Constants.TRACE_ID;
+import static com.chtrembl.petstoreapp.config.Constants.X_NEXT_CURSOR;
 import static com.chtrembl.petstoreapp.model.Status.AVAILABLE;
 
 @Service
@@ -27,10 +28,45 @@ import static com.chtrembl.petstoreapp.model.Status.AVAILABLE;
 @Slf4j
 public class PetManagementService {
 
+    // What a listing card shows; the rest of each pet is not sent
+    private static final String LISTING_FIELDS = "id,name,photoURL,category";
+
     private final User sessionUser;
     private final ContainerEnvironment containerEnvironment;
+    private final CatalogCache<Pet> petCatalogCache;
     private final PetServiceClient petServiceClient;
 
+    public Optional<Pet> getPetById(Long id) {
+        try {
+            return petCatalogCache.findById(id);
+        } catch (FeignException fe) {
+            log.error("Feign error retrieving pet {} [HTTP: {}, Message: {}]", id, fe.status(), fe.getMessage(), fe);
+            this.sessionUser.getTelemetryClient().trackException(fe);
+            throw new PetServiceException("Unable to retrieve pets from the PetStorePetService", fe);
+        }
+    }
+
+    public long getCatalogVersion() {
+        return petCatalogCache.getVersion();
+    }
+
+    /**
+     * The category's pets page by page. Served from the shared catalog once it is in memory;
+     * before that, pages are read through the pet service's cursor instead of blocking the
+     * first byte on loading the whole catalog.
+     */
+    public PetPages getPetPages(String category, int pageSize) {
+        if (petCatalogCache.isLoaded()) {
+            return PetPages.of(petCatalogCache.values(category), pageSize);
+        }
+        log.debug("Pet catalog not loaded yet, paging category {} from the PetStorePetService", category);
+        return PetPages.fromCursor(cursor -> {
+            ResponseEntity<List<Pet>> page = petServiceClient.getPetsPage(
+                    AVAILABLE.getValue(), category, pageSize, cursor, LISTING_FIELDS);
+            return new PetPages.Page(page.getBody(), page.getHeaders().getFirst(X_NEXT_CURSOR));
+        });
+    }
+
     public Collection<Pet> getPetsByCategory(String category) {
         List<Pet> pets;
 
@@ -42,19 +78,15 @@ public class PetManagementService {
 
         log.info("Starting pet retrieval operation [RequestID: {}, TraceID: {}, Category: {}]",
                 requestId, traceId, category);
-        
+
         try {
             this.sessionUser.getTelemetryClient().trackEvent(
                     String.format("PetStoreApp user %s is requesting to retrieve pets from the PetStorePetService",
                             this.sessionUser.getName()),
                     this.sessionUser.getCustomEventProperties(), null);
 
-            pets = petServiceClient.getPetsByStatus(AVAILABLE.getValue());
-            this.sessionUser.setPets(pets);
-
-            pets = pets.stream()
-                    .filter(pet -> category.equals(pet.getCategory().getName()))
-                    .toList();
+            // Served from the application-wide cache; sessions no longer hold their own copy
+            pets = petCatalogCache.values(category);
 
             log.info("Successfully retrieved {} pets for category {} [RequestID: {}, TraceID: {}]",
                     pets.size(), category, requestId, traceId);
@@ -74,25 +106,9 @@ public class PetManagementService {
             );
             log.error("Failed to retrieve pets from PetStorePetService via Feign client", fe);
             throw new PetServiceException("Unable to retrieve pets from the PetStorePetService", fe);
-        } catch (Exception e) {
-            log.error("Unexpected error when retrieving pets [RequestID: {}, TraceID: {}, Category: {}]",
-                    requestId, traceId, category, e);
-            return createErrorPetCollection(e);
         } finally {
             MDC.remove(OPERATION);
             MDC.remove(CATEGORY);
         }
     }
-
-    private Collection<Pet> createErrorPetCollection(Exception e) {
-        List<Pet> pets = new ArrayList<>();
-        Pet errorPet = new Pet();
-        errorPet.setName("petstore.service.url:${PETSTOREPETSERVICE_URL} needs to be enabled for this service to work: "
-                + e.getMessage());
-        errorPet.setPhotoURL("");
-        errorPet.setCategory(new Category());
-        errorPet.setId((long) 0);
-        pets.add(errorPet);
-        return pets;
-    }
 }
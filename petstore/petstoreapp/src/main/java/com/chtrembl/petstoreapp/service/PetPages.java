@@ -0,0 +1,135 @@
+package com.chtrembl.petstoreapp.service;
+
+import com.chtrembl.petstoreapp.model.Pet;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A pet listing read one page at a time, for templates that render while they iterate.
+ * <p>
+ * Only the current page is referenced, so memory per listing is bounded by the page
+ * size however large the category is. Pages come either from a list already in memory
+ * (as views, without copying) or from the pet service's keyset cursor, fetched when the
+ * template asks for the next page. A {@link #beforeEachPage(Runnable) hook} runs before
+ * each page is obtained, e.g. to flush what has been rendered so far. A failed fetch ends
+ * the listing early and is reported by {@link #isFailed()} instead of being thrown into
+ * a response that may already be committed. Single use, single thread.
+ */
+@Slf4j
+public final class PetPages implements Iterable<List<Pet>> {
+
+    /**
+     * Loads the page at {@code cursor}; null requests the first page.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        Page load(String cursor);
+    }
+
+    private final Loader loader;
+    private Runnable beforeEachPage = () -> {
+    };
+    private boolean iterated;
+    private boolean failed;
+    private long count;
+
+    private PetPages(Loader loader) {
+        this.loader = loader;
+    }
+
+    public static PetPages of(List<Pet> pets, int pageSize) {
+        return new PetPages(cursor -> {
+            int from = cursor != null ? Integer.parseInt(cursor) : 0;
+            int to = Math.min(from + pageSize, pets.size());
+            return new Page(pets.subList(from, to), to < pets.size() ? Integer.toString(to) : null);
+        });
+    }
+
+    public static PetPages fromCursor(Loader loader) {
+        return new PetPages(loader);
+    }
+
+    public PetPages beforeEachPage(Runnable hook) {
+        this.beforeEachPage = hook;
+        return this;
+    }
+
+    /**
+     * Pets handed out so far; the total once iteration has finished.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    @Override
+    public Iterator<List<Pet>> iterator() {
+        if (iterated) {
+            throw new IllegalStateException("Pet pages can only be iterated once");
+        }
+        iterated = true;
+        return new Iterator<>() {
+
+            private Page next;
+            private String cursor;
+            private boolean started;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null && !failed && (!started || cursor != null)) {
+                    next = fetch();
+                }
+                return next != null;
+            }
+
+            @Override
+            public List<Pet> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Page page = next;
+                next = null;
+                cursor = page.nextCursor;
+                count += page.pets.size();
+                return page.pets;
+            }
+
+            private Page fetch() {
+                beforeEachPage.run();
+                started = true;
+                try {
+                    Page page = loader.load(cursor);
+                    if (page == null || page.pets == null || page.pets.isEmpty()) {
+                        cursor = null;
+                        return null;
+                    }
+                    return page;
+                } catch (RuntimeException e) {
+                    log.warn("Pet listing stopped after {} pets: {}", count, e.getMessage());
+                    failed = true;
+                    return null;
+                }
+            }
+        };
+    }
+
+    /**
+     * One page of pets and the cursor of the next, null on the last page.
+     */
+    public static final class Page {
+
+        private final List<Pet> pets;
+        private final String nextCursor;
+
+        public Page(List<Pet> pets, String nextCursor) {
+            this.pets = pets;
+            this.nextCursor = nextCursor;
+        }
+    }
+}
@@ -1,16 +1,39 @@
 package com.chtrembl.petstoreapp.service;
 
+import com.chtrembl.petstoreapp.config.ForwardedHeaders;
 import com.chtrembl.petstoreapp.model.Order;
 import com.chtrembl.petstoreapp.model.Pet;
 import com.chtrembl.petstoreapp.model.Product;
 import com.chtrembl.petstoreapp.model.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
 import org.springframework.stereotype.Service;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
+/**
+ * Single entry point for controllers into the pet, product and order services.
+ * <p>
+ * The {@code *Async} variants run the same calls on virtual threads so a page that
+ * needs several backends waits for the slowest one rather than for their sum. Each
+ * forked task inherits the caller's MDC (request and trace ids, which the Feign
+ * interceptor forwards), a copy of the request's {@link ForwardedHeaders} taken before
+ * forking, and its request attributes (session user). Callers must join or cancel the
+ * futures before the request completes; a future that is cancelled or completed by a
+ * timeout interrupts its task, so it stops at its next blocking call.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -19,11 +42,29 @@ public class PetStoreFacadeService {
     private final PetManagementService petManagementService;
     private final ProductManagementService productManagementService;
     private final OrderManagementService orderManagementService;
+    private final ExecutorService facadeExecutor;
+    private final ForwardedHeaders forwardedHeaders;
 
     public Collection<Pet> getPets(String category) {
         return petManagementService.getPetsByCategory(category);
     }
 
+    public Optional<Pet> getPet(Long id) {
+        return petManagementService.getPetById(id);
+    }
+
+    public PetPages getPetPages(String category, int pageSize) {
+        return petManagementService.getPetPages(category, pageSize);
+    }
+
+    public long getPetCatalogVersion() {
+        return petManagementService.getCatalogVersion();
+    }
+
+    public long getProductCatalogVersion() {
+        return productManagementService.getCatalogVersion();
+    }
+
     public Collection<Product> getProducts(String category, List<Tag> tags) {
         return productManagementService.getProductsByCategory(category, tags);
     }
@@ -35,4 +76,50 @@ public class PetStoreFacadeService {
     public Order retrieveOrder(String orderId) {
         return orderManagementService.retrieveOrder(orderId);
     }
-}
\ No newline at end of file
+
+    public CompletableFuture<Collection<Pet>> getPetsAsync(String category) {
+        return supplyAsync(() -> getPets(category));
+    }
+
+    public CompletableFuture<Optional<Pet>> getPetAsync(Long id) {
+        return supplyAsync(() -> getPet(id));
+    }
+
+    public CompletableFuture<Collection<Product>> getProductsAsync(String category, List<Tag> tags) {
+        return supplyAsync(() -> getProducts(category, tags));
+    }
+
+    public CompletableFuture<Order> retrieveOrderAsync(String orderId) {
+        return supplyAsync(() -> retrieveOrder(orderId));
+    }
+
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        MultiValueMap<String, String> headers = forwardedHeaders.capture();
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running = facadeExecutor.submit(() -> {
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            }
+            ForwardedHeaders.bind(headers);
+            RequestContextHolder.setRequestAttributes(requestAttributes);
+            try {
+                result.complete(task.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+                ForwardedHeaders.unbind();
+                MDC.clear();
+            }
+        });
+        // A caller that gives up (cancel, orTimeout) must not leave the call running
+        result.whenComplete((value, failure) -> {
+            if (result.isCancelled() || failure instanceof TimeoutException) {
+                running.cancel(true);
+            }
+        });
+        return result;
+    }
+}
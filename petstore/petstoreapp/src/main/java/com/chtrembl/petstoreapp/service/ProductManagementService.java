@@ -1,6 +1,5 @@
 package com.chtrembl.petstoreapp.service;
 
-import com.chtrembl.petstoreapp.client.ProductServiceClient;
 import com.chtrembl.petstoreapp.exception.ProductServiceException;
 import com.chtrembl.petstoreapp.model.ContainerEnvironment;
 import com.chtrembl.petstoreapp.model.Product;
@@ -19,7 +18,6 @@ import static com.chtrembl.petstoreapp.config.Constants.CATEGORY;
 import static com.chtrembl.petstoreapp.config.Constants.OPERATION;
 import static com.chtrembl.petstoreapp.config.Constants.REQUEST_ID;
 import static com.chtrembl.petstoreapp.config.Constants.TRACE_ID;
-import static com.chtrembl.petstoreapp.model.Status.AVAILABLE;
 
 @Service
 @RequiredArgsConstructor
@@ -28,7 +26,11 @@ public class ProductManagementService {
 
     private final User sessionUser;
     private final ContainerEnvironment containerEnvironment;
-    private final ProductServiceClient productServiceClient;
+    private final CatalogCache<Product> productCatalogCache;
+
+    public long getCatalogVersion() {
+        return productCatalogCache.getVersion();
+    }
 
     public Collection<Product> getProductsByCategory(String category, List<Tag> tags) {
         List<Product> products;
@@ -48,8 +50,8 @@ public class ProductManagementService {
                             this.sessionUser.getName()),
                     this.sessionUser.getCustomEventProperties(), null);
 
-            products = productServiceClient.getProductsByStatus(AVAILABLE.getValue());
-            this.sessionUser.setProducts(products);
+            // Available products from the application-wide cache; sessions no longer hold their own copy
+            products = productCatalogCache.values();
 
             if (tags.stream().anyMatch(t -> t.getName().equals("large"))) {
                 products = products.stream()
@@ -0,0 +1,193 @@
+package com.chtrembl.petstoreapp.service;
+
+import com.chtrembl.petstoreapp.model.SessionState;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Stores sessions in a Redis-protocol (RESP) key-value server shared by all app
+ * replicas, e.g. Redis, Valkey or a local stand-in speaking the same protocol.
+ * <p>
+ * Only {@code GET}, {@code SET ... PX} and {@code DEL} are used, over a small pool of
+ * plain socket connections; the server expires idle sessions. A connection that fails
+ * mid-command is discarded rather than returned to the pool.
+ */
+@Slf4j
+public class RespSessionStateRepository implements SessionStateRepository, AutoCloseable {
+
+    private static final String KEY_PREFIX = "petstore:session:";
+
+    private final String host;
+    private final int port;
+    private final Duration timeout;
+    private final byte[] timeToLiveMillis;
+    private final BlockingQueue<Connection> idle;
+
+    public RespSessionStateRepository(String host, int port, Duration timeToLive, Duration timeout, int poolSize) {
+        this.host = host;
+        this.port = port;
+        this.timeout = timeout;
+        this.timeToLiveMillis = ascii(Long.toString(timeToLive.toMillis()));
+        this.idle = new ArrayBlockingQueue<>(poolSize);
+        log.info("Storing sessions in RESP server {}:{} with a time-to-live of {}", host, port, timeToLive);
+    }
+
+    @Override
+    public Optional<SessionState> load(String sessionId) {
+        Object reply = execute(ascii("GET"), key(sessionId));
+        return reply instanceof byte[] bytes ? Optional.of(SessionStateCodec.decode(bytes)) : Optional.empty();
+    }
+
+    @Override
+    public void save(String sessionId, SessionState state) {
+        execute(ascii("SET"), key(sessionId), SessionStateCodec.encode(state), ascii("PX"), timeToLiveMillis);
+    }
+
+    @Override
+    public void delete(String sessionId) {
+        execute(ascii("DEL"), key(sessionId));
+    }
+
+    @Override
+    public void close() {
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.close();
+        }
+    }
+
+    private Object execute(byte[]... command) {
+        Connection connection = idle.poll();
+        try {
+            if (connection == null) {
+                connection = connect();
+            }
+            Object reply = connection.execute(command);
+            if (!idle.offer(connection)) {
+                connection.close();
+            }
+            return reply;
+        } catch (IOException e) {
+            if (connection != null) {
+                connection.close();
+            }
+            throw new UncheckedIOException("Session store " + host + ":" + port + " failed", e);
+        }
+    }
+
+    private Connection connect() throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), (int) timeout.toMillis());
+            socket.setSoTimeout((int) timeout.toMillis());
+            socket.setTcpNoDelay(true);
+            return new Connection(socket);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private static byte[] key(String sessionId) {
+        return ascii(KEY_PREFIX + sessionId);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static final class Connection {
+
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream());
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        Object execute(byte[]... command) throws IOException {
+            out.write('*');
+            out.write(ascii(Integer.toString(command.length)));
+            out.write('\r');
+            out.write('\n');
+            for (byte[] argument : command) {
+                out.write('$');
+                out.write(ascii(Integer.toString(argument.length)));
+                out.write('\r');
+                out.write('\n');
+                out.write(argument);
+                out.write('\r');
+                out.write('\n');
+            }
+            out.flush();
+            return readReply();
+        }
+
+        private Object readReply() throws IOException {
+            int type = in.read();
+            String line = readLine();
+            switch (type) {
+                case '+':
+                    return line;
+                case ':':
+                    return Long.parseLong(line);
+                case '-':
+                    throw new IOException("Session store error: " + line);
+                case '$':
+                    int length = Integer.parseInt(line);
+                    if (length < 0) {
+                        return null;
+                    }
+                    byte[] bytes = in.readNBytes(length);
+                    if (bytes.length < length || in.read() != '\r' || in.read() != '\n') {
+                        throw new EOFException("Truncated reply from session store");
+                    }
+                    return bytes;
+                case -1:
+                    throw new EOFException("Session store closed the connection");
+                default:
+                    throw new IOException("Unexpected reply type '" + (char) type + "' from session store");
+            }
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder line = new StringBuilder();
+            int b;
+            while ((b = in.read()) != '\r') {
+                if (b == -1) {
+                    throw new EOFException("Session store closed the connection");
+                }
+                line.append((char) b);
+            }
+            if (in.read() != '\n') {
+                throw new IOException("Malformed reply from session store");
+            }
+            return line.toString();
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                log.debug("Error closing session store connection: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.chtrembl.petstoreapp.service;
+
+import com.chtrembl.petstoreapp.model.SessionState;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary form of a {@link SessionState}.
+ * <p>
+ * Layout: a format version byte, a flag byte (which optional fields are present plus
+ * the telemetry flag), then the present strings as varint length + UTF-8, the cart
+ * count as a varint, the shown pet ids as a varint count followed by zigzag varint
+ * deltas and last the principal, so readers that predate it ignore it. A typical
+ * anonymous session with a page of ids encodes to well under 100 bytes.
+ */
+public final class SessionStateCodec {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final int TELEMETRY_RECORDED = 1;
+    private static final int HAS_NAME = 1 << 1;
+    private static final int HAS_SESSION_ID = 1 << 2;
+    private static final int HAS_EMAIL = 1 << 3;
+    private static final int HAS_SHOWN_PET_IDS = 1 << 4;
+    private static final int HAS_PRINCIPAL = 1 << 5;
+
+    private SessionStateCodec() {
+    }
+
+    public static byte[] encode(SessionState state) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        int flags = (state.isInitialTelemetryRecorded() ? TELEMETRY_RECORDED : 0)
+                | (state.getName() != null ? HAS_NAME : 0)
+                | (state.getSessionId() != null ? HAS_SESSION_ID : 0)
+                | (state.getEmail() != null ? HAS_EMAIL : 0)
+                | (state.getShownPetIds() != null ? HAS_SHOWN_PET_IDS : 0)
+                | (state.getPrincipal() != null ? HAS_PRINCIPAL : 0);
+        out.write(FORMAT_VERSION);
+        out.write(flags);
+        writeString(out, state.getName());
+        writeString(out, state.getSessionId());
+        writeString(out, state.getEmail());
+        writeVarLong(out, zigzag(state.getCartCount()));
+        if (state.getShownPetIds() != null) {
+            writeVarLong(out, state.getShownPetIds().size());
+            long previous = 0;
+            for (Long id : state.getShownPetIds()) {
+                writeVarLong(out, zigzag(id - previous));
+                previous = id;
+            }
+        }
+        writeString(out, state.getPrincipal());
+        return out.toByteArray();
+    }
+
+    public static SessionState decode(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        try {
+            byte version = in.get();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported session format version " + version);
+            }
+            int flags = in.get();
+            SessionState.SessionStateBuilder builder = SessionState.builder()
+                    .initialTelemetryRecorded((flags & TELEMETRY_RECORDED) != 0)
+                    .name((flags & HAS_NAME) != 0 ? readString(in) : null)
+                    .sessionId((flags & HAS_SESSION_ID) != 0 ? readString(in) : null)
+                    .email((flags & HAS_EMAIL) != 0 ? readString(in) : null)
+                    .cartCount((int) unzigzag(readVarLong(in)));
+            if ((flags & HAS_SHOWN_PET_IDS) != 0) {
+                int count = Math.toIntExact(readVarLong(in));
+                List<Long> ids = new ArrayList<>(Math.min(count, in.remaining()));
+                long previous = 0;
+                for (int i = 0; i < count; i++) {
+                    previous += unzigzag(readVarLong(in));
+                    ids.add(previous);
+                }
+                builder.shownPetIds(List.copyOf(ids));
+            }
+            if ((flags & HAS_PRINCIPAL) != 0) {
+                builder.principal(readString(in));
+            }
+            return builder.build();
+        } catch (BufferUnderflowException | ArithmeticException e) {
+            throw new IllegalArgumentException("Truncated or corrupt session state", e);
+        }
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value != null) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(out, bytes.length);
+            out.writeBytes(bytes);
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = Math.toIntExact(readVarLong(in));
+        if (length > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in session state");
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
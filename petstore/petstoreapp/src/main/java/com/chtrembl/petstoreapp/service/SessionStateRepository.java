@@ -0,0 +1,19 @@
+package com.chtrembl.petstoreapp.service;
+
+import com.chtrembl.petstoreapp.model.SessionState;
+
+import java.util.Optional;
+
+/**
+ * External home of {@link SessionState}, keyed by the session id, so any replica of
+ * the app can pick up a shopper's session and a restart does not lose it.
+ * Implementations store the {@link SessionStateCodec} form and expire idle sessions.
+ */
+public interface SessionStateRepository {
+
+    Optional<SessionState> load(String sessionId);
+
+    void save(String sessionId, SessionState state);
+
+    void delete(String sessionId);
+}
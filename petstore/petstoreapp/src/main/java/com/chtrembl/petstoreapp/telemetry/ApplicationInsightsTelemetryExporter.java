@@ -0,0 +1,159 @@
+package com.chtrembl.petstoreapp.telemetry;
+
+import com.microsoft.applicationinsights.TelemetryClient;
+import com.microsoft.applicationinsights.telemetry.Duration;
+import com.microsoft.applicationinsights.telemetry.EventTelemetry;
+import com.microsoft.applicationinsights.telemetry.ExceptionTelemetry;
+import com.microsoft.applicationinsights.telemetry.MetricTelemetry;
+import com.microsoft.applicationinsights.telemetry.PageViewTelemetry;
+import com.microsoft.applicationinsights.telemetry.RemoteDependencyTelemetry;
+import com.microsoft.applicationinsights.telemetry.RequestTelemetry;
+import com.microsoft.applicationinsights.telemetry.SeverityLevel;
+import com.microsoft.applicationinsights.telemetry.Telemetry;
+import com.microsoft.applicationinsights.telemetry.TraceTelemetry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static com.chtrembl.petstoreapp.config.Constants.REQUEST_ID;
+import static com.chtrembl.petstoreapp.config.Constants.TRACE_ID;
+
+/**
+ * Sends telemetry to Application Insights and writes the one log line per item that
+ * {@link PetStoreTelemetryClient} used to write on the request thread. Items keep the
+ * time they were tracked, not the time they were exported, and the request and trace
+ * ids of the request that tracked them are in the MDC while they are exported.
+ */
+public class ApplicationInsightsTelemetryExporter implements TelemetryExporter {
+
+    private static final Logger telemetryLogger = LoggerFactory.getLogger("ApplicationInsightsTelemetry");
+
+    private final TelemetryClient telemetryClient;
+
+    public ApplicationInsightsTelemetryExporter() {
+        this.telemetryClient = new TelemetryClient();
+    }
+
+    @Override
+    public void export(List<TelemetryItem> batch) {
+        for (TelemetryItem item : batch) {
+            putIfPresent(REQUEST_ID, item.getRequestId());
+            putIfPresent(TRACE_ID, item.getTraceId());
+            try {
+                log(item);
+                Telemetry telemetry = toTelemetry(item);
+                if (telemetry != null) {
+                    telemetry.setTimestamp(new Date(item.getTimestamp()));
+                    telemetryClient.track(telemetry);
+                }
+            } finally {
+                MDC.remove(REQUEST_ID);
+                MDC.remove(TRACE_ID);
+            }
+        }
+    }
+
+    @Override
+    public void flush() {
+        telemetryClient.flush();
+    }
+
+    private Telemetry toTelemetry(TelemetryItem item) {
+        return switch (item.getType()) {
+            case EVENT -> {
+                EventTelemetry event = new EventTelemetry(item.getName());
+                putAll(event.getProperties(), item.getProperties());
+                if (item.getMetrics() != null) {
+                    event.getMetrics().putAll(item.getMetrics());
+                }
+                yield event;
+            }
+            case EXCEPTION -> {
+                ExceptionTelemetry exception = new ExceptionTelemetry(item.getException());
+                putAll(exception.getProperties(), item.getProperties());
+                if (item.getMetrics() != null) {
+                    exception.getMetrics().putAll(item.getMetrics());
+                }
+                yield exception;
+            }
+            case METRIC -> {
+                MetricTelemetry metric = new MetricTelemetry(item.getName(), item.getValue());
+                if (item.getCount() != null) {
+                    metric.setCount(item.getCount());
+                    metric.setMin(item.getMin());
+                    metric.setMax(item.getMax());
+                    metric.setStandardDeviation(item.getStandardDeviation());
+                }
+                putAll(metric.getProperties(), item.getProperties());
+                yield metric;
+            }
+            case PAGE_VIEW -> item.getPayload() instanceof PageViewTelemetry pageView
+                    ? pageView
+                    : item.getName() != null ? new PageViewTelemetry(item.getName()) : null;
+            case TRACE -> {
+                SeverityLevel severity = item.getSeverityLevel() instanceof SeverityLevel level
+                        ? level : SeverityLevel.Information;
+                TraceTelemetry trace = new TraceTelemetry(item.getName(), severity);
+                putAll(trace.getProperties(), item.getProperties());
+                yield trace;
+            }
+            case DEPENDENCY -> new RemoteDependencyTelemetry(item.getName(), item.getCommand(),
+                    new Duration(item.getDuration()), item.isSuccess());
+            case REQUEST -> new RequestTelemetry(item.getName(), new Date(item.getTimestamp()),
+                    item.getDuration(), item.getResponseCode(), item.isSuccess());
+        };
+    }
+
+    private void log(TelemetryItem item) {
+        Map<String, String> properties = item.getProperties();
+        if (properties != null) {
+            properties.forEach((key, value) -> {
+                if (value != null) {
+                    MDC.put(key, value);
+                }
+            });
+        }
+        try {
+            switch (item.getType()) {
+                case EVENT -> telemetryLogger.info("Event: {} with properties: {} and metrics: {}",
+                        item.getName(), properties, item.getMetrics());
+                case EXCEPTION -> telemetryLogger.error("Exception tracked with properties: {} and metrics: {}",
+                        properties, item.getMetrics(), item.getException());
+                case METRIC -> telemetryLogger.info("Metric: {} = {} (samples: {}, min: {}, max: {}) with properties: {}",
+                        item.getName(), item.getValue(), item.getCount(), item.getMin(), item.getMax(), properties);
+                case PAGE_VIEW -> telemetryLogger.info("Page view tracked: {}",
+                        item.getName() != null ? item.getName() : item.getPayload());
+                case TRACE -> telemetryLogger.info("Trace [{}]: {} with properties: {}",
+                        item.getSeverityLevel(), item.getName(), properties);
+                case DEPENDENCY -> telemetryLogger.info("Dependency: {} - {} (Success: {})",
+                        item.getName(), item.getCommand(), item.isSuccess());
+                case REQUEST -> telemetryLogger.info("HTTP Request: {} - {} ms (Response: {}, Success: {})",
+                        item.getName(), item.getDuration(), item.getResponseCode(), item.isSuccess());
+            }
+        } finally {
+            if (properties != null) {
+                properties.keySet().forEach(MDC::remove);
+            }
+        }
+    }
+
+    private static void putIfPresent(String key, String value) {
+        if (value != null) {
+            MDC.put(key, value);
+        }
+    }
+
+    private static void putAll(Map<String, String> target, Map<String, String> properties) {
+        if (properties != null) {
+            properties.forEach((key, value) -> {
+                if (value != null) {
+                    target.put(key, value);
+                }
+            });
+        }
+    }
+}
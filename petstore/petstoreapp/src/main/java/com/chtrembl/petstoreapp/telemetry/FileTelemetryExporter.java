@@ -0,0 +1,106 @@
+package com.chtrembl.petstoreapp.telemetry;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.applicationinsights.telemetry.PageViewTelemetry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends telemetry as JSON lines to a local file, for running without Application
+ * Insights. The file is opened once and flushed after every batch.
+ */
+@Slf4j
+public class FileTelemetryExporter implements TelemetryExporter, AutoCloseable {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    private final Path file;
+    private final BufferedWriter writer;
+
+    public FileTelemetryExporter(Path file) throws IOException {
+        this.file = file;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        log.info("Writing telemetry to {}", file.toAbsolutePath());
+    }
+
+    @Override
+    public void export(List<TelemetryItem> batch) {
+        try {
+            for (TelemetryItem item : batch) {
+                objectMapper.writeValue(writer, toJson(item));
+                writer.newLine();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write telemetry to " + file, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private static Map<String, Object> toJson(TelemetryItem item) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("time", Instant.ofEpochMilli(item.getTimestamp()).toString());
+        json.put("type", item.getType().name().toLowerCase());
+        putIfPresent(json, "requestId", item.getRequestId());
+        putIfPresent(json, "traceId", item.getTraceId());
+        putIfPresent(json, "name", item.getPayload() instanceof PageViewTelemetry pageView
+                ? pageView.getName() : item.getName());
+        putIfPresent(json, "properties", item.getProperties());
+        putIfPresent(json, "metrics", item.getMetrics());
+        switch (item.getType()) {
+            case METRIC -> {
+                json.put("value", item.getValue());
+                putIfPresent(json, "count", item.getCount());
+                putIfPresent(json, "min", item.getMin());
+                putIfPresent(json, "max", item.getMax());
+                putIfPresent(json, "standardDeviation", item.getStandardDeviation());
+            }
+            case EXCEPTION -> {
+                json.put("exception", item.getException().getClass().getName());
+                putIfPresent(json, "message", item.getException().getMessage());
+            }
+            case TRACE -> putIfPresent(json, "severity",
+                    item.getSeverityLevel() != null ? String.valueOf(item.getSeverityLevel()) : null);
+            case DEPENDENCY -> {
+                putIfPresent(json, "command", item.getCommand());
+                json.put("durationMs", item.getDuration());
+                json.put("success", item.isSuccess());
+            }
+            case REQUEST -> {
+                json.put("durationMs", item.getDuration());
+                putIfPresent(json, "responseCode", item.getResponseCode());
+                json.put("success", item.isSuccess());
+            }
+            default -> {
+            }
+        }
+        return json;
+    }
+
+    private static void putIfPresent(Map<String, Object> json, String key, Object value) {
+        if (value != null) {
+            json.put(key, value);
+        }
+    }
+}
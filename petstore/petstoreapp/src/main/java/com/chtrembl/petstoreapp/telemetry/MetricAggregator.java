@@ -0,0 +1,247 @@
+package com.chtrembl.petstoreapp.telemetry;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pre-aggregates metric samples in process and exports one item per metric and interval.
+ * <p>
+ * A metric is a name plus an optional dimension (e.g. {@code PageViews} and
+ * {@code Dog}, exported as {@code PageViews_Dog}); both are looked up in nested maps,
+ * so recording builds no key strings. Each metric's accumulator is lock-free: adders
+ * for count, sum and sum of squares, CAS for min and max, and a power-of-two histogram
+ * from which p50/p95/p99 are estimated. Counters are cumulative and the flush exports
+ * the difference since the last flush, so a sample racing the flush lands in one
+ * interval or the next but is never lost. Past {@code maxMetrics} distinct metrics,
+ * new ones are sent unaggregated rather than growing the map without bound.
+ */
+@Slf4j
+public class MetricAggregator implements AutoCloseable {
+
+    private static final String NO_DIMENSION = "";
+    private static final int HISTOGRAM_BUCKETS = 64;
+
+    private final TelemetryPipeline pipeline;
+    private final int maxMetrics;
+    private final Map<String, Map<String, Accumulator>> metrics = new ConcurrentHashMap<>();
+    private final AtomicInteger metricCount = new AtomicInteger();
+    private final ScheduledExecutorService flusher;
+
+    public MetricAggregator(TelemetryPipeline pipeline, Duration flushInterval, int maxMetrics) {
+        this.pipeline = pipeline;
+        this.maxMetrics = maxMetrics;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "telemetry-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = flushInterval.toMillis();
+        flusher.scheduleAtFixedRate(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void record(String name, double value) {
+        record(name, null, value);
+    }
+
+    public void record(String name, String dimension, double value) {
+        Map<String, Accumulator> byDimension = metrics.get(name);
+        if (byDimension == null) {
+            byDimension = metrics.computeIfAbsent(name, key -> new ConcurrentHashMap<>());
+        }
+        String dimensionKey = dimension != null ? dimension : NO_DIMENSION;
+        Accumulator accumulator = byDimension.get(dimensionKey);
+        if (accumulator == null) {
+            accumulator = register(byDimension, name, dimensionKey);
+            if (accumulator == null) {
+                sendUnaggregated(name, dimension, value);
+                return;
+            }
+        }
+        accumulator.add(value);
+    }
+
+    /**
+     * Exports every metric that received samples since the last flush.
+     */
+    public synchronized void flush() {
+        try {
+            long now = System.currentTimeMillis();
+            List<TelemetryItem> items = new ArrayList<>();
+            for (Map<String, Accumulator> byDimension : metrics.values()) {
+                for (Accumulator accumulator : byDimension.values()) {
+                    TelemetryItem item = accumulator.drain(now);
+                    if (item != null) {
+                        items.add(item);
+                    }
+                }
+            }
+            items.forEach(pipeline::offer);
+            log.debug("Flushed {} aggregated metrics", items.size());
+        } catch (RuntimeException e) {
+            log.warn("Could not flush aggregated metrics: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdownNow();
+        flush();
+    }
+
+    private Accumulator register(Map<String, Accumulator> byDimension, String name, String dimension) {
+        if (metricCount.get() >= maxMetrics) {
+            return null;
+        }
+        return byDimension.computeIfAbsent(dimension, key -> {
+            metricCount.incrementAndGet();
+            return new Accumulator(dimension.isEmpty() ? name : name + "_" + dimension);
+        });
+    }
+
+    private void sendUnaggregated(String name, String dimension, double value) {
+        pipeline.offer(TelemetryItem.builder()
+                .type(TelemetryItem.Type.METRIC)
+                .timestamp(System.currentTimeMillis())
+                .name(dimension != null ? name + "_" + dimension : name)
+                .value(value)
+                .build());
+    }
+
+    private static int bucketOf(double value) {
+        if (!(value > 0)) {
+            return 0;
+        }
+        // Bucket 1 holds (0, 1), bucket b >= 2 holds [2^(b-2), 2^(b-1))
+        return Math.clamp(Math.getExponent(value) + 2, 1, HISTOGRAM_BUCKETS - 1);
+    }
+
+    private static double upperBoundOf(int bucket) {
+        return bucket == 0 ? 0 : Math.scalb(1.0, bucket - 1);
+    }
+
+    private static final class Accumulator {
+
+        private final String exportName;
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder sum = new DoubleAdder();
+        private final DoubleAdder sumOfSquares = new DoubleAdder();
+        private final AtomicLong min = new AtomicLong(Double.doubleToRawLongBits(Double.POSITIVE_INFINITY));
+        private final AtomicLong max = new AtomicLong(Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY));
+        private final AtomicLongArray histogram = new AtomicLongArray(HISTOGRAM_BUCKETS);
+
+        // Totals at the previous flush; touched only under MetricAggregator.flush()
+        private long flushedCount;
+        private double flushedSum;
+        private double flushedSumOfSquares;
+        private final long[] flushedHistogram = new long[HISTOGRAM_BUCKETS];
+
+        private Accumulator(String exportName) {
+            this.exportName = exportName;
+        }
+
+        void add(double value) {
+            count.increment();
+            sum.add(value);
+            sumOfSquares.add(value * value);
+            histogram.incrementAndGet(bucketOf(value));
+            updateMin(value);
+            updateMax(value);
+        }
+
+        TelemetryItem drain(long timestamp) {
+            long totalCount = count.sum();
+            long intervalCount = totalCount - flushedCount;
+            if (intervalCount <= 0) {
+                return null;
+            }
+            double totalSum = sum.sum();
+            double totalSumOfSquares = sumOfSquares.sum();
+            double intervalSum = totalSum - flushedSum;
+            double intervalSumOfSquares = totalSumOfSquares - flushedSumOfSquares;
+            double intervalMin = Double.longBitsToDouble(
+                    min.getAndSet(Double.doubleToRawLongBits(Double.POSITIVE_INFINITY)));
+            double intervalMax = Double.longBitsToDouble(
+                    max.getAndSet(Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY)));
+
+            long[] buckets = new long[HISTOGRAM_BUCKETS];
+            long bucketTotal = 0;
+            for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+                long total = histogram.get(i);
+                buckets[i] = total - flushedHistogram[i];
+                flushedHistogram[i] = total;
+                bucketTotal += buckets[i];
+            }
+            flushedCount = totalCount;
+            flushedSum = totalSum;
+            flushedSumOfSquares = totalSumOfSquares;
+
+            double mean = intervalSum / intervalCount;
+            double variance = Math.max(0, intervalSumOfSquares / intervalCount - mean * mean);
+            Map<String, String> properties = new HashMap<>();
+            properties.put("p50", format(percentile(buckets, bucketTotal, 0.50, intervalMax)));
+            properties.put("p95", format(percentile(buckets, bucketTotal, 0.95, intervalMax)));
+            properties.put("p99", format(percentile(buckets, bucketTotal, 0.99, intervalMax)));
+
+            return TelemetryItem.builder()
+                    .type(TelemetryItem.Type.METRIC)
+                    .timestamp(timestamp)
+                    .name(exportName)
+                    .value(intervalSum)
+                    .count(Math.toIntExact(Math.min(intervalCount, Integer.MAX_VALUE)))
+                    // Samples racing the flush may have reset min/max already; fall back to the mean
+                    .min(Double.isInfinite(intervalMin) ? mean : intervalMin)
+                    .max(Double.isInfinite(intervalMax) ? mean : intervalMax)
+                    .standardDeviation(Math.sqrt(variance))
+                    .properties(properties)
+                    .build();
+        }
+
+        private void updateMin(double value) {
+            long current = min.get();
+            while (value < Double.longBitsToDouble(current)
+                    && !min.compareAndSet(current, Double.doubleToRawLongBits(value))) {
+                current = min.get();
+            }
+        }
+
+        private void updateMax(double value) {
+            long current = max.get();
+            while (value > Double.longBitsToDouble(current)
+                    && !max.compareAndSet(current, Double.doubleToRawLongBits(value))) {
+                current = max.get();
+            }
+        }
+
+        private static double percentile(long[] buckets, long total, double quantile, double max) {
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return Double.isInfinite(max) ? upperBoundOf(i) : Math.min(upperBoundOf(i), max);
+                }
+            }
+            return max;
+        }
+
+        private static String format(double value) {
+            return value == Math.rint(value) && Math.abs(value) < 1e15
+                    ? Long.toString((long) value)
+                    : Double.toString(value);
+        }
+    }
+}
@@ -1,181 +1,151 @@
 package com.chtrembl.petstoreapp.telemetry;
 
-import com.microsoft.applicationinsights.TelemetryClient;
-import com.microsoft.applicationinsights.telemetry.Duration;
-import com.microsoft.applicationinsights.telemetry.PageViewTelemetry;
-import com.microsoft.applicationinsights.telemetry.SeverityLevel;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.stereotype.Component;
 
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Map;
 
+import static com.chtrembl.petstoreapp.config.Constants.REQUEST_ID;
+import static com.chtrembl.petstoreapp.config.Constants.TRACE_ID;
+
 /**
  * Custom TelemetryClient that sends data to Application Insights.
- * This version actually sends telemetry data instead of just logging.
+ * <p>
+ * Every call only captures its arguments into a {@link TelemetryItem} and queues it on
+ * the {@link TelemetryPipeline}; logging and the calls into Application Insights (or
+ * the configured exporter) happen in batches on the exporter thread. Property maps are
+ * copied, so callers may reuse theirs, and the request and trace ids in the MDC are
+ * captured with each item, so exporter log lines still carry them. Metrics without
+ * properties are pre-aggregated by the {@link MetricAggregator} instead of being sent
+ * per sample.
  */
 @Component
 public class PetStoreTelemetryClient {
 
-    private static final Logger logger = LoggerFactory.getLogger(PetStoreTelemetryClient.class);
-    private static final Logger telemetryLogger = LoggerFactory.getLogger("ApplicationInsightsTelemetry");
-
-    private final TelemetryClient telemetryClient;
+    private final TelemetryPipeline pipeline;
+    private final MetricAggregator metricAggregator;
 
-    public PetStoreTelemetryClient() {
-        this.telemetryClient = new TelemetryClient();
+    public PetStoreTelemetryClient(TelemetryPipeline pipeline, MetricAggregator metricAggregator) {
+        this.pipeline = pipeline;
+        this.metricAggregator = metricAggregator;
     }
 
     public void track(Object telemetry) {
-        telemetryLogger.info("Custom telemetry tracked: {}", telemetry);
-        logger.debug("Telemetry object processed: {}", telemetry.getClass().getSimpleName());
-
         if (telemetry instanceof String string) {
-            telemetryClient.trackTrace(string);
+            trackTrace(string);
         }
     }
 
     public void trackDependency(String dependencyName, String commandName, Object duration, boolean success) {
-        telemetryLogger.info("Dependency: {} - {} (Success: {})", dependencyName, commandName, success);
-        logger.debug("Dependency call tracked: {} -> {}", dependencyName, commandName);
-
-        long durationMs = duration instanceof Long ? (Long) duration : 0L;
-        telemetryClient.trackDependency(dependencyName, commandName, new Duration(durationMs), success);
+        offer(item(TelemetryItem.Type.DEPENDENCY)
+                .name(dependencyName)
+                .command(commandName)
+                .duration(duration instanceof Long ? (Long) duration : 0L)
+                .success(success));
     }
 
     public void trackEvent(String name, Map<String, String> properties, Map<String, Double> metrics) {
-        if (properties != null) {
-            properties.forEach(MDC::put);
-        }
-
-        telemetryLogger.info("Event: {} with properties: {} and metrics: {}", name, properties, metrics);
-        logger.info("Custom event tracked: {}", name);
-
-        telemetryClient.trackEvent(name, properties, metrics);
-
-        if (properties != null) {
-            properties.keySet().forEach(MDC::remove);
-        }
+        offer(item(TelemetryItem.Type.EVENT)
+                .name(name)
+                .properties(copy(properties))
+                .metrics(copy(metrics)));
     }
 
     public void trackEvent(String name) {
-        telemetryLogger.info("Event: {}", name);
-        logger.info("Simple event tracked: {}", name);
-
-        telemetryClient.trackEvent(name);
+        trackEvent(name, null, null);
     }
 
     public void trackException(Exception exception, Map<String, String> properties, Map<String, Double> metrics) {
-        if (properties != null) {
-            properties.forEach(MDC::put);
-        }
-
-        telemetryLogger.error("Exception tracked with properties: {} and metrics: {}", properties, metrics, exception);
-        logger.error("Exception tracked: {}", exception.getMessage(), exception);
-
-        telemetryClient.trackException(exception, properties, metrics);
-
-        if (properties != null) {
-            properties.keySet().forEach(MDC::remove);
-        }
+        offer(item(TelemetryItem.Type.EXCEPTION)
+                .exception(exception)
+                .properties(copy(properties))
+                .metrics(copy(metrics)));
     }
 
     public void trackException(Exception exception) {
-        telemetryLogger.error("Exception tracked", exception);
-        logger.error("Simple exception tracked: {}", exception.getMessage(), exception);
-
-        telemetryClient.trackException(exception);
+        trackException(exception, null, null);
     }
 
     public void trackHttpRequest(String name, Date timestamp, long duration, String responseCode, boolean success) {
-        telemetryLogger.info("HTTP Request: {} - {} ms (Response: {}, Success: {})", name, duration, responseCode, success);
-        logger.debug("HTTP request logged: {} took {} ms", name, duration);
-
-        telemetryClient.trackHttpRequest(name, timestamp, duration, responseCode, success);
+        offer(item(TelemetryItem.Type.REQUEST)
+                .timestamp(timestamp != null ? timestamp.getTime() : System.currentTimeMillis())
+                .name(name)
+                .duration(duration)
+                .responseCode(responseCode)
+                .success(success));
     }
 
     public void trackMetric(String name, double value, int sampleCount, double min, double max, Map<String, String> properties) {
-        if (properties != null) {
-            properties.forEach(MDC::put);
-        }
-
-        telemetryLogger.info("Metric: {} = {} (samples: {}, min: {}, max: {}) with properties: {}",
-                name, value, sampleCount, min, max, properties);
-        logger.debug("Metric tracked: {} = {}", name, value);
-
-        telemetryClient.trackMetric(name, value);
-
-        if (properties != null) {
-            properties.keySet().forEach(MDC::remove);
-        }
+        offer(item(TelemetryItem.Type.METRIC)
+                .name(name)
+                .value(value)
+                .properties(copy(properties)));
     }
 
+    /**
+     * Adds a sample to the metric's pre-aggregate; one item per metric is sent per flush interval.
+     */
     public void trackMetric(String name, double value) {
-        telemetryLogger.info("Metric: {} = {}", name, value);
-        logger.debug("Simple metric tracked: {} = {}", name, value);
+        metricAggregator.record(name, value);
+    }
 
-        telemetryClient.trackMetric(name, value);
+    /**
+     * Like {@link #trackMetric(String, double)} for the metric {@code name_dimension},
+     * without building that name per call.
+     */
+    public void trackMetric(String name, String dimension, double value) {
+        metricAggregator.record(name, dimension, value);
     }
 
     public void trackPageView(Object pageViewTelemetry) {
-        telemetryLogger.info("Page view tracked: {}", pageViewTelemetry);
-        logger.debug("Page view processed: {}", pageViewTelemetry);
-
-        if (pageViewTelemetry instanceof PageViewTelemetry pageViewTel) {
-            telemetryClient.track(pageViewTel);
+        if (pageViewTelemetry != null) {
+            offer(item(TelemetryItem.Type.PAGE_VIEW)
+                    .payload(pageViewTelemetry));
         }
     }
 
     public void trackPageView(String name) {
-        telemetryLogger.info("Page view: {}", name);
-        logger.info("Page view tracked: {}", name);
-
-        telemetryClient.trackPageView(name);
+        offer(item(TelemetryItem.Type.PAGE_VIEW)
+                .name(name));
     }
 
     public void trackTrace(String message, Object severityLevel, Map<String, String> properties) {
-        if (properties != null) {
-            properties.forEach(MDC::put);
-        }
-
-        telemetryLogger.info("Trace [{}]: {} with properties: {}", severityLevel, message, properties);
-        logger.debug("Trace logged with level: {}", severityLevel);
-
-        if (severityLevel instanceof SeverityLevel severity) {
-            telemetryClient.trackTrace(message, severity, properties);
-        } else {
-            telemetryClient.trackTrace(message, SeverityLevel.Information, properties);
-        }
-
-        if (properties != null) {
-            properties.keySet().forEach(MDC::remove);
-        }
+        offer(item(TelemetryItem.Type.TRACE)
+                .name(message)
+                .severityLevel(severityLevel)
+                .properties(copy(properties)));
     }
 
     public void trackTrace(String message, Object severityLevel) {
-        telemetryLogger.info("Trace [{}]: {}", severityLevel, message);
-        logger.debug("Simple trace: {}", message);
-
-        if (severityLevel instanceof SeverityLevel severity) {
-            telemetryClient.trackTrace(message, severity);
-        } else {
-            telemetryClient.trackTrace(message, SeverityLevel.Information);
-        }
+        trackTrace(message, severityLevel, null);
     }
 
     public void trackTrace(String message) {
-        telemetryLogger.info("Trace: {}", message);
-        logger.info("Trace message: {}", message);
-
-        telemetryClient.trackTrace(message);
+        trackTrace(message, null, null);
     }
 
+    /**
+     * Asks the exporter thread to send everything queued so far; does not wait for it.
+     */
     public void flush() {
-        telemetryLogger.info("Telemetry flush requested");
-        logger.debug("Telemetry flush operation called");
+        pipeline.requestFlush();
+    }
+
+    private static TelemetryItem.TelemetryItemBuilder item(TelemetryItem.Type type) {
+        return TelemetryItem.builder()
+                .type(type)
+                .timestamp(System.currentTimeMillis())
+                .requestId(MDC.get(REQUEST_ID))
+                .traceId(MDC.get(TRACE_ID));
+    }
+
+    private void offer(TelemetryItem.TelemetryItemBuilder item) {
+        pipeline.offer(item.build());
+    }
 
-        telemetryClient.flush();
+    private static <V> Map<String, V> copy(Map<String, V> map) {
+        return map != null ? new HashMap<>(map) : null;
     }
 }
@@ -0,0 +1,18 @@
+package com.chtrembl.petstoreapp.telemetry;
+
+import java.util.List;
+
+/**
+ * Destination of telemetry batches. Called only from the pipeline's exporter thread.
+ */
+@FunctionalInterface
+public interface TelemetryExporter {
+
+    void export(List<TelemetryItem> batch);
+
+    /**
+     * Pushes anything the exporter buffers itself.
+     */
+    default void flush() {
+    }
+}
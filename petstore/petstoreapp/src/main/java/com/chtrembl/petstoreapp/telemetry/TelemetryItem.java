@@ -0,0 +1,43 @@
+package com.chtrembl.petstoreapp.telemetry;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * One telemetry call captured on the request thread, exported later by the
+ * {@link TelemetryPipeline}. Only references are stored; formatting happens on the
+ * exporter thread.
+ */
+@Value
+@Builder
+public class TelemetryItem {
+
+	public enum Type {
+		EVENT, EXCEPTION, METRIC, PAGE_VIEW, TRACE, DEPENDENCY, REQUEST
+	}
+
+	Type type;
+	long timestamp;
+	/** MDC ids of the thread that tracked the item, put back while it is exported. */
+	String requestId;
+	String traceId;
+	String name;
+	Map<String, String> properties;
+	Map<String, Double> metrics;
+	double value;
+	/** Set on pre-aggregated metrics, where value is the sum of count samples. */
+	Integer count;
+	Double min;
+	Double max;
+	Double standardDeviation;
+	Exception exception;
+	Object severityLevel;
+	/** A prepared Application Insights telemetry object, e.g. a page view. */
+	Object payload;
+	String command;
+	long duration;
+	String responseCode;
+	boolean success;
+}
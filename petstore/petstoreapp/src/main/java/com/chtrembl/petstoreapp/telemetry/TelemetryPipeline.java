@@ -0,0 +1,178 @@
+package com.chtrembl.petstoreapp.telemetry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves telemetry off the request thread.
+ * <p>
+ * {@link #offer} puts the item into a bounded {@link TelemetryRingBuffer} and returns;
+ * a single exporter thread drains it and hands the {@link TelemetryExporter} batches
+ * of up to {@code batchSize} items, or whatever has arrived once the oldest item has
+ * waited {@code linger}. Under overload the {@link Overload} policy decides what is
+ * lost: {@code DROP} rejects items only when the buffer is full; {@code SAMPLE} also
+ * keeps just {@code sampleRate} of the non-exception items once the buffer is three
+ * quarters full. Losses are counted in {@code petstore.telemetry.items}.
+ */
+@Slf4j
+public class TelemetryPipeline implements AutoCloseable {
+
+    public enum Overload {
+        DROP, SAMPLE
+    }
+
+    private final TelemetryRingBuffer buffer;
+    private final TelemetryExporter exporter;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long idleNanos;
+    private final Overload overload;
+    private final double sampleRate;
+    private final int sampleAbove;
+    private final Thread exporterThread;
+    private final Counter exported;
+    private final Counter dropped;
+    private final Counter sampledOut;
+    private final Counter failed;
+
+    private volatile boolean running = true;
+    private volatile boolean flushRequested;
+
+    public TelemetryPipeline(TelemetryExporter exporter, int capacity, int batchSize, Duration linger,
+                             Overload overload, double sampleRate, MeterRegistry meterRegistry) {
+        this.buffer = new TelemetryRingBuffer(capacity);
+        this.exporter = exporter;
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerNanos = linger.toNanos();
+        this.idleNanos = Math.clamp(lingerNanos / 10, TimeUnit.MILLISECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(50));
+        this.overload = overload;
+        this.sampleRate = sampleRate;
+        this.sampleAbove = buffer.capacity() * 3 / 4;
+        this.exported = counter(meterRegistry, "exported");
+        this.dropped = counter(meterRegistry, "dropped");
+        this.sampledOut = counter(meterRegistry, "sampled-out");
+        this.failed = counter(meterRegistry, "failed");
+        if (meterRegistry != null) {
+            Gauge.builder("petstore.telemetry.queue.size", buffer, TelemetryRingBuffer::size)
+                    .register(meterRegistry);
+        }
+
+        this.exporterThread = new Thread(this::run, "telemetry-exporter");
+        this.exporterThread.setDaemon(true);
+        this.exporterThread.start();
+    }
+
+    /**
+     * Queues an item without blocking; false if the overload policy discarded it.
+     */
+    public boolean offer(TelemetryItem item) {
+        if (overload == Overload.SAMPLE
+                && item.getType() != TelemetryItem.Type.EXCEPTION
+                && buffer.size() >= sampleAbove
+                && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            increment(sampledOut);
+            return false;
+        }
+        if (!buffer.offer(item)) {
+            increment(dropped);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Asks the exporter thread to export what is queued and flush the exporter; does not wait.
+     */
+    public void requestFlush() {
+        flushRequested = true;
+        LockSupport.unpark(exporterThread);
+    }
+
+    public int getQueueSize() {
+        return buffer.size();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(exporterThread);
+        try {
+            exporterThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<TelemetryItem> batch = new ArrayList<>(batchSize);
+        long oldestAt = 0;
+        while (true) {
+            boolean stopping = !running;
+            int drained = buffer.drainTo(batch, batchSize - batch.size());
+            if (drained > 0 && oldestAt == 0) {
+                oldestAt = System.nanoTime();
+            }
+            boolean flush = flushRequested;
+            if (!batch.isEmpty() && (batch.size() >= batchSize || flush || stopping
+                    || System.nanoTime() - oldestAt >= lingerNanos)) {
+                export(batch);
+                batch.clear();
+                oldestAt = 0;
+                continue;
+            }
+            if (flush || stopping) {
+                flushRequested = false;
+                flushExporter();
+                if (stopping) {
+                    return;
+                }
+            }
+            if (drained == 0) {
+                LockSupport.parkNanos(idleNanos);
+            }
+        }
+    }
+
+    private void export(List<TelemetryItem> batch) {
+        try {
+            exporter.export(batch);
+            if (exported != null) {
+                exported.increment(batch.size());
+            }
+        } catch (RuntimeException e) {
+            if (failed != null) {
+                failed.increment(batch.size());
+            }
+            log.warn("Could not export {} telemetry items: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private void flushExporter() {
+        try {
+            exporter.flush();
+        } catch (RuntimeException e) {
+            log.warn("Could not flush telemetry exporter: {}", e.getMessage());
+        }
+    }
+
+    private static Counter counter(MeterRegistry registry, String outcome) {
+        return registry != null
+                ? Counter.builder("petstore.telemetry.items").tag("outcome", outcome).register(registry)
+                : null;
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.chtrembl.petstoreapp.telemetry;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded multi-producer, single-consumer queue.
+ * <p>
+ * Each slot carries a sequence number: a producer claims the slot for position
+ * {@code t} by CAS on the shared tail once the slot's sequence equals {@code t}, stores
+ * the item and publishes it by setting the sequence to {@code t + 1}. The consumer takes
+ * a slot when its sequence is {@code head + 1} and hands it back for the next lap by
+ * setting it to {@code head + capacity}. A full buffer rejects instead of blocking.
+ */
+final class TelemetryRingBuffer {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<TelemetryItem> items;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    TelemetryRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2) {
+            throw new IllegalArgumentException("Telemetry buffer capacity must be at least 2");
+        }
+        this.capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.items = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    boolean offer(TelemetryItem item) {
+        long position = tail.get();
+        while (true) {
+            int slot = (int) (position & mask);
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    items.lazySet(slot, item);
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // The consumer has not freed this slot yet: full
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Moves up to {@code max} published items into {@code target}; consumer thread only.
+     */
+    int drainTo(List<TelemetryItem> target, int max) {
+        long position = head.get();
+        int drained = 0;
+        while (drained < max) {
+            int slot = (int) (position & mask);
+            if (sequences.get(slot) != position + 1) {
+                break;
+            }
+            target.add(items.get(slot));
+            items.lazySet(slot, null);
+            sequences.set(slot, position + capacity);
+            position++;
+            drained++;
+        }
+        head.lazySet(position);
+        return drained;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
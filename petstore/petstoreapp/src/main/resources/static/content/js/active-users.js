@@ -0,0 +1,47 @@
+/**
+ * Live "users online" counter in the footer.
+ * Subscribes to the active users event stream so the count updates without a page view.
+ */
+document.addEventListener('DOMContentLoaded', () => {
+    const counter = document.getElementById('current-users-on-site');
+    if (!counter || !window.EventSource) {
+        return;
+    }
+
+    let source = null;
+
+    const open = () => {
+        if (source) {
+            return;
+        }
+        // EventSource reconnects by itself after network errors
+        source = new EventSource('/api/activeusers/stream');
+        source.addEventListener('active-users', (event) => {
+            try {
+                counter.textContent = JSON.parse(event.data).activeUsers;
+            } catch (error) {
+                console.warn('Ignoring malformed active users event', error);
+            }
+        });
+    };
+
+    const close = () => {
+        if (source) {
+            source.close();
+            source = null;
+        }
+    };
+
+    // Only hold the connection open while the tab is visible
+    document.addEventListener('visibilitychange', () => {
+        if (document.visibilityState === 'visible') {
+            open();
+        } else {
+            close();
+        }
+    });
+
+    if (document.visibilityState === 'visible') {
+        open();
+    }
+});
@@ -1,6 +1,9 @@
 /**
  * Enhanced Health Monitor for Pet Store Application
  * Shows detailed service status information
+ *
+ * Health is pushed over /api/health/stream whenever it changes; polling
+ * /actuator/health is only the fallback when EventSource is unavailable.
  */
 class HealthMonitor {
     constructor(options = {}) {
@@ -9,6 +12,7 @@ class HealthMonitor {
             retryDelay: options.retryDelay || 5000, // 5 seconds on error
             maxRetries: options.maxRetries || 3,
             timeout: options.timeout || 5000, // 5 second timeout
+            streamUrl: options.streamUrl || '/api/health/stream',
             ...options
         };
 
@@ -16,18 +20,30 @@ class HealthMonitor {
         this.retryCount = 0;
         this.lastStatus = null;
         this.intervalId = null;
+        this.eventSource = null;
+        this.streamFailures = 0;
+        this.streamSupported = typeof EventSource !== 'undefined';
 
         this.init();
     }
 
     async init() {
         console.log('Health Monitor initialized');
-        await this.checkHealth();
-        this.startMonitoring();
         this.addClickHandler();
+        if (this.streamSupported) {
+            this.startMonitoring();
+        } else {
+            await this.checkHealth();
+            this.startMonitoring();
+        }
     }
 
     startMonitoring() {
+        if (this.streamSupported) {
+            this.startStream();
+            return;
+        }
+
         this.intervalId = setInterval(() => {
             this.checkHealth();
         }, this.options.checkInterval);
@@ -35,6 +51,36 @@ class HealthMonitor {
         console.log(`Health monitoring started (interval: ${this.options.checkInterval}ms)`);
     }
 
+    startStream() {
+        if (this.eventSource) return;
+
+        this.eventSource = new EventSource(this.options.streamUrl);
+        this.eventSource.addEventListener('health', (event) => {
+            this.streamFailures = 0;
+            this.retryCount = 0;
+            this.handleHealthResponse(JSON.parse(event.data));
+        });
+        this.eventSource.onerror = () => {
+            // EventSource reconnects by itself; give up on it after repeated failures
+            if (++this.streamFailures >= this.options.maxRetries) {
+                console.warn('Health stream unavailable, falling back to polling');
+                this.stopStream();
+                this.streamSupported = false;
+                this.checkHealth();
+                this.startMonitoring();
+            }
+        };
+
+        console.log(`Health monitoring started (stream: ${this.options.streamUrl})`);
+    }
+
+    stopStream() {
+        if (this.eventSource) {
+            this.eventSource.close();
+            this.eventSource = null;
+        }
+    }
+
     async checkHealth() {
         try {
             const controller = new AbortController();
@@ -222,11 +268,14 @@ class HealthMonitor {
 
     // Stop monitoring
     stop() {
+        // A stream that already fell back to polling stays off; restart() keeps polling
+        this.stopStream();
+        this.streamFailures = 0;
         if (this.intervalId) {
             clearInterval(this.intervalId);
             this.intervalId = null;
-            console.log('Health monitoring stopped');
         }
+        console.log('Health monitoring stopped');
     }
 
     // Restart monitoring
@@ -258,12 +307,12 @@ document.addEventListener('DOMContentLoaded', () => {
     // Add visibility change handler to pause monitoring when tab is not visible
     document.addEventListener('visibilitychange', () => {
         if (document.visibilityState === 'visible') {
-            // Tab became visible - restart monitoring and check immediately
+            // Tab became visible - reopen the stream (or restart polling)
             if (window.healthMonitor) {
                 window.healthMonitor.restart();
             }
         } else {
-            // Tab became hidden - stop monitoring to save resources
+            // Tab became hidden - close the stream to save resources
             if (window.healthMonitor) {
                 window.healthMonitor.stop();
             }
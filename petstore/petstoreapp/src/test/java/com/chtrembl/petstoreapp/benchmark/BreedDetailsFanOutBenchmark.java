@@ -0,0 +1,147 @@
+package com.chtrembl.petstoreapp.benchmark;
+
+import com.chtrembl.petstoreapp.config.ForwardedHeaders;
+import com.chtrembl.petstoreapp.model.BreedPage;
+import com.chtrembl.petstoreapp.model.Category;
+import com.chtrembl.petstoreapp.model.Order;
+import com.chtrembl.petstoreapp.model.Pet;
+import com.chtrembl.petstoreapp.model.Product;
+import com.chtrembl.petstoreapp.model.Tag;
+import com.chtrembl.petstoreapp.model.User;
+import com.chtrembl.petstoreapp.service.BreedPageService;
+import com.chtrembl.petstoreapp.service.PetStoreFacadeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The breed details page's downstream calls, the pet and the cart, made one after the
+ * other as the page used to and in parallel through the facade's async variants, and
+ * the whole {@link BreedPageService} page (pet and cart, then toys and food).
+ * <p>
+ * The facade's backends are replaced by stubs that sleep for a fixed latency, so the
+ * numbers show the fan-out itself (forking, context propagation, joining) and the
+ * wall-clock saving, not network variance. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=BreedDetailsFanOut}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BreedDetailsFanOutBenchmark {
+
+    private static final long PET_ID = 42;
+    private static final String SESSION_ID = "B3F1C0DE5E55101D0000000000000042";
+
+    @Param({"5", "20"})
+    private long latencyMillis;
+
+    private ExecutorService executor;
+    private PetStoreFacadeService facade;
+    private BreedPageService breedPageService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("benchmark-facade-", 0).factory());
+        facade = new LatencyFacade(executor, latencyMillis);
+        User sessionUser = new User();
+        sessionUser.rotate(SESSION_ID, null);
+        breedPageService = new BreedPageService(facade, sessionUser,
+                Duration.ofSeconds(2), Duration.ofSeconds(2), Duration.ofSeconds(1));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.close();
+    }
+
+    @Benchmark
+    public Object sequential() {
+        Pet pet = facade.getPet(PET_ID).orElseThrow();
+        Order order = facade.retrieveOrder(SESSION_ID);
+        return order != null ? pet : null;
+    }
+
+    @Benchmark
+    public Object parallel() {
+        CompletableFuture<Optional<Pet>> petLookup = facade.getPetAsync(PET_ID);
+        CompletableFuture<Order> cartLookup = facade.retrieveOrderAsync(SESSION_ID);
+        Pet pet = petLookup.join().orElseThrow();
+        Order order = cartLookup.join();
+        return order != null ? pet : null;
+    }
+
+    @Benchmark
+    public BreedPage breedPage() {
+        return breedPageService.getBreedPage(PET_ID).orElseThrow();
+    }
+
+    /**
+     * The facade with every backend call replaced by a sleep of the configured latency.
+     */
+    static final class LatencyFacade extends PetStoreFacadeService {
+
+        private final long latencyMillis;
+        private final Pet pet = new Pet();
+        private final Order order = new Order();
+
+        LatencyFacade(ExecutorService executor, long latencyMillis) {
+            super(null, null, null, executor, new ForwardedHeaders(null, null));
+            this.latencyMillis = latencyMillis;
+            pet.setId(PET_ID);
+            pet.setName("Labrador Retriever");
+            pet.setCategory(Category.builder().id(1L).name("Dog").build());
+            pet.setTags(List.of(Tag.builder().id(1L).name("friendly").build()));
+            order.setId(SESSION_ID);
+            order.setProducts(List.of());
+        }
+
+        @Override
+        public Optional<Pet> getPet(Long id) {
+            pause();
+            return Optional.of(pet);
+        }
+
+        @Override
+        public Order retrieveOrder(String orderId) {
+            pause();
+            return order;
+        }
+
+        @Override
+        public Collection<Product> getProducts(String category, List<Tag> tags) {
+            pause();
+            return List.of();
+        }
+
+        private void pause() {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while simulating latency", e);
+            }
+        }
+    }
+}
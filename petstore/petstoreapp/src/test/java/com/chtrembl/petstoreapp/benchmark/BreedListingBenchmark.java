@@ -0,0 +1,219 @@
+package com.chtrembl.petstoreapp.benchmark;
+
+import com.chtrembl.petstoreapp.model.Pet;
+import com.chtrembl.petstoreapp.service.PetPages;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering every breed of a 10k-pet category with the {@code breedCards} fragment:
+ * {@code streamed} iterates {@link PetPages} over the pet service's cursor, decoding and
+ * rendering 100 pets at a time as the all-breeds listing does; {@code buffered} decodes
+ * the whole category from one response before rendering anything. Each call to the pet
+ * service waits {@code latencyMillis} first.
+ * <p>
+ * The score is the whole render. Each iteration also logs the average time to the first
+ * byte of a breed card, and each trial the heap held by the pets a render references at
+ * once (one page, or the whole category), measured after full GCs. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=BreedListing}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Slf4j(topic = "benchmark")
+public class BreedListingBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+    private static final TypeReference<List<Pet>> PET_LIST = new TypeReference<>() {
+    };
+    private static final String STREAMED = "<th:block th:each=\"petPage : ${petPages}\">"
+            + "<th:block th:replace=\"~{fragments/catalog :: breedCards(${petPage})}\"></th:block>"
+            + "</th:block>";
+    private static final String BUFFERED =
+            "<th:block th:replace=\"~{fragments/catalog :: breedCards(${pets})}\"></th:block>";
+
+    @Param({"10000"})
+    private int pets;
+
+    @Param({"streamed", "buffered"})
+    private String mode;
+
+    @Param({"0", "5"})
+    private int latencyMillis;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private SpringTemplateEngine templateEngine;
+    private JakartaServletWebApplication application;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private byte[] categoryJson;
+    private byte[][] pageJson;
+    private long renders;
+    private long firstByteNanos;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ClassLoaderTemplateResolver fragments = new ClassLoaderTemplateResolver();
+        fragments.setPrefix("templates/");
+        fragments.setSuffix(".html");
+        fragments.setTemplateMode(TemplateMode.HTML);
+        fragments.setCharacterEncoding("UTF-8");
+        fragments.setResolvablePatterns(Set.of("fragments/*"));
+        fragments.setOrder(1);
+        StringTemplateResolver listings = new StringTemplateResolver();
+        listings.setTemplateMode(TemplateMode.HTML);
+        listings.setCacheable(true);
+        listings.setOrder(2);
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.addTemplateResolver(fragments);
+        templateEngine.addTemplateResolver(listings);
+
+        MockServletContext servletContext = new MockServletContext();
+        application = JakartaServletWebApplication.buildApplication(servletContext);
+        request = new MockHttpServletRequest(servletContext, "GET", "/dogbreeds");
+        response = new MockHttpServletResponse();
+
+        // The full findByStatus response, and the cursor pages with the listing's fields projection
+        List<Pet> category = new ArrayList<>(pets);
+        List<Pet> listing = new ArrayList<>(pets);
+        for (int id = 1; id <= pets; id++) {
+            category.add(CatalogFixture.pet(id));
+            listing.add(CatalogFixture.listingPet(id));
+        }
+        categoryJson = objectMapper.writeValueAsBytes(category);
+        pageJson = new byte[(pets + PAGE_SIZE - 1) / PAGE_SIZE][];
+        for (int page = 0; page < pageJson.length; page++) {
+            pageJson[page] = objectMapper.writeValueAsBytes(
+                    listing.subList(page * PAGE_SIZE, Math.min((page + 1) * PAGE_SIZE, pets)));
+        }
+
+        long before = usedHeap();
+        List<Pet> held = objectMapper.readValue("streamed".equals(mode) ? pageJson[0] : categoryJson, PET_LIST);
+        long retained = usedHeap() - before;
+        log.info("{} render of {} pets holds {} pets ({} KB of heap) at a time",
+                mode, pets, held.size(), retained / 1024);
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        if (renders > 0) {
+            log.info("{}: first breed card after {} ms on average",
+                    mode, String.format("%.2f", firstByteNanos / (double) renders / 1_000_000));
+        }
+        renders = 0;
+        firstByteNanos = 0;
+    }
+
+    @Benchmark
+    public long render() {
+        long start = System.nanoTime();
+        FirstByteWriter writer = new FirstByteWriter();
+        WebContext context = new WebContext(application.buildExchange(request, response), Locale.US);
+        if ("streamed".equals(mode)) {
+            context.setVariable("petPages", PetPages.fromCursor(this::fetchPage).beforeEachPage(writer::flush));
+            templateEngine.process(STREAMED, context, writer);
+        } else {
+            context.setVariables(Map.of("pets", read(fetch(categoryJson))));
+            templateEngine.process(BUFFERED, context, writer);
+        }
+        renders++;
+        firstByteNanos += writer.firstWriteAt - start;
+        return writer.length;
+    }
+
+    private PetPages.Page fetchPage(String cursor) {
+        int page = cursor != null ? Integer.parseInt(cursor) : 0;
+        List<Pet> chunk = read(fetch(pageJson[page]));
+        return new PetPages.Page(chunk, page + 1 < pageJson.length ? Integer.toString(page + 1) : null);
+    }
+
+    private byte[] fetch(byte[] body) {
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return body;
+    }
+
+    private List<Pet> read(byte[] json) {
+        try {
+            return objectMapper.readValue(json, PET_LIST);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Discards the output, keeping its length and when the first character arrived.
+     */
+    private static final class FirstByteWriter extends Writer {
+
+        private long length;
+        private long firstWriteAt;
+
+        @Override
+        public void write(char[] buffer, int offset, int count) {
+            if (count > 0 && length == 0) {
+                firstWriteAt = System.nanoTime();
+            }
+            length += count;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.chtrembl.petstoreapp.benchmark;
+
+import com.chtrembl.petstoreapp.config.ForwardedHeaders;
+import com.chtrembl.petstoreapp.model.BreedPage;
+import com.chtrembl.petstoreapp.model.Category;
+import com.chtrembl.petstoreapp.model.Order;
+import com.chtrembl.petstoreapp.model.Pet;
+import com.chtrembl.petstoreapp.model.Product;
+import com.chtrembl.petstoreapp.model.Tag;
+import com.chtrembl.petstoreapp.model.User;
+import com.chtrembl.petstoreapp.service.BreedPageService;
+import com.chtrembl.petstoreapp.service.PetStoreFacadeService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a client waits for to show a breed with its toys, food and cart size: one call to
+ * {@code /api/page/breed/{id}} ({@link BreedPageService} plus the JSON encoding), against
+ * the three HTML pages a browser loads for the same data, the breed details page (pet and
+ * cart in parallel) and the toy and food product pages (pet, then products), as their
+ * controllers call the facade. Every downstream call waits {@code latencyMillis} and
+ * every client request {@code roundTripMillis} on top; template rendering is left out
+ * here, see {@code CatalogRenderBenchmark}.
+ * <p>
+ * Each trial logs the size of the JSON payload. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=BreedPage}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Slf4j(topic = "benchmark")
+public class BreedPageBenchmark {
+
+    private static final long PET_ID = 7;
+
+    @Param({"0", "20"})
+    private int latencyMillis;
+
+    @Param({"0", "50"})
+    private int roundTripMillis;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ExecutorService facadeExecutor;
+    private StubFacadeService petStoreService;
+    private BreedPageService breedPageService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JsonProcessingException {
+        facadeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        petStoreService = new StubFacadeService(facadeExecutor);
+        User sessionUser = new User();
+        sessionUser.setSessionId("breed-page-benchmark");
+        breedPageService = new BreedPageService(petStoreService, sessionUser,
+                Duration.ofSeconds(2), Duration.ofSeconds(2), Duration.ofSeconds(1));
+
+        BreedPage page = breedPageService.getBreedPage(PET_ID).orElseThrow();
+        log.info("JSON breed page: {} bytes, unavailable {}",
+                objectMapper.writeValueAsBytes(page).length, page.getUnavailable());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        facadeExecutor.close();
+    }
+
+    @Benchmark
+    public int json() throws JsonProcessingException {
+        roundTrip();
+        return objectMapper.writeValueAsBytes(breedPageService.getBreedPage(PET_ID).orElseThrow()).length;
+    }
+
+    @Benchmark
+    public int html() {
+        // breeddetails: the pet and the cart in parallel
+        roundTrip();
+        CompletableFuture<Optional<Pet>> petLookup = petStoreService.getPetAsync(PET_ID);
+        CompletableFuture<Order> cartLookup = petStoreService.retrieveOrderAsync("breed-page-benchmark");
+        Pet pet = petLookup.join().orElseThrow();
+        int loaded = cartLookup.join().getProducts().size();
+
+        // products?category=Toy and products?category=Food: the pet, then its products
+        for (String kind : List.of("Toy", "Food")) {
+            roundTrip();
+            pet = petStoreService.getPet(PET_ID).orElseThrow();
+            petStoreService.getProductCatalogVersion();
+            loaded += petStoreService.getProducts(pet.getCategory().getName() + " " + kind, pet.getTags()).size();
+        }
+        return loaded;
+    }
+
+    private void roundTrip() {
+        pause(roundTripMillis);
+    }
+
+    private static void pause(int millis) {
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * The facade over canned pet, product and order data, each call waiting
+     * {@code latencyMillis} as a downstream service would. The async variants are the
+     * facade's own, so they fork onto its executor as in the app.
+     */
+    private final class StubFacadeService extends PetStoreFacadeService {
+
+        private final Pet pet;
+        private final List<Product> products;
+        private final Order order;
+
+        private StubFacadeService(ExecutorService executor) {
+            // Outside a request the forwarded headers capture nothing, so they need no request or user
+            super(null, null, null, executor, new ForwardedHeaders(null, null));
+            List<Tag> tags = List.of(Tag.builder().id(1L).name("small").build(),
+                    Tag.builder().id(2L).name("large").build());
+            pet = new Pet();
+            pet.setId(PET_ID);
+            pet.setCategory(Category.builder().id(1L).name("Dog").build());
+            pet.setName("Labrador Retriever");
+            pet.setPhotoURL("https://example.com/pets/7.jpg");
+            pet.setTags(tags);
+
+            products = new ArrayList<>();
+            for (long id = 1; id <= 12; id++) {
+                Product product = new Product();
+                product.setId(id);
+                product.setCategory(Category.builder().id(2L).name("Dog Toy").build());
+                product.setName("Product " + id);
+                product.setPhotoURL("https://example.com/products/" + id + ".jpg");
+                product.setTags(tags);
+                products.add(product);
+            }
+
+            order = new Order();
+            order.setId("breed-page-benchmark");
+            List<Product> cart = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                Product item = new Product();
+                item.setId((long) i + 1);
+                item.setQuantity(i + 1);
+                cart.add(item);
+            }
+            order.setProducts(cart);
+        }
+
+        @Override
+        public Optional<Pet> getPet(Long id) {
+            pause(latencyMillis);
+            return PET_ID == id ? Optional.of(pet) : Optional.empty();
+        }
+
+        @Override
+        public long getProductCatalogVersion() {
+            return 1;
+        }
+
+        @Override
+        public Collection<Product> getProducts(String category, List<Tag> tags) {
+            pause(latencyMillis);
+            return products;
+        }
+
+        @Override
+        public Order retrieveOrder(String orderId) {
+            pause(latencyMillis);
+            return order;
+        }
+    }
+}
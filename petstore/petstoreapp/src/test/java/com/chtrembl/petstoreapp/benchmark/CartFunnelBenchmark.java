@@ -0,0 +1,266 @@
+package com.chtrembl.petstoreapp.benchmark;
+
+import com.chtrembl.petstoreapp.client.OrderServiceClient;
+import com.chtrembl.petstoreapp.model.ContainerEnvironment;
+import com.chtrembl.petstoreapp.model.Order;
+import com.chtrembl.petstoreapp.model.Product;
+import com.chtrembl.petstoreapp.model.User;
+import com.chtrembl.petstoreapp.service.CartMirror;
+import com.chtrembl.petstoreapp.service.OrderManagementService;
+import com.chtrembl.petstoreapp.telemetry.MetricAggregator;
+import com.chtrembl.petstoreapp.telemetry.PetStoreTelemetryClient;
+import com.chtrembl.petstoreapp.telemetry.TelemetryPipeline;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Downstream order calls per checkout funnel, for a new session each time: two breeds
+ * pages (cart count), adding two products and changing one's quantity (each followed by
+ * the {@code /updatecart -> /cart} redirect), a checkout view, and completing the order.
+ * {@code off} drops the mirror entry before every read, as before the cart mirror existed;
+ * {@code revalidate} trusts nothing, so every read with a mirror entry is a conditional GET
+ * (users pausing longer than {@code trust-for} between pages); {@code trusted} runs the
+ * whole funnel within {@code trust-for}.
+ * <p>
+ * The order service is an in-process stub that versions orders and answers
+ * {@code If-None-Match} like the real one, so the score is the app-side cost of a funnel.
+ * Each iteration logs the calls it made per funnel, by kind. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=CartFunnel}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Slf4j(topic = "benchmark")
+public class CartFunnelBenchmark {
+
+    @Param({"off", "revalidate", "trusted"})
+    private String mirror;
+
+    private StubOrderService orderService;
+    private CartMirror cartMirror;
+    private OrderManagementService orderManagementService;
+    private User sessionUser;
+    private TelemetryPipeline pipeline;
+    private MetricAggregator metricAggregator;
+    private long sessions;
+    private long funnels;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pipeline = new TelemetryPipeline(batch -> {
+        }, 65_536, 512, Duration.ofMillis(200), TelemetryPipeline.Overload.DROP, 1.0, null);
+        metricAggregator = new MetricAggregator(pipeline, Duration.ofSeconds(60), 1000);
+
+        ContainerEnvironment containerEnvironment = new ContainerEnvironment();
+        containerEnvironment.setAppVersion("1.0.0");
+        containerEnvironment.setAppDate("2026-01-01");
+        containerEnvironment.setContainerHostName("benchmark");
+        sessionUser = new User();
+        sessionUser.setTelemetryClient(new PetStoreTelemetryClient(pipeline, metricAggregator));
+        sessionUser.setContainerEnvironment(containerEnvironment);
+        sessionUser.setName("Shopper");
+        sessionUser.setEmail("shopper@example.com");
+
+        orderService = new StubOrderService();
+        cartMirror = new CartMirror("revalidate".equals(mirror) ? Duration.ZERO : Duration.ofSeconds(5),
+                Duration.ofMinutes(30), 10_000,
+                new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        orderManagementService = new OrderManagementService(sessionUser, orderService, cartMirror);
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        if (funnels > 0) {
+            log.info(String.format("%s: %.1f order calls per funnel (%.1f updates, %.1f full GETs, "
+                            + "%.1f conditional GETs of which %.1f not modified)",
+                    mirror, (double) orderService.calls() / funnels,
+                    (double) orderService.updates / funnels, (double) orderService.gets / funnels,
+                    (double) orderService.conditionalGets / funnels, (double) orderService.notModified / funnels));
+        }
+        orderService.reset();
+        funnels = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        metricAggregator.close();
+        pipeline.close();
+    }
+
+    @Benchmark
+    public int checkout() {
+        String sessionId = String.format("%032X", ++sessions);
+        sessionUser.rotate(sessionId, null);
+
+        viewCart(sessionId);
+        viewCart(sessionId);
+        orderManagementService.updateOrder(1, 1, false);
+        viewCart(sessionId);
+        orderManagementService.updateOrder(2, 1, false);
+        viewCart(sessionId);
+        orderManagementService.updateOrder(2, 3, false);
+        viewCart(sessionId);
+        viewCart(sessionId);
+        orderManagementService.updateOrder(0, 0, true);
+        viewCart(sessionId);
+
+        funnels++;
+        return sessionUser.getCartCount();
+    }
+
+    private void viewCart(String sessionId) {
+        if ("off".equals(mirror)) {
+            cartMirror.evict(sessionId);
+        }
+        orderManagementService.retrieveOrder(sessionId);
+    }
+
+    /**
+     * Order service that versions each order on update and answers {@code If-None-Match}
+     * with an empty 304, counting every call it receives.
+     */
+    private static final class StubOrderService implements OrderServiceClient {
+
+        private static final Request REQUEST = Request.create(Request.HttpMethod.GET,
+                "http://stub/petstoreorderservice/v2/store/order", Map.of(), null, StandardCharsets.UTF_8, null);
+
+        private final ObjectMapper objectMapper = new ObjectMapper()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        private final Map<String, Order> orders = new HashMap<>();
+        private long updates;
+        private long gets;
+        private long conditionalGets;
+        private long notModified;
+
+        @Override
+        public ResponseEntity<Order> createOrUpdateOrder(String orderJson) {
+            updates++;
+            Order update = read(orderJson.getBytes(StandardCharsets.UTF_8));
+            Order order = order(update.getId());
+            if (update.isComplete()) {
+                order.setComplete(true);
+            } else if (update.getProducts() != null) {
+                for (Product product : update.getProducts()) {
+                    merge(order.getProducts(), product);
+                }
+            }
+            order.setVersion(order.getVersion() + 1);
+            return ResponseEntity.ok().eTag(eTag(order)).body(copy(order));
+        }
+
+        @Override
+        public ResponseEntity<Order> getOrder(String orderId) {
+            gets++;
+            Order order = order(orderId);
+            return ResponseEntity.ok().eTag(eTag(order)).body(copy(order));
+        }
+
+        @Override
+        public Response getOrderIfNoneMatch(String orderId, String eTag) {
+            conditionalGets++;
+            Order order = order(orderId);
+            String current = eTag(order);
+            Response.Builder response = Response.builder()
+                    .request(REQUEST)
+                    .headers(Map.of(HttpHeaders.ETAG, List.of(current)));
+            if (current.equals(eTag)) {
+                notModified++;
+                return response.status(304).reason("Not Modified").build();
+            }
+            return response.status(200).reason("OK").body(write(order)).build();
+        }
+
+        @Override
+        public String getHealth() {
+            return "{\"status\":\"UP\"}";
+        }
+
+        long calls() {
+            return updates + gets + conditionalGets;
+        }
+
+        void reset() {
+            orders.clear();
+            updates = 0;
+            gets = 0;
+            conditionalGets = 0;
+            notModified = 0;
+        }
+
+        private Order order(String orderId) {
+            return orders.computeIfAbsent(orderId, id -> {
+                Order order = new Order().id(id).products(new ArrayList<>());
+                order.setVersion(1L);
+                return order;
+            });
+        }
+
+        private static void merge(List<Product> products, Product update) {
+            for (Product product : products) {
+                if (product.getId().equals(update.getId())) {
+                    product.setQuantity(update.getQuantity());
+                    return;
+                }
+            }
+            products.add(update);
+        }
+
+        private static String eTag(Order order) {
+            return "W/\"" + order.getVersion() + "\"";
+        }
+
+        // The app gets its own decoded copy, as it would over the wire
+        private Order copy(Order order) {
+            return read(write(order));
+        }
+
+        private byte[] write(Order order) {
+            try {
+                return objectMapper.writeValueAsBytes(order);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private Order read(byte[] json) {
+            try {
+                return objectMapper.readValue(json, Order.class);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.chtrembl.petstoreapp.benchmark;
+
+import com.chtrembl.petstoreapp.model.Category;
+import com.chtrembl.petstoreapp.model.Pet;
+import com.chtrembl.petstoreapp.model.Product;
+import com.chtrembl.petstoreapp.model.Status;
+import com.chtrembl.petstoreapp.model.Tag;
+
+import java.util.List;
+
+/**
+ * Canned pets and products for the benchmarks, shaped like the pet and product services
+ * return them. Each object has one of twenty tags and its own category and tag objects,
+ * as deserializing a response gives.
+ */
+public final class CatalogFixture {
+
+    private static final String[] CATEGORIES = {"Dog", "Cat", "Fish"};
+    private static final int TAGS = 20;
+
+    private CatalogFixture() {
+    }
+
+    /**
+     * An available dog breed.
+     */
+    public static Pet pet(int id) {
+        return pet(id, 0);
+    }
+
+    /**
+     * An available breed of store category {@code categoryIndex} modulo three.
+     */
+    public static Pet pet(int id, int categoryIndex) {
+        Pet pet = listingPet(id, categoryIndex);
+        pet.setTags(tags(id));
+        pet.setStatus(Status.AVAILABLE);
+        return pet;
+    }
+
+    /**
+     * A dog breed with only the fields the breed listing's projection asks for.
+     */
+    public static Pet listingPet(int id) {
+        return listingPet(id, 0);
+    }
+
+    public static Product product(int id, String category) {
+        Product product = new Product();
+        product.setId((long) id);
+        product.setCategory(Category.builder().id(2L).name(category).build());
+        product.setName("Product " + id);
+        product.setPhotoURL("https://example.com/products/" + id + ".jpg");
+        product.setTags(tags(id));
+        product.setQuantity(1);
+        return product;
+    }
+
+    private static Pet listingPet(int id, int categoryIndex) {
+        int index = categoryIndex % CATEGORIES.length;
+        Pet pet = new Pet();
+        pet.setId((long) id);
+        pet.setCategory(Category.builder().id((long) index + 1).name(CATEGORIES[index]).build());
+        pet.setName("Breed " + id);
+        pet.setPhotoURL("https://example.com/pets/" + id + ".jpg");
+        return pet;
+    }
+
+    private static List<Tag> tags(int id) {
+        return List.of(Tag.builder().id((long) id % TAGS).name("tag-" + id % TAGS).build());
+    }
+}
@@ -0,0 +1,162 @@
+package com.chtrembl.petstoreapp.benchmark;
+
+import com.chtrembl.petstoreapp.client.PooledFeignClient;
+import com.chtrembl.petstoreapp.model.Order;
+import com.chtrembl.petstoreapp.model.Pet;
+import com.chtrembl.petstoreapp.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The downstream calls behind the breeds page (pet list and cart order) and the cart page
+ * (cart order and product list), issued by 32 concurrent users through the pooled JDK
+ * transport and through Feign's {@code HttpURLConnection} client. Both talk to a stub
+ * HTTP/1.1 server on loopback that answers with canned JSON after {@code latencyMillis};
+ * the stub is HTTP/1.1 only, so this measures pooling and the in-flight limit, not HTTP/2
+ * multiplexing. Coalescing is left out so every call reaches the stub. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=FeignTransport}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+public class FeignTransportBenchmark {
+
+    private static final int PETS = 100;
+    private static final Map<String, Collection<String>> HEADERS = Map.of(
+            "Accept", List.of("application/json"),
+            "Content-Type", List.of("application/json"));
+
+    @Param({"pooled", "default"})
+    private String transport;
+
+    @Param({"0", "10"})
+    private int latencyMillis;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private Client client;
+    private Request.Options options;
+    private String petsUrl;
+    private String productsUrl;
+    private String orderUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<Pet> pets = new ArrayList<>(PETS);
+        List<Product> products = new ArrayList<>(PETS);
+        for (int id = 1; id <= PETS; id++) {
+            pets.add(CatalogFixture.pet(id));
+            products.add(CatalogFixture.product(id, "Toys"));
+        }
+        Order order = new Order();
+        order.setId("B3F1C0DE5E55101D0000000000000042");
+        order.setEmail("shopper@example.com");
+        order.setProducts(products.subList(0, 5));
+        order.setVersion(3L);
+
+        byte[] petsJson = objectMapper.writeValueAsBytes(pets);
+        byte[] productsJson = objectMapper.writeValueAsBytes(products);
+        byte[] orderJson = objectMapper.writeValueAsBytes(order);
+
+        serverExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.createContext("/petstorepetservice/v2/pet/findByStatus", exchange -> respond(exchange, petsJson));
+        server.createContext("/petstoreproductservice/v2/product/findByStatus", exchange -> respond(exchange, productsJson));
+        server.createContext("/petstoreorderservice/v2/store/order/", exchange -> respond(exchange, orderJson));
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        String base = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+        petsUrl = base + "/petstorepetservice/v2/pet/findByStatus?status=available&category=Dog";
+        productsUrl = base + "/petstoreproductservice/v2/product/findByStatus?status=available";
+        orderUrl = base + "/petstoreorderservice/v2/store/order/" + order.getId();
+
+        // Same timeouts as FeignConfig
+        options = new Request.Options(5000, TimeUnit.MILLISECONDS, 5000, TimeUnit.MILLISECONDS, true);
+        client = "default".equals(transport)
+                ? new Client.Default(null, null)
+                : new PooledFeignClient(Duration.ofMillis(options.connectTimeoutMillis()),
+                        options.isFollowRedirects(), 64, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop(0);
+        serverExecutor.close();
+    }
+
+    @Benchmark
+    public int breedsPage() throws IOException {
+        return get(petsUrl) + get(orderUrl);
+    }
+
+    @Benchmark
+    public int cartPage() throws IOException {
+        return get(orderUrl) + get(productsUrl);
+    }
+
+    private int get(String url) throws IOException {
+        Request request = Request.create(Request.HttpMethod.GET, url, HEADERS, null, StandardCharsets.UTF_8, null);
+        try (Response response = client.execute(request, options);
+             InputStream body = response.body().asInputStream()) {
+            if (response.status() != 200) {
+                throw new IOException("Stub answered " + response.status() + " for " + url);
+            }
+            return body.readAllBytes().length;
+        }
+    }
+
+    private void respond(HttpExchange exchange, byte[] body) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.chtrembl.petstoreapp.benchmark;
+
+import com.chtrembl.petstoreapp.telemetry.MetricAggregator;
+import com.chtrembl.petstoreapp.telemetry.PetStoreTelemetryClient;
+import com.chtrembl.petstoreapp.telemetry.TelemetryItem;
+import com.chtrembl.petstoreapp.telemetry.TelemetryPipeline;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A per-category {@code trackMetric} from four request threads: added to the
+ * {@link MetricAggregator}, and queued as one telemetry item per sample as before
+ * pre-aggregation. The exporter only counts what reaches it.
+ * <p>
+ * Each iteration flushes the aggregates, waits for the pipeline to drain and logs the
+ * samples recorded against the items exported and the samples dropped by a full queue,
+ * i.e. the volume that would otherwise go to Application Insights. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=MetricAggregation}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@Slf4j(topic = "benchmark")
+public class MetricAggregationBenchmark {
+
+    private static final String[] CATEGORIES = {"Dog", "Cat", "Fish"};
+
+    private final LongAdder exported = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private TelemetryPipeline pipeline;
+    private MetricAggregator metricAggregator;
+    private PetStoreTelemetryClient telemetryClient;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pipeline = new TelemetryPipeline(batch -> exported.add(batch.size()), 65_536, 512, Duration.ofMillis(200),
+                TelemetryPipeline.Overload.DROP, 1.0, null);
+        // Flushed per iteration below rather than on the timer
+        metricAggregator = new MetricAggregator(pipeline, Duration.ofHours(1), 1000);
+        telemetryClient = new PetStoreTelemetryClient(pipeline, metricAggregator);
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() throws InterruptedException {
+        metricAggregator.flush();
+        pipeline.requestFlush();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (pipeline.getQueueSize() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        // Let the exporter finish the batch it took last
+        Thread.sleep(100);
+        log.info("{} samples recorded, {} items exported, {} samples dropped",
+                samples.sumThenReset(), exported.sumThenReset(), dropped.sumThenReset());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        metricAggregator.close();
+        pipeline.close();
+    }
+
+    @Benchmark
+    public void aggregated() {
+        telemetryClient.trackMetric("PageViews", category(), 1);
+        samples.increment();
+    }
+
+    @Benchmark
+    public void perSample() {
+        boolean queued = pipeline.offer(TelemetryItem.builder()
+                .type(TelemetryItem.Type.METRIC)
+                .timestamp(System.currentTimeMillis())
+                .name("PageViews_" + category())
+                .value(1)
+                .build());
+        samples.increment();
+        if (!queued) {
+            dropped.increment();
+        }
+    }
+
+    private static String category() {
+        return CATEGORIES[ThreadLocalRandom.current().nextInt(CATEGORIES.length)];
+    }
+}
@@ -0,0 +1,119 @@
+package com.chtrembl.petstoreapp.benchmark;
+
+import com.chtrembl.petstoreapp.model.Pet;
+import com.chtrembl.petstoreapp.model.User;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap held by 10k browsing sessions, and the per-request cost of recording a breeds
+ * page in one. {@code ids} is the current layout: a session keeps only the ids of the
+ * pets it was shown, the pets live in the app-wide catalog cache. {@code copies} is the
+ * layout before that cache, where every session kept its own decoded pet list.
+ * <p>
+ * Each trial logs the heap the sessions retain, measured after full GCs. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=SessionHeap}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@Slf4j(topic = "benchmark")
+public class SessionHeapBenchmark {
+
+    private static final int SESSIONS = 10_000;
+    private static final int PAGE_SIZE = 24;
+    private static final TypeReference<List<Pet>> PET_LIST = new TypeReference<>() {
+    };
+
+    @Param({"100", "1000"})
+    private int catalogPets;
+
+    @Param({"ids", "copies"})
+    private String layout;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] catalogJson;
+    private List<Long> pageIds;
+    private List<User> sessions;
+    private List<List<Pet>> sessionCopies;
+    private User sessionUser;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<Pet> catalog = new ArrayList<>(catalogPets);
+        for (int id = 1; id <= catalogPets; id++) {
+            catalog.add(CatalogFixture.pet(id, id));
+        }
+        catalogJson = objectMapper.writeValueAsBytes(catalog);
+        pageIds = catalog.subList(0, Math.min(PAGE_SIZE, catalogPets)).stream().map(Pet::getId).toList();
+        sessionUser = session(0);
+
+        long before = usedHeap();
+        sessions = new ArrayList<>(SESSIONS);
+        sessionCopies = new ArrayList<>(SESSIONS);
+        for (int i = 0; i < SESSIONS; i++) {
+            User user = session(i);
+            user.setShownPetIds(pageIds);
+            sessions.add(user);
+            if ("copies".equals(layout)) {
+                sessionCopies.add(objectMapper.readValue(catalogJson, PET_LIST));
+            }
+        }
+        long retained = usedHeap() - before;
+        log.info("{} sessions ({}, {} pets) retain {} KB of heap, {} bytes each",
+                SESSIONS, layout, catalogPets, retained / 1024, retained / SESSIONS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessions = null;
+        sessionCopies = null;
+    }
+
+    @Benchmark
+    public Object recordBreedsPage() throws IOException {
+        if ("copies".equals(layout)) {
+            return objectMapper.readValue(catalogJson, PET_LIST);
+        }
+        sessionUser.setShownPetIds(pageIds);
+        return sessionUser.snapshot();
+    }
+
+    private static User session(int i) {
+        User user = new User();
+        user.rotate(String.format("%032X", i), null);
+        user.setName("Shopper " + i);
+        user.setEmail("shopper" + i + "@example.com");
+        return user;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
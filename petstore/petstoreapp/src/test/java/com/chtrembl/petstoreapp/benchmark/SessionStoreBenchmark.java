@@ -0,0 +1,138 @@
+package com.chtrembl.petstoreapp.benchmark;
+
+import com.chtrembl.petstoreapp.model.SessionState;
+import com.chtrembl.petstoreapp.service.FileSessionStateRepository;
+import com.chtrembl.petstoreapp.service.LocalRespServer;
+import com.chtrembl.petstoreapp.service.RespSessionStateRepository;
+import com.chtrembl.petstoreapp.service.SessionStateCodec;
+import com.chtrembl.petstoreapp.service.SessionStateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Per-request session I/O of the external session stores: the read a node makes the
+ * first time it sees a session, the write after a request that changed it, and the
+ * codec work inside both. {@code resp} goes over loopback sockets to a
+ * {@link LocalRespServer}, so it includes a network round trip but no Redis. Requests
+ * that change nothing skip the write entirely. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=SessionStore}; add
+ * {@code -t 16} to the JMH arguments to see the connection pool under contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Slf4j(topic = "benchmark")
+public class SessionStoreBenchmark {
+
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(30);
+    private static final String SESSION_ID = "B3F1C0DE5E55101D0000000000000042";
+
+    @Param({"file", "resp"})
+    private String store;
+
+    private Path directory;
+    private LocalRespServer localServer;
+    private SessionStateRepository repository;
+    private SessionState state;
+    private byte[] encoded;
+    private int cartCount;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if ("file".equals(store)) {
+            directory = Files.createTempDirectory("petstore-sessions-benchmark");
+            repository = new FileSessionStateRepository(directory, TIME_TO_LIVE);
+        } else {
+            localServer = new LocalRespServer(0);
+            repository = new RespSessionStateRepository(localServer.getHost(), localServer.getPort(),
+                    TIME_TO_LIVE, Duration.ofSeconds(2), 16);
+        }
+
+        state = SessionState.builder()
+                .name("Jane Shopper")
+                .sessionId(SESSION_ID)
+                .email("jane.shopper@example.com")
+                .cartCount(3)
+                .shownPetIds(LongStream.rangeClosed(1, 24).boxed().toList())
+                .initialTelemetryRecorded(true)
+                .build();
+        encoded = SessionStateCodec.encode(state);
+        repository.save(SESSION_ID, state);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (repository instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+        if (localServer != null) {
+            localServer.close();
+        }
+        if (directory != null) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public Optional<SessionState> restore() {
+        return repository.load(SESSION_ID);
+    }
+
+    @Benchmark
+    public SessionState writeChanged() {
+        SessionState changed = state.toBuilder().cartCount(++cartCount & 0xFF).build();
+        repository.save(SESSION_ID, changed);
+        return changed;
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return SessionStateCodec.encode(state);
+    }
+
+    @Benchmark
+    public SessionState decode() {
+        return SessionStateCodec.decode(encoded);
+    }
+
+    /**
+     * Encoded size of the benchmark session, logged once per trial for the bytes-per-session figure.
+     */
+    @TearDown(Level.Trial)
+    public void reportSize() {
+        log.info("Encoded session state: {} bytes", encoded.length);
+    }
+}
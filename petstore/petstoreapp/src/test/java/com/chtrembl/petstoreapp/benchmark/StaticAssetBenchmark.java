@@ -0,0 +1,143 @@
+package com.chtrembl.petstoreapp.benchmark;
+
+import com.chtrembl.petstoreapp.config.PrecompressedAssets;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.CachingResourceResolver;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serving one asset under {@code /content/**}, per request the browser makes:
+ * {@code plain} and {@code plainRevalidated} are the fixed-name handler as before,
+ * answering a first fetch in full and every later page view with a 304 to
+ * {@code If-Modified-Since}; {@code fingerprinted} is the content-hashed name through
+ * the same resolver chain {@code WebMvcConfig} registers, answered from the
+ * {@link PrecompressedAssets} gzip variant. A fingerprinted asset is requested once per
+ * browser and then not at all until it changes, so later page views cost it nothing.
+ * <p>
+ * Each trial logs the status and bytes of each response. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=StaticAsset}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Slf4j(topic = "benchmark")
+public class StaticAssetBenchmark {
+
+    @Param({"petstoreapp.css", "js/health-monitor.js"})
+    private String asset;
+
+    private MockServletContext servletContext;
+    private ResourceHttpRequestHandler plainHandler;
+    private ResourceHttpRequestHandler fingerprintedHandler;
+    private String fingerprintedPath;
+    private long lastModified;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        servletContext = new MockServletContext();
+
+        // Before: Spring Boot's default static handler, fixed names revalidated by Last-Modified
+        plainHandler = new ResourceHttpRequestHandler();
+        plainHandler.setLocations(List.of(new ClassPathResource("static/content/")));
+        plainHandler.setServletContext(servletContext);
+        plainHandler.afterPropertiesSet();
+
+        PrecompressedAssets precompressedAssets = new PrecompressedAssets("");
+        fingerprintedHandler = new ResourceHttpRequestHandler();
+        fingerprintedHandler.setLocations(List.of(new UrlResource(precompressedAssets.getLocation()),
+                new ClassPathResource("static/content/")));
+        fingerprintedHandler.setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable());
+        fingerprintedHandler.setResourceResolvers(List.of(
+                new CachingResourceResolver(new ConcurrentMapCache("resource-chain")),
+                new EncodedResourceResolver(),
+                new VersionResourceResolver().addContentVersionStrategy("/**"),
+                new PathResourceResolver()));
+        fingerprintedHandler.setServletContext(servletContext);
+        fingerprintedHandler.afterPropertiesSet();
+
+        ClassPathResource resource = new ClassPathResource("static/content/" + asset);
+        byte[] content;
+        try (InputStream in = resource.getInputStream()) {
+            content = in.readAllBytes();
+        }
+        fingerprintedPath = StringUtils.stripFilenameExtension(asset) + "-" + DigestUtils.md5DigestAsHex(content)
+                + "." + StringUtils.getFilenameExtension(asset);
+        lastModified = resource.lastModified();
+
+        log.info("{}: plain {}, revalidated {}, fingerprinted {}", asset,
+                describe(plain()), describe(plainRevalidated()), describe(fingerprinted()));
+    }
+
+    @Benchmark
+    public MockHttpServletResponse plain() throws Exception {
+        return serve(plainHandler, request(asset));
+    }
+
+    @Benchmark
+    public MockHttpServletResponse plainRevalidated() throws Exception {
+        MockHttpServletRequest request = request(asset);
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+        return serve(plainHandler, request);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse fingerprinted() throws Exception {
+        MockHttpServletRequest request = request(fingerprintedPath);
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br");
+        return serve(fingerprintedHandler, request);
+    }
+
+    private MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(servletContext, "GET", "/content/" + path);
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, path);
+        return request;
+    }
+
+    private static MockHttpServletResponse serve(ResourceHttpRequestHandler handler, MockHttpServletRequest request)
+            throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        handler.handleRequest(request, response);
+        return response;
+    }
+
+    private static String describe(MockHttpServletResponse response) throws IOException {
+        String encoding = response.getHeader(HttpHeaders.CONTENT_ENCODING);
+        return response.getStatus() + " with " + response.getContentAsByteArray().length + " bytes"
+                + (encoding != null ? " (" + encoding + ")" : "");
+    }
+}
@@ -0,0 +1,105 @@
+package com.chtrembl.petstoreapp.benchmark;
+
+import com.chtrembl.petstoreapp.telemetry.FileTelemetryExporter;
+import com.chtrembl.petstoreapp.telemetry.MetricAggregator;
+import com.chtrembl.petstoreapp.telemetry.PetStoreTelemetryClient;
+import com.chtrembl.petstoreapp.telemetry.TelemetryItem;
+import com.chtrembl.petstoreapp.telemetry.TelemetryPipeline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.MDC;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a {@code trackEvent} costs the request thread: queued on the
+ * {@link TelemetryPipeline}, and, for comparison, exported inline on the calling thread
+ * as before the pipeline existed. Both write JSON lines through a
+ * {@link FileTelemetryExporter} to a temporary file, so nothing leaves the machine; the
+ * queued variant's export happens on the exporter thread and is not measured. The MDC
+ * holds request and trace ids, as on a request thread. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=TelemetryTracking}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TelemetryTrackingBenchmark {
+
+    private Path directory;
+    private FileTelemetryExporter queuedExporter;
+    private FileTelemetryExporter inlineExporter;
+    private TelemetryPipeline pipeline;
+    private MetricAggregator metricAggregator;
+    private PetStoreTelemetryClient telemetryClient;
+    private Map<String, String> properties;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("petstore-telemetry-benchmark");
+        queuedExporter = new FileTelemetryExporter(directory.resolve("queued.jsonl"));
+        inlineExporter = new FileTelemetryExporter(directory.resolve("inline.jsonl"));
+        pipeline = new TelemetryPipeline(queuedExporter, 65_536, 512, Duration.ofMillis(200),
+                TelemetryPipeline.Overload.DROP, 1.0, null);
+        metricAggregator = new MetricAggregator(pipeline, Duration.ofSeconds(60), 1000);
+        telemetryClient = new PetStoreTelemetryClient(pipeline, metricAggregator);
+
+        properties = new HashMap<>();
+        properties.put("session_Id", "B3F1C0DE5E55101D0000000000000042");
+        properties.put("appVersion", "1.0.0");
+        properties.put("containerHostName", "benchmark");
+        MDC.put("requestId", "7f3a9c21");
+        MDC.put("traceId", "4bf92f3577b34da6a3ce929d0e0e4736");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        MDC.clear();
+        metricAggregator.close();
+        pipeline.close();
+        queuedExporter.close();
+        inlineExporter.close();
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void queued() {
+        telemetryClient.trackEvent("PetStoreApp user viewed breeds", properties, null);
+    }
+
+    @Benchmark
+    public void inline() {
+        inlineExporter.export(List.of(TelemetryItem.builder()
+                .type(TelemetryItem.Type.EVENT)
+                .timestamp(System.currentTimeMillis())
+                .requestId(MDC.get("requestId"))
+                .traceId(MDC.get("traceId"))
+                .name("PetStoreApp user viewed breeds")
+                .properties(new HashMap<>(properties))
+                .build()));
+    }
+}
@@ -0,0 +1,143 @@
+package com.chtrembl.petstoreapp.config;
+
+import com.chtrembl.petstoreapp.model.SessionState;
+import com.chtrembl.petstoreapp.model.User;
+import com.chtrembl.petstoreapp.service.FileSessionStateRepository;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+import static com.chtrembl.petstoreapp.config.Constants.PETSTORE_SESSION_COOKIE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionStateInterceptorTest {
+
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(30);
+
+    @TempDir
+    Path directory;
+
+    private FileSessionStateRepository repository;
+    private MockHttpSession session;
+    private User sessionUser;
+    private SessionStateInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        repository = new FileSessionStateRepository(directory, TIME_TO_LIVE);
+        session = new MockHttpSession();
+        sessionUser = new User();
+        interceptor = new SessionStateInterceptor(repository, sessionUser, TIME_TO_LIVE);
+    }
+
+    @Test
+    void issuesTheContainerSessionIdToANewVisitor() {
+        MockHttpServletResponse response = handle(request(null));
+
+        assertEquals(session.getId(), sessionUser.getSessionId());
+        Cookie cookie = response.getCookie(PETSTORE_SESSION_COOKIE);
+        assertEquals(session.getId(), cookie.getValue());
+        assertTrue(cookie.isHttpOnly());
+        assertEquals(Optional.of(sessionUser.snapshot()), repository.load(session.getId()));
+    }
+
+    @Test
+    void doesNotAdoptAnIdTheStoreHasNoSessionFor() {
+        MockHttpServletRequest request = request(null);
+        request.setCookies(new Cookie(PETSTORE_SESSION_COOKIE, "planted-id"));
+        MockHttpServletResponse response = handle(request);
+
+        assertEquals(session.getId(), sessionUser.getSessionId());
+        assertEquals(session.getId(), response.getCookie(PETSTORE_SESSION_COOKIE).getValue());
+        assertEquals(Optional.empty(), repository.load("planted-id"));
+    }
+
+    @Test
+    void restoresAStoredSessionOnANewNode() {
+        SessionState stored = SessionState.builder().sessionId("stored-1").cartCount(4).build();
+        repository.save("stored-1", stored);
+
+        MockHttpServletRequest request = request(null);
+        request.setCookies(new Cookie(PETSTORE_SESSION_COOKIE, "stored-1"));
+        handle(request);
+
+        assertEquals(stored, sessionUser.snapshot());
+    }
+
+    @Test
+    void doesNotRestoreStateStoredForAnotherId() {
+        repository.save("stored-1", SessionState.builder().sessionId("stored-2").cartCount(4).build());
+
+        MockHttpServletRequest request = request(null);
+        request.setCookies(new Cookie(PETSTORE_SESSION_COOKIE, "stored-1"));
+        handle(request);
+
+        assertEquals(session.getId(), sessionUser.getSessionId());
+        assertEquals(0, sessionUser.getCartCount());
+    }
+
+    @Test
+    void rotatesTheIdOnLoginAndKeepsTheAnonymousCart() {
+        handle(request(null));
+        String anonymousId = sessionUser.getSessionId();
+        sessionUser.setCartCount(2);
+
+        MockHttpServletResponse response = handle(request("shopper@example.com"));
+
+        String signedInId = sessionUser.getSessionId();
+        assertNotEquals(anonymousId, signedInId);
+        assertEquals(signedInId, response.getCookie(PETSTORE_SESSION_COOKIE).getValue());
+        assertEquals("shopper@example.com", sessionUser.snapshot().getPrincipal());
+        assertEquals(2, sessionUser.getCartCount());
+        assertEquals(Optional.empty(), repository.load(anonymousId));
+        assertEquals(Optional.of(sessionUser.snapshot()), repository.load(signedInId));
+    }
+
+    @Test
+    void rotatesTheIdAndDropsStateWhenThePrincipalChanges() {
+        handle(request("shopper@example.com"));
+        String firstId = sessionUser.getSessionId();
+        sessionUser.setCartCount(3);
+        handle(request(null));
+
+        assertNotEquals(firstId, sessionUser.getSessionId());
+        assertNull(sessionUser.snapshot().getPrincipal());
+        assertEquals(0, sessionUser.getCartCount());
+        assertEquals(Optional.empty(), repository.load(firstId));
+    }
+
+    @Test
+    void setsNoCookieOnceTheIdIsIssued() {
+        handle(request(null));
+        MockHttpServletResponse response = handle(request(null));
+
+        assertNull(response.getCookie(PETSTORE_SESSION_COOKIE));
+    }
+
+    private MockHttpServletRequest request(String principal) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.setSession(session);
+        if (principal != null) {
+            request.setUserPrincipal(() -> principal);
+        }
+        return request;
+    }
+
+    private MockHttpServletResponse handle(MockHttpServletRequest request) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+        return response;
+    }
+}
@@ -0,0 +1,177 @@
+package com.chtrembl.petstoreapp.config.health;
+
+import com.chtrembl.petstoreapp.model.ContainerEnvironment;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An {@code /actuator/health} check of the three downstream services from eight
+ * visitors at once: read from the {@link DownstreamHealthAggregator}'s cached results,
+ * and probed per check over a new {@code WebClient} as the indicators did before. The
+ * services are stub HTTP servers on loopback that answer after {@code latencyMillis} and
+ * count their calls; the aggregator refreshes every second.
+ * <p>
+ * Each iteration logs the health checks served against the downstream calls they cost.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=DownstreamHealth}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@Slf4j(topic = "benchmark")
+public class DownstreamHealthBenchmark {
+
+    private static final List<String> PATHS = List.of("/petstorepetservice/v2/health",
+            "/petstoreproductservice/v2/health", "/petstoreorderservice/v2/health");
+    private static final byte[] HEALTH_JSON =
+            "{\"status\":\"UP\",\"version\":\"1.0.0\",\"date\":\"2026-01-01\",\"container\":\"stub\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    @Param({"0", "20"})
+    private int latencyMillis;
+
+    private final LongAdder downstreamCalls = new LongAdder();
+    private final LongAdder healthChecks = new LongAdder();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String baseUrl;
+    private DownstreamHealthAggregator aggregator;
+    private PetServiceHealthIndicator petService;
+    private ProductServiceHealthIndicator productService;
+    private OrderServiceHealthIndicator orderService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        serverExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        for (String path : PATHS) {
+            server.createContext(path, this::respond);
+        }
+        server.setExecutor(serverExecutor);
+        server.start();
+        baseUrl = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+
+        ContainerEnvironment containerEnvironment = new ContainerEnvironment();
+        containerEnvironment.setPetStorePetServiceURL(baseUrl);
+        containerEnvironment.setPetStoreProductServiceURL(baseUrl);
+        containerEnvironment.setPetStoreOrderServiceURL(baseUrl);
+        aggregator = new DownstreamHealthAggregator(containerEnvironment, Duration.ofSeconds(1), Duration.ofSeconds(5));
+        petService = new PetServiceHealthIndicator(aggregator);
+        productService = new ProductServiceHealthIndicator(aggregator);
+        orderService = new OrderServiceHealthIndicator(aggregator);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!Status.UP.equals(orderService.health().getStatus()) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        long checks = healthChecks.sumThenReset();
+        long calls = downstreamCalls.sumThenReset();
+        if (checks > 0) {
+            log.info("{} health checks, {} downstream calls, {} calls per check",
+                    checks, calls, String.format("%.3f", (double) calls / checks));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        aggregator.shutdown();
+        server.stop(0);
+        serverExecutor.close();
+    }
+
+    @Benchmark
+    public int cached() {
+        healthChecks.increment();
+        return up(petService.health()) + up(productService.health()) + up(orderService.health());
+    }
+
+    @Benchmark
+    public int probedPerCheck() throws IOException {
+        healthChecks.increment();
+        int up = 0;
+        for (String path : PATHS) {
+            up += up(probe(path));
+        }
+        return up;
+    }
+
+    /**
+     * What each indicator did per call before the aggregator: a new client, a blocking
+     * GET and a parse of the service's health JSON.
+     */
+    private Health probe(String path) throws IOException {
+        String response = WebClient.builder()
+                .baseUrl(baseUrl)
+                .build()
+                .get()
+                .uri(path)
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(Duration.ofSeconds(5))
+                .block();
+        JsonNode healthData = objectMapper.readTree(response);
+        return "UP".equalsIgnoreCase(healthData.get("status").asText())
+                ? Health.up().withDetail("url", baseUrl).withDetail("version", healthData.get("version").asText()).build()
+                : Health.down().withDetail("url", baseUrl).build();
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        downstreamCalls.increment();
+        try (exchange) {
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, HEALTH_JSON.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(HEALTH_JSON);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int up(Health health) {
+        return Status.UP.equals(health.getStatus()) ? 1 : 0;
+    }
+}
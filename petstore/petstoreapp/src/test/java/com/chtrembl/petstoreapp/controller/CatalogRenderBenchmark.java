@@ -0,0 +1,105 @@
+package com.chtrembl.petstoreapp.controller;
+
+import com.chtrembl.petstoreapp.benchmark.CatalogFixture;
+import com.chtrembl.petstoreapp.model.Pet;
+import com.chtrembl.petstoreapp.model.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The catalog sections of the breeds page (a 24-breed page with pagination) and the
+ * products page (20 products), served by {@link CatalogFragmentCache} with the cache on,
+ * where every call is a hit at the same catalog version, and off, where every call
+ * renders {@code fragments/catalog} as before the cache existed. Templates are resolved
+ * from the classpath and cached, as with {@code spring.thymeleaf.cache=true}.
+ * <p>
+ * Add {@code -prof gc} to the benchmark argument for allocation per render. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=CatalogRender}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogRenderBenchmark {
+
+    private static final int BREEDS_PAGE_SIZE = 24;
+    private static final int PRODUCTS = 20;
+    private static final String BREEDS_PATH = "/dogbreeds";
+
+    @Param({"true", "false"})
+    private boolean cache;
+
+    private CatalogFragmentCache catalogFragmentCache;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private Map<String, Object> breeds;
+    private Map<String, Object> products;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        templateResolver.setCharacterEncoding("UTF-8");
+        templateResolver.setCacheable(true);
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+
+        MockServletContext servletContext = new MockServletContext();
+        catalogFragmentCache = new CatalogFragmentCache(templateEngine, servletContext, cache, 500,
+                new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        request = new MockHttpServletRequest(servletContext, "GET", BREEDS_PATH);
+        response = new MockHttpServletResponse();
+
+        List<Pet> page = new ArrayList<>(BREEDS_PAGE_SIZE);
+        for (int id = 1; id <= BREEDS_PAGE_SIZE; id++) {
+            page.add(CatalogFixture.pet(id));
+        }
+        breeds = Map.of("pets", page, "category", "Dog", "breedsPath", BREEDS_PATH,
+                "nextAfter", page.get(BREEDS_PAGE_SIZE - 1).getId());
+
+        List<Product> productList = new ArrayList<>(PRODUCTS);
+        for (int id = 1; id <= PRODUCTS; id++) {
+            productList.add(CatalogFixture.product(id, "Dog Toy"));
+        }
+        products = Map.of("products", productList);
+    }
+
+    @Benchmark
+    public String breedsSection() {
+        return catalogFragmentCache.render("breeds", BREEDS_PATH + "|Dog|null", 1L,
+                request, response, () -> breeds);
+    }
+
+    @Benchmark
+    public String productsSection() {
+        return catalogFragmentCache.render("products", "Dog Toy|[]", 1L,
+                request, response, () -> products);
+    }
+}
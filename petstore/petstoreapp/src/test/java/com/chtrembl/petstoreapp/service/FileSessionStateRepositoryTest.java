@@ -0,0 +1,96 @@
+package com.chtrembl.petstoreapp.service;
+
+import com.chtrembl.petstoreapp.model.SessionState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FileSessionStateRepositoryTest {
+
+    private static final SessionState STATE = SessionState.builder()
+            .sessionId("session-1")
+            .cartCount(2)
+            .shownPetIds(List.of(3L, 1L, 2L))
+            .build();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void loadsWhatWasSaved() {
+        FileSessionStateRepository repository = repository(Duration.ofMinutes(30));
+        repository.save("session-1", STATE);
+
+        assertEquals(Optional.of(STATE), repository.load("session-1"));
+    }
+
+    @Test
+    void replacesSavedStateWithoutLeavingTemporaryFiles() throws IOException {
+        FileSessionStateRepository repository = repository(Duration.ofMinutes(30));
+        repository.save("session-1", STATE);
+        SessionState updated = STATE.toBuilder().cartCount(5).build();
+        repository.save("session-1", updated);
+
+        assertEquals(Optional.of(updated), repository.load("session-1"));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(directory.resolve("session-1.session")), files.toList());
+        }
+    }
+
+    @Test
+    void loadsNothingForUnknownOrDeletedSessions() {
+        FileSessionStateRepository repository = repository(Duration.ofMinutes(30));
+        assertEquals(Optional.empty(), repository.load("unknown"));
+
+        repository.save("session-1", STATE);
+        repository.delete("session-1");
+        assertEquals(Optional.empty(), repository.load("session-1"));
+        repository.delete("session-1");
+    }
+
+    @Test
+    void expiresSessionsNotWrittenWithinTheTimeToLive() throws IOException {
+        FileSessionStateRepository repository = repository(Duration.ofMinutes(30));
+        repository.save("session-1", STATE);
+        Path file = directory.resolve("session-1.session");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofMinutes(31))));
+
+        assertEquals(Optional.empty(), repository.load("session-1"));
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void rejectsIdsThatAreNotPlainFileNames() {
+        FileSessionStateRepository repository = repository(Duration.ofMinutes(30));
+
+        assertThrows(IllegalArgumentException.class, () -> repository.load("../session-1"));
+        assertThrows(IllegalArgumentException.class, () -> repository.save("a/b", STATE));
+        assertThrows(IllegalArgumentException.class, () -> repository.delete(""));
+        assertThrows(IllegalArgumentException.class, () -> repository.load(null));
+    }
+
+    @Test
+    void rejectsCorruptFiles() throws IOException {
+        FileSessionStateRepository repository = repository(Duration.ofMinutes(30));
+        Files.write(directory.resolve("session-1.session"), new byte[]{1, 1 << 1, 9, 'a'});
+
+        assertThrows(IllegalArgumentException.class, () -> repository.load("session-1"));
+    }
+
+    private FileSessionStateRepository repository(Duration timeToLive) {
+        return new FileSessionStateRepository(directory, timeToLive);
+    }
+}
@@ -0,0 +1,86 @@
+package com.chtrembl.petstoreapp.service;
+
+import com.chtrembl.petstoreapp.model.SessionState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RespSessionStateRepositoryTest {
+
+    private static final SessionState STATE = SessionState.builder()
+            .sessionId("session-1")
+            .email("shopper@example.com")
+            .shownPetIds(List.of(10L, 11L))
+            .principal("shopper@example.com")
+            .build();
+
+    private LocalRespServer server;
+    private RespSessionStateRepository repository;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new LocalRespServer(0);
+        repository = repository(Duration.ofMinutes(30));
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+        server.close();
+    }
+
+    @Test
+    void loadsWhatWasSaved() {
+        repository.save("session-1", STATE);
+
+        assertEquals(Optional.of(STATE), repository.load("session-1"));
+        assertEquals(1, server.size());
+    }
+
+    @Test
+    void replacesAndDeletesSessions() {
+        repository.save("session-1", STATE);
+        SessionState updated = STATE.toBuilder().cartCount(4).build();
+        repository.save("session-1", updated);
+        assertEquals(Optional.of(updated), repository.load("session-1"));
+
+        repository.delete("session-1");
+        assertEquals(Optional.empty(), repository.load("session-1"));
+        assertEquals(Optional.empty(), repository.load("unknown"));
+    }
+
+    @Test
+    void expiresSessionsAfterTheTimeToLive() throws InterruptedException {
+        try (RespSessionStateRepository shortLived = repository(Duration.ofMillis(50))) {
+            shortLived.save("session-1", STATE);
+            Thread.sleep(100);
+
+            assertEquals(Optional.empty(), shortLived.load("session-1"));
+        }
+    }
+
+    @Test
+    void reportsAnUnreachableStore() {
+        int port = server.getPort();
+        server.close();
+        try (RespSessionStateRepository unreachable =
+                     new RespSessionStateRepository(server.getHost(), port, Duration.ofMinutes(30),
+                             Duration.ofSeconds(1), 1)) {
+            assertThrows(UncheckedIOException.class, () -> unreachable.load("session-1"));
+        }
+    }
+
+    private RespSessionStateRepository repository(Duration timeToLive) {
+        return new RespSessionStateRepository(server.getHost(), server.getPort(), timeToLive,
+                Duration.ofSeconds(1), 2);
+    }
+}
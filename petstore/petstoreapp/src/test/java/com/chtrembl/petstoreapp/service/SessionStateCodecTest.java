@@ -0,0 +1,95 @@
+package com.chtrembl.petstoreapp.service;
+
+import com.chtrembl.petstoreapp.model.SessionState;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionStateCodecTest {
+
+    private static final SessionState FULL = SessionState.builder()
+            .name("Shopper")
+            .sessionId("0F3A9C2B7D")
+            .email("shopper@example.com")
+            .cartCount(3)
+            .shownPetIds(List.of(42L, 7L, 1_000_000L, 43L, Long.MAX_VALUE, 0L))
+            .initialTelemetryRecorded(true)
+            .principal("shopper@example.com")
+            .build();
+
+    @Test
+    void roundTripsEveryField() {
+        assertEquals(FULL, SessionStateCodec.decode(SessionStateCodec.encode(FULL)));
+    }
+
+    @Test
+    void roundTripsEmptyAndAbsentFields() {
+        assertEquals(SessionState.EMPTY, SessionStateCodec.decode(SessionStateCodec.encode(SessionState.EMPTY)));
+
+        SessionState anonymous = SessionState.builder().name(null).sessionId("abc").shownPetIds(List.of()).build();
+        SessionState decoded = SessionStateCodec.decode(SessionStateCodec.encode(anonymous));
+        assertEquals(anonymous, decoded);
+        assertNull(decoded.getName());
+        assertNull(decoded.getPrincipal());
+    }
+
+    @Test
+    void roundTripsNegativeCartCountAndNonAsciiText() {
+        SessionState state = SessionState.builder().name("Zoë 🐕").cartCount(-1).build();
+        assertEquals(state, SessionStateCodec.decode(SessionStateCodec.encode(state)));
+    }
+
+    @Test
+    void encodesTypicalSessionCompactly() {
+        SessionState state = SessionState.builder()
+                .sessionId("0F3A9C2B7D4E5F60718293A4B5C6D7E8")
+                .shownPetIds(List.of(101L, 102L, 103L, 104L, 105L, 106L, 107L, 108L, 109L, 110L))
+                .build();
+        assertTrue(SessionStateCodec.encode(state).length < 100);
+    }
+
+    @Test
+    void rejectsEveryTruncation() {
+        byte[] encoded = SessionStateCodec.encode(FULL);
+        for (int length = 0; length < encoded.length; length++) {
+            byte[] truncated = Arrays.copyOf(encoded, length);
+            assertThrows(IllegalArgumentException.class, () -> SessionStateCodec.decode(truncated),
+                    "truncated to " + length + " bytes");
+        }
+    }
+
+    @Test
+    void rejectsUnknownFormatVersion() {
+        byte[] encoded = SessionStateCodec.encode(FULL);
+        encoded[0] = 2;
+        assertThrows(IllegalArgumentException.class, () -> SessionStateCodec.decode(encoded));
+    }
+
+    @Test
+    void rejectsStringLongerThanInput() {
+        // Version 1, a name, then a length of 2^35
+        byte[] corrupt = {1, 1 << 1, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 1};
+        assertThrows(IllegalArgumentException.class, () -> SessionStateCodec.decode(corrupt));
+    }
+
+    @Test
+    void rejectsOverlongVarint() {
+        byte[] corrupt = new byte[13];
+        corrupt[0] = 1;
+        Arrays.fill(corrupt, 2, corrupt.length, (byte) 0xFF);
+        assertThrows(IllegalArgumentException.class, () -> SessionStateCodec.decode(corrupt));
+    }
+
+    @Test
+    void rejectsIdCountBeyondInputWithoutAllocatingIt() {
+        // Version 1, shown pet ids, cart count 0, then a count of Integer.MAX_VALUE and one id
+        byte[] corrupt = {1, 1 << 4, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 2};
+        assertThrows(IllegalArgumentException.class, () -> SessionStateCodec.decode(corrupt));
+    }
+}
@@ -0,0 +1,166 @@
+package com.chtrembl.petstore.catalog.client;
+
+import com.chtrembl.petstore.catalog.model.CatalogChange;
+import com.chtrembl.petstore.catalog.model.CatalogSnapshot;
+import com.chtrembl.petstore.catalog.service.CatalogReplica;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Server-Sent Events consumer for a catalog service change stream.
+ * <p>
+ * Runs on a virtual thread, feeds {@code snapshot} and {@code change} events into a
+ * {@link CatalogReplica} and marks it live on {@code ready}. On disconnect the replica
+ * is marked stale and the client reconnects with exponential backoff, resuming from
+ * the replica's epoch and version so only the missed changes are replayed.
+ */
+@Slf4j
+public class CatalogChangeStreamClient<T> {
+
+    private static final long INITIAL_BACKOFF_MS = 500;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final String name;
+    private final String streamUrl;
+    private final CatalogReplica<T> replica;
+    private final ObjectMapper objectMapper;
+    private final JavaType changeType;
+    private final JavaType snapshotType;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private volatile boolean running;
+    private volatile long backoffMs = INITIAL_BACKOFF_MS;
+    private Thread worker;
+
+    public CatalogChangeStreamClient(String name, String streamUrl, Class<T> itemType,
+                                     CatalogReplica<T> replica, ObjectMapper objectMapper) {
+        this.name = name;
+        this.streamUrl = streamUrl;
+        this.replica = replica;
+        this.objectMapper = objectMapper;
+        this.changeType = objectMapper.getTypeFactory().constructParametricType(CatalogChange.class, itemType);
+        this.snapshotType = objectMapper.getTypeFactory().constructParametricType(CatalogSnapshot.class, itemType);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = Thread.ofVirtual().name(name + "-catalog-stream").start(this::run);
+        log.info("Started {} catalog change stream client against {}", name, streamUrl);
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+        replica.markStale();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                HttpRequest request = HttpRequest.newBuilder(resumeUri())
+                        .header("Accept", "text/event-stream")
+                        .GET()
+                        .build();
+                HttpResponse<Stream<String>> response = httpClient.send(request, HttpResponse.BodyHandlers.ofLines());
+                try (Stream<String> lines = response.body()) {
+                    if (response.statusCode() != 200) {
+                        throw new IOException("HTTP " + response.statusCode());
+                    }
+                    consume(lines.iterator());
+                }
+                log.info("{} catalog change stream closed by server", name);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.warn("{} catalog change stream disconnected: {}", name, e.getMessage());
+            }
+
+            replica.markStale();
+            if (!running) {
+                break;
+            }
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+        }
+    }
+
+    private URI resumeUri() {
+        StringBuilder uri = new StringBuilder(streamUrl);
+        String epoch = replica.getEpoch();
+        if (epoch != null) {
+            uri.append(streamUrl.contains("?") ? '&' : '?')
+                    .append("epoch=").append(epoch)
+                    .append("&since=").append(replica.getVersion());
+        }
+        return URI.create(uri.toString());
+    }
+
+    private void consume(Iterator<String> lines) throws IOException {
+        String event = "message";
+        StringBuilder data = new StringBuilder();
+
+        while (running && lines.hasNext()) {
+            String line = lines.next();
+            if (line.isEmpty()) {
+                if (!data.isEmpty()) {
+                    dispatch(event, data.toString());
+                }
+                event = "message";
+                data.setLength(0);
+            } else if (line.startsWith(":")) {
+                // Heartbeat comment
+            } else if (line.startsWith("event:")) {
+                event = field(line, 6);
+            } else if (line.startsWith("data:")) {
+                if (!data.isEmpty()) {
+                    data.append('\n');
+                }
+                data.append(field(line, 5));
+            }
+        }
+    }
+
+    private void dispatch(String event, String data) throws IOException {
+        switch (event) {
+            case "snapshot" -> {
+                CatalogSnapshot<T> snapshot = objectMapper.readValue(data, snapshotType);
+                replica.replaceAll(snapshot.getEpoch(), snapshot.getVersion(), snapshot.getItems());
+            }
+            case "change" -> replica.apply(objectMapper.readValue(data, changeType));
+            case "ready" -> {
+                replica.markLive();
+                backoffMs = INITIAL_BACKOFF_MS;
+                log.info("{} catalog replica is live at {}:{}", name, replica.getEpoch(), replica.getVersion());
+            }
+            default -> log.debug("Ignoring {} catalog stream event '{}'", name, event);
+        }
+    }
+
+    private static String field(String line, int prefixLength) {
+        String value = line.substring(prefixLength);
+        return value.startsWith(" ") ? value.substring(1) : value;
+    }
+}
@@ -0,0 +1,29 @@
+package com.chtrembl.petstore.catalog.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Catalog changes between a client's version and {@link #version}, compacted to the
+ * latest state per item. When {@link #resyncRequired} is set the requested version
+ * could not be served from the change log and {@link #upserts} holds the full
+ * catalog, which replaces rather than merges into the client's copy.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogDelta<T> {
+    private String epoch;
+    private long version;
+    private boolean resyncRequired;
+    @Builder.Default
+    private List<T> upserts = new ArrayList<>();
+    @Builder.Default
+    private List<Long> removed = new ArrayList<>();
+}
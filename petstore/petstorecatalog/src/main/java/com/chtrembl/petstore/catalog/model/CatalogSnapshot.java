@@ -0,0 +1,24 @@
+package com.chtrembl.petstore.catalog.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Full catalog state at a given version, sent to change stream subscribers
+ * that cannot resume from the change log.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogSnapshot<T> {
+    private String epoch;
+    private long version;
+    @Builder.Default
+    private List<T> items = new ArrayList<>();
+}
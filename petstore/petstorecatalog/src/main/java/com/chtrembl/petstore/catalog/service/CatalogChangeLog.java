@@ -0,0 +1,110 @@
+package com.chtrembl.petstore.catalog.service;
+
+import com.chtrembl.petstore.catalog.model.CatalogChange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, monotonically versioned log of catalog changes.
+ * <p>
+ * Versions start at 0 for the catalog as loaded and grow by one per change. The
+ * epoch identifies this log instance so consumers can tell a restarted service
+ * (whose versions start over) from one they can resume against. Only the last
+ * {@code capacity} changes are retained; older versions require a full resync, as
+ * does any version before a {@link #recordReset() reset}.
+ */
+public class CatalogChangeLog<T> {
+
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+    private final Object[] ring;
+    private final List<Consumer<CatalogChange<T>>> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile long version;
+    private long floor;
+
+    public CatalogChangeLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Change log capacity must be positive");
+        }
+        this.ring = new Object[capacity];
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public synchronized CatalogChange<T> recordUpsert(Long id, T item) {
+        return append(CatalogChange.Type.UPSERT, id, item);
+    }
+
+    public synchronized CatalogChange<T> recordRemove(Long id) {
+        return append(CatalogChange.Type.REMOVE, id, null);
+    }
+
+    /**
+     * Records that the catalog was replaced wholesale, e.g. by a reload with more
+     * changes than the log retains. Earlier versions can no longer be resumed from.
+     */
+    public synchronized CatalogChange<T> recordReset() {
+        return append(CatalogChange.Type.RESET, null, null);
+    }
+
+    /**
+     * Returns the changes after {@code since} in version order, or empty when
+     * {@code since} is no longer covered by the retained window.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized Optional<List<CatalogChange<T>>> changesSince(long since) {
+        long current = version;
+        if (since > current || since < current - ring.length || since < floor) {
+            return Optional.empty();
+        }
+        List<CatalogChange<T>> changes = new ArrayList<>((int) (current - since));
+        for (long v = since + 1; v <= current; v++) {
+            changes.add((CatalogChange<T>) ring[slot(v)]);
+        }
+        return Optional.of(changes);
+    }
+
+    /**
+     * Listeners are invoked under the log lock, in version order, and must not block.
+     */
+    public void addListener(Consumer<CatalogChange<T>> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<CatalogChange<T>> listener) {
+        listeners.remove(listener);
+    }
+
+    private CatalogChange<T> append(CatalogChange.Type type, Long id, T item) {
+        long next = version + 1;
+        CatalogChange<T> change = CatalogChange.<T>builder()
+                .epoch(epoch)
+                .version(next)
+                .type(type)
+                .id(id)
+                .item(item)
+                .build();
+        ring[slot(next)] = change;
+        if (type == CatalogChange.Type.RESET) {
+            floor = next;
+        }
+        version = next;
+        listeners.forEach(listener -> listener.accept(change));
+        return change;
+    }
+
+    private int slot(long v) {
+        return (int) (v % ring.length);
+    }
+}
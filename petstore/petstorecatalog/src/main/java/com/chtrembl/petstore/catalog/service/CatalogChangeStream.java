@@ -0,0 +1,155 @@
+package com.chtrembl.petstore.catalog.service;
+
+import com.chtrembl.petstore.catalog.model.CatalogChange;
+import com.chtrembl.petstore.catalog.model.CatalogSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Server-Sent Events fan-out of a {@link CatalogChangeLog}.
+ * <p>
+ * A subscriber that presents a resumable position (same epoch, version still in the
+ * log window) gets the missed changes replayed; any other subscriber gets a
+ * {@code snapshot} event first. Both are followed by a {@code ready} event, after
+ * which every change is pushed as a {@code change} event; a log reset is pushed as a
+ * fresh {@code snapshot}. Event ids have the form
+ * {@code epoch:version}, so a reconnecting {@code EventSource} resumes through
+ * {@code Last-Event-ID}. Sends go through an {@link SseBroadcaster}: each subscriber
+ * is served in order on its own sender, snapshots included, and one that falls
+ * {@value #BACKLOG} changes behind is dropped and resumes on reconnect.
+ */
+@Slf4j
+public class CatalogChangeStream<T> {
+
+    private static final int BACKLOG = 1024;
+
+    private final CatalogChangeLog<T> changeLog;
+    private final Supplier<List<T>> snapshotSupplier;
+    private final SseBroadcaster<Position<T>> broadcaster;
+
+    public CatalogChangeStream(String name, CatalogChangeLog<T> changeLog, Supplier<List<T>> snapshotSupplier) {
+        this.changeLog = changeLog;
+        this.snapshotSupplier = snapshotSupplier;
+        this.broadcaster = new SseBroadcaster<>(name + "-change-stream", BACKLOG);
+
+        // Runs under the log lock, so changes are queued in version order; queueing never blocks
+        changeLog.addListener(change -> broadcaster.broadcast(subscriber -> send(subscriber, change)));
+    }
+
+    public SseEmitter subscribe(String lastEventId, String epoch, Long since, Predicate<T> filter) {
+        if (StringUtils.hasText(lastEventId) && lastEventId.contains(":")) {
+            String[] parts = lastEventId.split(":", 2);
+            epoch = parts[0];
+            try {
+                since = Long.parseLong(parts[1]);
+            } catch (NumberFormatException e) {
+                since = null;
+            }
+        }
+
+        String resumeEpoch = epoch;
+        Long resumeVersion = since;
+        return broadcaster.subscribe(new Position<>(filter),
+                subscriber -> open(subscriber, resumeEpoch, resumeVersion)).getEmitter();
+    }
+
+    public int getSubscriberCount() {
+        return broadcaster.getSubscriberCount();
+    }
+
+    private void open(SseBroadcaster.Subscriber<Position<T>> subscriber, String epoch, Long since)
+            throws IOException {
+        Position<T> position = subscriber.getState();
+        Optional<List<CatalogChange<T>>> replay = changeLog.getEpoch().equals(epoch) && since != null
+                ? changeLog.changesSince(since)
+                : Optional.empty();
+
+        if (replay.isPresent()) {
+            position.lastVersion = since;
+            for (CatalogChange<T> change : replay.get()) {
+                send(subscriber, change);
+            }
+            log.debug("Resumed change stream subscriber from version {} ({} changes replayed)",
+                    since, replay.get().size());
+        } else {
+            sendSnapshot(subscriber);
+        }
+
+        subscriber.emit(SseEmitter.event()
+                .name("ready")
+                .id(eventId(position.lastVersion))
+                .data(Map.of("epoch", changeLog.getEpoch(), "version", position.lastVersion),
+                        MediaType.APPLICATION_JSON));
+    }
+
+    private void sendSnapshot(SseBroadcaster.Subscriber<Position<T>> subscriber) throws IOException {
+        Position<T> position = subscriber.getState();
+        // Read the version before the items; later changes are re-sent and applied idempotently
+        long version = changeLog.getVersion();
+        List<T> items = snapshotSupplier.get().stream().filter(position.filter).toList();
+        subscriber.emit(SseEmitter.event()
+                .name("snapshot")
+                .id(eventId(version))
+                .data(CatalogSnapshot.<T>builder()
+                        .epoch(changeLog.getEpoch())
+                        .version(version)
+                        .items(items)
+                        .build(), MediaType.APPLICATION_JSON));
+        position.lastVersion = version;
+        log.debug("Sent catalog snapshot of {} items at version {} to change stream subscriber",
+                items.size(), version);
+    }
+
+    private void send(SseBroadcaster.Subscriber<Position<T>> subscriber, CatalogChange<T> change)
+            throws IOException {
+        Position<T> position = subscriber.getState();
+        if (change.getVersion() <= position.lastVersion) {
+            // Already covered by the replay or snapshot this subscriber opened with
+            return;
+        }
+        if (change.getType() == CatalogChange.Type.RESET) {
+            sendSnapshot(subscriber);
+            return;
+        }
+        CatalogChange<T> visible = change;
+        if (change.getType() == CatalogChange.Type.UPSERT && !position.filter.test(change.getItem())) {
+            // The item left this subscriber's view, e.g. one that is no longer available
+            visible = CatalogChange.<T>builder()
+                    .epoch(change.getEpoch())
+                    .version(change.getVersion())
+                    .type(CatalogChange.Type.REMOVE)
+                    .id(change.getId())
+                    .build();
+        }
+        subscriber.emit(SseEmitter.event()
+                .name("change")
+                .id(eventId(change.getVersion()))
+                .data(visible, MediaType.APPLICATION_JSON));
+        position.lastVersion = change.getVersion();
+    }
+
+    private String eventId(long version) {
+        return changeLog.getEpoch() + ":" + version;
+    }
+
+    /**
+     * A subscriber's filter and the last version it was sent; only its own sender touches it.
+     */
+    private static final class Position<T> {
+        private final Predicate<T> filter;
+        private long lastVersion;
+
+        private Position(Predicate<T> filter) {
+            this.filter = filter;
+        }
+    }
+}
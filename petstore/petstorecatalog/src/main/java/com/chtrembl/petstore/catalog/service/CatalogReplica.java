@@ -0,0 +1,245 @@
+package com.chtrembl.petstore.catalog.service;
+
+import com.chtrembl.petstore.catalog.model.CatalogChange;
+import com.chtrembl.petstore.catalog.model.CatalogDelta;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Local copy of a remote catalog kept current by a change stream or, while the
+ * stream is down, by delta-sync polls.
+ * <p>
+ * Writes are applied under the instance lock and ignore versions the replica already has;
+ * readers get an immutable, id-ordered list that is swapped on every change, so
+ * {@link #values()} never blocks or copies. An optional group function (e.g. the
+ * category name) additionally keeps a prebuilt list per group for {@link #values(String)}.
+ * A change or delta is applied in place to a copy of the id-ordered list and of the
+ * groups it touches; only a snapshot rebuilds the groups.
+ * {@link #getGeneration()} changes with every published change, whatever its source, so
+ * it can key anything derived from the catalog. The replica is only {@link #isLive() live}
+ * between a completed snapshot/replay and the next disconnect, and callers are
+ * expected to fall back to a direct fetch otherwise.
+ */
+@Slf4j
+public class CatalogReplica<T> {
+
+    private final String name;
+    private final Function<T, Long> idFunction;
+    private final Function<T, String> groupFunction;
+    private volatile List<T> view = List.of();
+    private volatile Map<String, List<T>> groups = Map.of();
+    private volatile String epoch;
+    private volatile long version = -1;
+    private volatile long generation;
+    private volatile boolean live;
+
+    public CatalogReplica(String name, Function<T, Long> idFunction) {
+        this(name, idFunction, null);
+    }
+
+    public CatalogReplica(String name, Function<T, Long> idFunction, Function<T, String> groupFunction) {
+        this.name = name;
+        this.idFunction = idFunction;
+        this.groupFunction = groupFunction;
+    }
+
+    public synchronized void replaceAll(String epoch, long version, List<T> snapshot) {
+        Map<Long, T> items = new TreeMap<>();
+        for (T item : snapshot) {
+            items.put(idFunction.apply(item), item);
+        }
+        List<T> values = List.copyOf(items.values());
+        if (groupFunction != null) {
+            groups = values.stream()
+                    .filter(item -> groupFunction.apply(item) != null)
+                    .collect(Collectors.groupingBy(groupFunction, LinkedHashMap::new,
+                            Collectors.collectingAndThen(Collectors.toList(), List::copyOf)));
+        }
+        view = values;
+        generation++;
+        this.epoch = epoch;
+        this.version = version;
+        log.info("Loaded {} catalog snapshot: {} items at {}:{}", name, values.size(), epoch, version);
+    }
+
+    public synchronized void apply(CatalogChange<T> change) {
+        if (!change.getEpoch().equals(epoch) || change.getVersion() <= version) {
+            return;
+        }
+        Update update = new Update();
+        if (change.getType() == CatalogChange.Type.REMOVE) {
+            update.remove(change.getId());
+        } else if (change.getType() == CatalogChange.Type.UPSERT) {
+            update.upsert(change.getId(), change.getItem());
+        }
+        version = change.getVersion();
+        update.publish();
+        log.debug("Applied {} catalog change {} for id {} at version {}",
+                name, change.getType(), change.getId(), version);
+    }
+
+    public synchronized void applyDelta(CatalogDelta<T> delta) {
+        if (delta.isResyncRequired()) {
+            replaceAll(delta.getEpoch(), delta.getVersion(), delta.getUpserts());
+            return;
+        }
+        if (!delta.getEpoch().equals(epoch) || delta.getVersion() <= version) {
+            return;
+        }
+        Update update = new Update();
+        for (T item : delta.getUpserts()) {
+            update.upsert(idFunction.apply(item), item);
+        }
+        delta.getRemoved().forEach(update::remove);
+        version = delta.getVersion();
+        update.publish();
+        log.debug("Applied {} catalog delta: {} upserts, {} removed, now at version {}",
+                name, delta.getUpserts().size(), delta.getRemoved().size(), version);
+    }
+
+    public void markLive() {
+        live = true;
+    }
+
+    public void markStale() {
+        live = false;
+    }
+
+    public boolean isLive() {
+        return live;
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Local counter of published changes. Unlike {@link #getVersion()} it also moves
+     * when a full fetch without a stream position replaces the catalog.
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    public List<T> values() {
+        return view;
+    }
+
+    public List<T> values(String group) {
+        return groups.getOrDefault(group, List.of());
+    }
+
+    /**
+     * Looks the item up by binary search over the id-ordered view.
+     */
+    public Optional<T> get(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        List<T> values = view;
+        int index = indexOf(values, id);
+        return index >= 0 ? Optional.of(values.get(index)) : Optional.empty();
+    }
+
+    /**
+     * Binary search over an id-ordered list; {@code -(insertion point) - 1} if absent.
+     */
+    private int indexOf(List<T> values, Long id) {
+        int low = 0;
+        int high = values.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = idFunction.apply(values.get(mid)).compareTo(id);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Changes to the published view and groups, applied to copies and swapped in by
+     * {@link #publish()}. Only groups an item enters or leaves are copied.
+     */
+    private final class Update {
+        private final List<T> values = new ArrayList<>(view);
+        private final Map<String, List<T>> touched = new HashMap<>();
+
+        private void upsert(Long id, T item) {
+            int index = indexOf(values, id);
+            if (index >= 0) {
+                leave(values.set(index, item));
+            } else {
+                values.add(-index - 1, item);
+            }
+            enter(id, item);
+        }
+
+        private void remove(Long id) {
+            int index = indexOf(values, id);
+            if (index >= 0) {
+                leave(values.remove(index));
+            }
+        }
+
+        private void enter(Long id, T item) {
+            List<T> group = group(item);
+            if (group != null) {
+                int index = indexOf(group, id);
+                group.add(-index - 1, item);
+            }
+        }
+
+        private void leave(T item) {
+            List<T> group = group(item);
+            if (group != null) {
+                int index = indexOf(group, idFunction.apply(item));
+                if (index >= 0) {
+                    group.remove(index);
+                }
+            }
+        }
+
+        private List<T> group(T item) {
+            String key = groupFunction != null ? groupFunction.apply(item) : null;
+            if (key == null) {
+                return null;
+            }
+            return touched.computeIfAbsent(key, k -> new ArrayList<>(groups.getOrDefault(k, List.of())));
+        }
+
+        private void publish() {
+            if (!touched.isEmpty()) {
+                Map<String, List<T>> updated = new LinkedHashMap<>(groups);
+                touched.forEach((key, group) -> {
+                    if (group.isEmpty()) {
+                        updated.remove(key);
+                    } else {
+                        updated.put(key, Collections.unmodifiableList(group));
+                    }
+                });
+                groups = Collections.unmodifiableMap(updated);
+            }
+            view = Collections.unmodifiableList(values);
+            generation++;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.chtrembl.petstore.catalog.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Server-Sent Events fan-out with a bounded backlog per subscriber.
+ * <p>
+ * Broadcasting only queues a {@link Delivery} for each subscriber and never blocks.
+ * Each subscriber's deliveries run in order on one sender thread at a time, so a slow
+ * or stalled client delays nobody else, and per-subscriber work such as building a
+ * snapshot runs there too. Senders are platform threads: {@code SseEmitter.send} is
+ * synchronized, and a virtual thread blocked in it would pin its carrier. A subscriber
+ * whose backlog is full is dropped; its {@code EventSource} reconnects and resumes.
+ * Subscribers carry a state of type {@code S} that only their own deliveries touch.
+ * Heartbeat comments keep idle connections open through proxies and surface dead ones.
+ */
+@Slf4j
+public class SseBroadcaster<S> {
+
+    private static final long EMITTER_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(30);
+    private static final long HEARTBEAT_SECONDS = 20;
+
+    private final String name;
+    private final int backlog;
+    private final List<Subscriber<S>> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService senders;
+    private final ScheduledExecutorService heartbeats;
+
+    public SseBroadcaster(String name, int backlog) {
+        if (backlog <= 0) {
+            throw new IllegalArgumentException("Subscriber backlog must be positive");
+        }
+        this.name = name;
+        this.backlog = backlog;
+        this.senders = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, name + "-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeats.scheduleAtFixedRate(
+                () -> broadcast(subscriber -> subscriber.emit(SseEmitter.event().comment("heartbeat"))),
+                HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Opens a subscriber whose first delivery is {@code first}; broadcasts queued after
+     * this call follow it.
+     */
+    public Subscriber<S> subscribe(S state, Delivery<S> first) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        Subscriber<S> subscriber = new Subscriber<>(this, emitter, state);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscriber.close());
+
+        subscriber.offer(first);
+        subscribers.add(subscriber);
+        if (subscriber.closed) {
+            // The first delivery already failed
+            subscribers.remove(subscriber);
+        }
+        return subscriber;
+    }
+
+    /**
+     * Queues {@code delivery} for every subscriber, dropping those whose backlog is full.
+     */
+    public void broadcast(Delivery<S> delivery) {
+        for (Subscriber<S> subscriber : subscribers) {
+            subscriber.offer(delivery);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    /**
+     * Events for one subscriber, sent through {@link Subscriber#emit}.
+     */
+    @FunctionalInterface
+    public interface Delivery<S> {
+        void deliver(Subscriber<S> subscriber) throws IOException;
+    }
+
+    public static final class Subscriber<S> {
+        private final SseBroadcaster<S> broadcaster;
+        private final SseEmitter emitter;
+        private final S state;
+        private final BlockingQueue<Delivery<S>> pending;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(SseBroadcaster<S> broadcaster, SseEmitter emitter, S state) {
+            this.broadcaster = broadcaster;
+            this.emitter = emitter;
+            this.state = state;
+            this.pending = new ArrayBlockingQueue<>(broadcaster.backlog);
+        }
+
+        public SseEmitter getEmitter() {
+            return emitter;
+        }
+
+        public S getState() {
+            return state;
+        }
+
+        public void emit(SseEmitter.SseEventBuilder event) throws IOException {
+            emitter.send(event);
+        }
+
+        private void offer(Delivery<S> delivery) {
+            if (closed) {
+                return;
+            }
+            if (!pending.offer(delivery)) {
+                log.debug("Dropping {} subscriber with {} undelivered events", broadcaster.name, pending.size());
+                close();
+                // Completing waits for a send in progress, so it must not block the broadcaster
+                broadcaster.senders.execute(emitter::complete);
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                broadcaster.senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Delivery<S> next;
+                while (!closed && (next = pending.poll()) != null) {
+                    next.deliver(this);
+                }
+            } catch (IOException | RuntimeException e) {
+                log.debug("Dropping {} subscriber: {}", broadcaster.name, e.getMessage());
+                close();
+                emitter.completeWithError(e);
+            } finally {
+                draining.set(false);
+            }
+            // A delivery queued after the last poll but before the flag was cleared
+            if (!closed && !pending.isEmpty() && draining.compareAndSet(false, true)) {
+                broadcaster.senders.execute(this::drain);
+            }
+        }
+
+        private void close() {
+            closed = true;
+            pending.clear();
+            broadcaster.subscribers.remove(this);
+        }
+    }
+}
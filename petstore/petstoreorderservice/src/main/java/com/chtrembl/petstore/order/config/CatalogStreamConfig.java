@@ -0,0 +1,48 @@
+package com.chtrembl.petstore.order.config;
+
+import com.chtrembl.petstore.catalog.client.CatalogChangeStreamClient;
+import com.chtrembl.petstore.catalog.service.CatalogReplica;
+import com.chtrembl.petstore.order.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Keeps a replica of the available product catalog in sync through the product
+ * service change stream. When streaming is disabled or disconnected the replica
+ * stays non-live and {@code ProductService} falls back to the REST lookup.
+ */
+@Configuration
+@Slf4j
+public class CatalogStreamConfig {
+
+    @Value("${petstore.catalog.stream.enabled:true}")
+    private boolean streamEnabled;
+
+    @Bean
+    public CatalogReplica<Product> productCatalogReplica() {
+        return new CatalogReplica<>("product", Product::getId);
+    }
+
+    @Bean(destroyMethod = "stop")
+    public CatalogChangeStreamClient<Product> productCatalogStreamClient(
+            @Value("${petstore.service.product.url:http://localhost:8082}") String productServiceUrl,
+            CatalogReplica<Product> productCatalogReplica, ObjectMapper objectMapper) {
+        return new CatalogChangeStreamClient<>("product",
+                productServiceUrl + "/petstoreproductservice/v2/product/changes/stream?status=available",
+                Product.class, productCatalogReplica, objectMapper);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startCatalogStream(ApplicationReadyEvent event) {
+        if (!streamEnabled) {
+            log.info("Product change stream is disabled, products are fetched from the product service");
+            return;
+        }
+        event.getApplicationContext().getBean("productCatalogStreamClient", CatalogChangeStreamClient.class).start();
+    }
+}
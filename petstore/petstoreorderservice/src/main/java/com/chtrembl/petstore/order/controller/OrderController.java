@@ -15,6 +15,8 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Pattern;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -22,9 +24,11 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Arrays;
 import java.util.List;
 
 @RestController
@@ -65,17 +69,21 @@ public class OrderController {
         
         log.info("Successfully processed order: {}", updatedOrder.getId());
 
-        return ResponseEntity.ok(updatedOrder);
+        return ResponseEntity.ok()
+                .eTag(orderService.getOrderETag(updatedOrder))
+                .body(updatedOrder);
     }
 
     @Operation(
             summary = "Find order by ID",
-            description = "Returns a single order by its ID with enriched product information"
+            description = "Returns a single order by its ID with enriched product information. "
+                    + "Send the ETag of a previous response as If-None-Match to get 304 while the order is unchanged"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Order found successfully",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = Order.class))),
+            @ApiResponse(responseCode = "304", description = "Order not modified since the given ETag", content = @Content),
             @ApiResponse(responseCode = "404", description = "Order not found", content = @Content),
             @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
     })
@@ -84,11 +92,19 @@ public class OrderController {
             @Parameter(description = "ID of the order to retrieve", required = true, example = "68FAE9B1D86B794F0AE0ADD35A437428")
             @PathVariable("orderId")
             @Pattern(regexp = "^[0-9A-F]{32}$", message = "Order ID must be a 32-character uppercase hexadecimal string")
-            String orderId) {
+            String orderId,
+            @Parameter(description = "ETag of the copy the caller already has")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+            String ifNoneMatch) {
 
         log.info("Incoming GET request to /petstoreorderservice/v2/store/order/{}", orderId);
 
         Order order = orderService.getOrderById(orderId);
+        String eTag = orderService.getOrderETag(order);
+        if (matchesETag(ifNoneMatch, eTag)) {
+            log.info("Order {} not modified", orderId);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
 
         // Enrich order with product details from product service
         List<Product> availableProducts = productService.getAvailableProducts();
@@ -96,6 +112,23 @@ public class OrderController {
 
         log.info("Successfully retrieved order: {}", order);
 
-        return ResponseEntity.ok(order);
+        return ResponseEntity.ok().eTag(eTag).body(order);
+    }
+
+    /**
+     * Weak comparison, as If-None-Match requires: {@code W/"1"} matches {@code "1"}.
+     */
+    private static boolean matchesETag(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaque = stripWeak(eTag);
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .anyMatch(candidate -> "*".equals(candidate) || stripWeak(candidate).equals(opaque));
+    }
+
+    private static String stripWeak(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
     }
 }
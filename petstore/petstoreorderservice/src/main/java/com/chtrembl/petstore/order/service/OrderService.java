@@ -13,6 +13,7 @@ import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,6 +25,9 @@ public class OrderService {
     private final CacheManager cacheManager;
     private final ProductService productService;
 
+    // Seeded with the clock so versions (and ETags) are not reused after a restart or an eviction
+    private final AtomicLong versions = new AtomicLong(System.currentTimeMillis());
+
     @Cacheable(ORDERS)
     public Order createOrder(String orderId) {
         log.info("Creating new order with id: {} and caching it", orderId);
@@ -32,6 +36,7 @@ public class OrderService {
                 .products(new ArrayList<>())
                 .status(Order.Status.PLACED)
                 .complete(false)
+                .version(versions.incrementAndGet())
                 .build();
     }
 
@@ -129,6 +134,8 @@ public class OrderService {
             updateOrderProducts(cachedOrder, order.getProducts());
         }
 
+        cachedOrder.setVersion(versions.incrementAndGet());
+
         // Explicitly update cache
         Cache cache = cacheManager.getCache(ORDERS);
         if (cache != null) {
@@ -138,6 +145,14 @@ public class OrderService {
         return cachedOrder;
     }
 
+    /**
+     * Weak entity tag of an order's current version. Weak because the product names and
+     * photos enriched into the response may change without the order changing.
+     */
+    public String getOrderETag(Order order) {
+        return "W/\"" + order.getVersion() + "\"";
+    }
+
     /**
      * Validates that all products in the order exist in the available products list
      *
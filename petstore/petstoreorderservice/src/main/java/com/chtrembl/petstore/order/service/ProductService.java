@@ -1,12 +1,14 @@
 package com.chtrembl.petstore.order.service;
 
+import com.chtrembl.petstore.catalog.service.CatalogReplica;
 import com.chtrembl.petstore.order.model.Product;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -22,14 +24,30 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProductService {
 
+    private static final String PRODUCTS = "products";
+    private static final String AVAILABLE = "available";
+
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final CacheManager cacheManager;
+    private final CatalogReplica<Product> productCatalogReplica;
 
     @Value("${petstore.service.product.url:http://localhost:8082}")
     private String productServiceUrl;
 
-    @Cacheable("products")
+    @SuppressWarnings("unchecked")
     public List<Product> getAvailableProducts() {
+        if (productCatalogReplica.isLive()) {
+            return productCatalogReplica.values();
+        }
+
+        // Stream not connected: fall back to the cached REST lookup
+        Cache cache = cacheManager.getCache(PRODUCTS);
+        List<Product> cached = cache != null ? cache.get(AVAILABLE, List.class) : null;
+        if (cached != null) {
+            return cached;
+        }
+
         log.info("Retrieving products from: {}/petstoreproductservice/v2/product/findByStatus?status=available",
                 productServiceUrl);
 
@@ -51,6 +69,9 @@ public class ProductService {
             });
 
             log.info("Successfully retrieved {} products from product service", products.size());
+            if (cache != null) {
+                cache.put(AVAILABLE, products);
+            }
             return products;
 
         } catch (Exception e) {
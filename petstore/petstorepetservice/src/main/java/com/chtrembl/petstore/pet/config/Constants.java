@@ -25,6 +25,7 @@ public final class Constants {
     public static final String X_RESPONSE_TRACE_ID = "X-Response-Trace-ID";
     public static final String X_RESPONSE_SPAN_ID = "X-Response-Span-ID";
     public static final String X_RESPONSE_REQUEST_ID = "X-Response-Request-ID";
+    public static final String X_NEXT_CURSOR = "X-Next-Cursor";
 
     // Client IP Headers
     public static final String X_FORWARDED_FOR = "X-Forwarded-For";
@@ -1,6 +1,11 @@
 package com.chtrembl.petstore.pet.controller;
 
+import com.chtrembl.petstore.catalog.model.CatalogDelta;
 import com.chtrembl.petstore.pet.model.Pet;
+import com.chtrembl.petstore.pet.model.PetPage;
+import com.chtrembl.petstore.pet.model.PetStatusUpdate;
+import com.chtrembl.petstore.pet.service.PetProjectionWriter;
+import com.chtrembl.petstore.pet.service.PetResponseCache;
 import com.chtrembl.petstore.pet.service.PetService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -9,17 +14,32 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+
+import static com.chtrembl.petstore.pet.config.Constants.X_NEXT_CURSOR;
 
 @RestController
 @RequestMapping("/petstorepetservice/v2")
@@ -28,37 +48,194 @@ import java.util.List;
 @Tag(name = "Pet", description = "Pet Store Pet API")
 public class PetController {
 
+	private static final int DEFAULT_PAGE_SIZE = 100;
+	private static final int MAX_PAGE_SIZE = 1000;
+	private static final int DEFAULT_SEARCH_LIMIT = 50;
+
 	private final PetService petService;
+	private final PetResponseCache responseCache;
 
 	@Operation(
 			summary = "Find pets by status",
-			description = "Returns a list of pets filtered by their status (available, pending, sold)"
+			description = "Returns a list of pets filtered by their status (available, pending, sold) "
+					+ "and optionally by category name"
 	)
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200", description = "Pets found successfully",
 					content = @Content(mediaType = "application/json",
 							schema = @Schema(implementation = Pet.class))),
+			@ApiResponse(responseCode = "304", description = "Not modified since the ETag in If-None-Match",
+					content = @Content),
 			@ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
 	})
-	@GetMapping("/pet/findByStatus")
-	public ResponseEntity<List<Pet>> findPetsByStatus(
+	@GetMapping(value = "/pet/findByStatus", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<byte[]> findPetsByStatus(
 			@Parameter(description = "Status values that need to be considered for filter",
 					required = true,
 					example = "available")
-			@RequestParam(value = "status", required = true) List<String> status) {
+			@RequestParam(value = "status", required = true) List<String> status,
+			@Parameter(description = "Optional category name to restrict the result to", example = "Dog")
+			@RequestParam(value = "category", required = false) String category,
+			@Parameter(description = "Maximum number of pets to return; enables cursor pagination", example = "20")
+			@RequestParam(value = "limit", required = false) Integer limit,
+			@Parameter(description = "Opaque cursor from the X-Next-Cursor header of the previous page")
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@Parameter(description = "Comma-separated properties to include", example = "id,name,photoURL")
+			@RequestParam(value = "fields", required = false) String fields,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
 
-		log.info("Received GET request to /petstorepetservice/v2/pet/findByStatus with status: {}", status);
+		log.info("Received GET request to /petstorepetservice/v2/pet/findByStatus with status: {}, category: {}",
+				status, category);
 
 		try {
-			List<Pet> pets = petService.findPetsByStatus(status);
-			log.info("Successfully found {} pets with status: {}", pets.size(), status);
-			return ResponseEntity.ok(pets);
+			String key = "findByStatus?status=" + String.join(",", new TreeSet<>(status)) + "&category=" + category;
+			PetResponseCache.CachedResponse cached = limit == null && cursor == null && fields == null
+					? responseCache.get(key, () -> petService.findPetsByStatus(status, category))
+					: cachedPage(key, limit, cursor, fields,
+							size -> petService.findPetsPage(status, category, cursor, size));
+			log.info("Serving pets with status: {}, category: {}", status, category);
+			return cachedResponse(cached, ifNoneMatch, acceptEncoding);
+		} catch (IllegalArgumentException e) {
+			log.warn("Invalid pet query for status {}: {}", status, e.getMessage());
+			return ResponseEntity.badRequest().build();
 		} catch (Exception e) {
 			log.error("Error occurred while finding pets by status {}: {}", status, e.getMessage(), e);
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
 		}
 	}
 
+	@Operation(
+			summary = "Find pets by IDs",
+			description = "Returns the pets with the given IDs in request order; unknown IDs are skipped"
+	)
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Pets found successfully",
+					content = @Content(mediaType = "application/json",
+							schema = @Schema(implementation = Pet.class))),
+			@ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+	})
+	@GetMapping("/pet")
+	public ResponseEntity<List<Pet>> getPetsByIds(
+			@Parameter(description = "IDs of pets to return", required = true, example = "1,2,3")
+			@RequestParam(value = "ids", required = true) List<Long> ids) {
+
+		log.info("Received GET request to /petstorepetservice/v2/pet with ids: {}", ids);
+
+		try {
+			List<Pet> pets = petService.findPetsByIds(ids);
+			log.info("Successfully found {} of {} requested pets", pets.size(), ids.size());
+			return ResponseEntity.ok(pets);
+		} catch (Exception e) {
+			log.error("Error occurred while finding pets by ids {}: {}", ids, e.getMessage(), e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+
+	@Operation(
+			summary = "Search pets by name and tags",
+			description = "Returns pets whose name or tags contain every word of the query, in id order. "
+					+ "Matching ignores case and accents, and words not found in the catalog are matched "
+					+ "against similarly spelled ones"
+	)
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Search completed successfully",
+					content = @Content(mediaType = "application/json",
+							schema = @Schema(implementation = Pet.class))),
+			@ApiResponse(responseCode = "400", description = "Missing query or invalid limit", content = @Content),
+			@ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+	})
+	@GetMapping("/pet/search")
+	public ResponseEntity<List<Pet>> searchPets(
+			@Parameter(description = "Words to search for in pet names and tags", required = true, example = "golden retriever")
+			@RequestParam(value = "q", required = true) String query,
+			@Parameter(description = "Only return pets with these status values", example = "available")
+			@RequestParam(value = "status", required = false) List<String> status,
+			@Parameter(description = "Maximum number of pets to return (at most 500)", example = "20")
+			@RequestParam(value = "limit", required = false) Integer limit) {
+
+		log.info("Received GET request to /petstorepetservice/v2/pet/search with q: '{}', status: {}, limit: {}",
+				query, status, limit);
+
+		if (!StringUtils.hasText(query)) {
+			return ResponseEntity.badRequest().build();
+		}
+
+		try {
+			List<Pet> pets = petService.searchPets(query, status, limit != null ? limit : DEFAULT_SEARCH_LIMIT);
+			log.info("Search for '{}' returned {} pets", query, pets.size());
+			return ResponseEntity.ok(pets);
+		} catch (IllegalArgumentException e) {
+			log.warn("Invalid search request: {}", e.getMessage());
+			return ResponseEntity.badRequest().build();
+		} catch (Exception e) {
+			log.error("Error occurred while searching pets for '{}': {}", query, e.getMessage(), e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+
+	@Operation(
+			summary = "Get pet catalog changes since a version",
+			description = "Returns pets added or changed and ids removed since the given change log version. "
+					+ "If the epoch does not match or the version is no longer retained, resyncRequired is set "
+					+ "and upserts holds the full (filtered) catalog"
+	)
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Changes computed successfully",
+					content = @Content(mediaType = "application/json",
+							schema = @Schema(implementation = CatalogDelta.class))),
+			@ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+	})
+	@GetMapping("/pet/changes")
+	public ResponseEntity<CatalogDelta<Pet>> getPetChanges(
+			@Parameter(description = "Only include pets with these status values; others are reported as removed",
+					example = "available")
+			@RequestParam(value = "status", required = false) List<String> status,
+			@Parameter(description = "Change log version the client already has", example = "0")
+			@RequestParam(value = "since", required = false) Long since,
+			@Parameter(description = "Change log epoch the since version belongs to")
+			@RequestParam(value = "epoch", required = false) String epoch) {
+
+		log.info("Received GET request to /petstorepetservice/v2/pet/changes with status: {}, epoch: {}, since: {}",
+				status, epoch, since);
+
+		try {
+			CatalogDelta<Pet> delta = petService.getChangesSince(status, epoch, since);
+			log.info("Returning pet changes up to version {}: {} upserts, {} removed, resyncRequired={}",
+					delta.getVersion(), delta.getUpserts().size(), delta.getRemoved().size(), delta.isResyncRequired());
+			return ResponseEntity.ok(delta);
+		} catch (Exception e) {
+			log.error("Error occurred while computing pet changes since {}: {}", since, e.getMessage(), e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+
+	@Operation(
+			summary = "Stream pet catalog changes",
+			description = "Server-Sent Events stream of versioned pet changes. Sends a snapshot unless the "
+					+ "epoch/since position (or Last-Event-ID) can be resumed from the change log"
+	)
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Change stream opened",
+					content = @Content(mediaType = "text/event-stream"))
+	})
+	@GetMapping(value = "/pet/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamPetChanges(
+			@Parameter(description = "Only stream pets with these status values; others are sent as removals",
+					example = "available")
+			@RequestParam(value = "status", required = false) List<String> status,
+			@Parameter(description = "Change log version the client already has", example = "0")
+			@RequestParam(value = "since", required = false) Long since,
+			@Parameter(description = "Change log epoch the since version belongs to")
+			@RequestParam(value = "epoch", required = false) String epoch,
+			@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+
+		log.info("Received GET request to /petstorepetservice/v2/pet/changes/stream with status: {}, since: {}",
+				status, since);
+
+		return petService.streamChanges(status, lastEventId, epoch, since);
+	}
+
 	@Operation(
 			summary = "Find pet by ID",
 			description = "Returns a single pet by its ID"
@@ -87,6 +264,74 @@ public class PetController {
 				});
 	}
 
+	@Operation(
+			summary = "Update the status of a pet",
+			description = "Sets the status of a single pet and publishes the change to the pet change log"
+	)
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Status updated successfully",
+					content = @Content(mediaType = "application/json",
+							schema = @Schema(implementation = Pet.class))),
+			@ApiResponse(responseCode = "400", description = "Missing or invalid status", content = @Content),
+			@ApiResponse(responseCode = "404", description = "Pet not found", content = @Content)
+	})
+	@PutMapping(value = "/pet/{petId}/status", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<Pet> updatePetStatus(
+			@Parameter(description = "ID of pet to update", required = true, example = "1")
+			@PathVariable("petId") Long petId,
+			@Valid @RequestBody PetStatusUpdate update) {
+
+		log.info("Received PUT request to /petstorepetservice/v2/pet/{}/status with status: {}",
+				petId, update.getStatus());
+
+		return petService.updatePetStatus(petId, update.getStatus())
+				.map(pet -> {
+					log.info("Updated status of pet {} to {}", pet.getId(), pet.getStatus());
+					return ResponseEntity.ok(pet);
+				})
+				.orElseGet(() -> {
+					log.warn("Pet with id {} not found", petId);
+					return ResponseEntity.notFound().build();
+				});
+	}
+
+	@Operation(
+			summary = "Update the status of several pets",
+			description = "Applies all status changes as one catalog version; nothing is changed if any ID is unknown. "
+					+ "Returns the updated pets in id order"
+	)
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Statuses updated successfully",
+					content = @Content(mediaType = "application/json",
+							schema = @Schema(implementation = Pet.class))),
+			@ApiResponse(responseCode = "400", description = "Unknown pet ID or missing status", content = @Content),
+			@ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+	})
+	@PutMapping(value = "/pet/status", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<List<Pet>> updatePetStatuses(@Valid @RequestBody List<PetStatusUpdate> updates) {
+
+		log.info("Received PUT request to /petstorepetservice/v2/pet/status with {} updates", updates.size());
+
+		try {
+			Map<Long, Pet.Status> statuses = new LinkedHashMap<>();
+			for (PetStatusUpdate update : updates) {
+				if (update.getId() == null) {
+					throw new IllegalArgumentException("Missing pet id");
+				}
+				statuses.put(update.getId(), update.getStatus());
+			}
+			List<Pet> pets = petService.updatePetStatuses(statuses);
+			log.info("Updated status of {} pets", pets.size());
+			return ResponseEntity.ok(pets);
+		} catch (IllegalArgumentException e) {
+			log.warn("Invalid status update request: {}", e.getMessage());
+			return ResponseEntity.badRequest().build();
+		} catch (Exception e) {
+			log.error("Error occurred while updating pet statuses: {}", e.getMessage(), e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+
 	@Operation(
 			summary = "Get all pets",
 			description = "Returns a list of all available pets"
@@ -95,19 +340,100 @@ public class PetController {
 			@ApiResponse(responseCode = "200", description = "All pets retrieved successfully",
 					content = @Content(mediaType = "application/json",
 							schema = @Schema(implementation = Pet.class))),
+			@ApiResponse(responseCode = "304", description = "Not modified since the ETag in If-None-Match",
+					content = @Content),
 			@ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
 	})
-	@GetMapping("/pet/all")
-	public ResponseEntity<List<Pet>> getAllPets() {
+	@GetMapping(value = "/pet/all", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<byte[]> getAllPets(
+			@Parameter(description = "Maximum number of pets to return; enables cursor pagination", example = "20")
+			@RequestParam(value = "limit", required = false) Integer limit,
+			@Parameter(description = "Opaque cursor from the X-Next-Cursor header of the previous page")
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@Parameter(description = "Comma-separated properties to include", example = "id,name,photoURL")
+			@RequestParam(value = "fields", required = false) String fields,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
 		log.info("Received GET request to /petstorepetservice/v2/pet/all");
 
 		try {
-			List<Pet> pets = petService.getAllPets();
-			log.info("Successfully retrieved all pets, count: {}", pets.size());
-			return ResponseEntity.ok(pets);
+			PetResponseCache.CachedResponse cached = limit == null && cursor == null && fields == null
+					? responseCache.get("all", petService::getAllPets)
+					: cachedPage("all", limit, cursor, fields, size -> petService.getAllPetsPage(cursor, size));
+			log.info("Serving all pets");
+			return cachedResponse(cached, ifNoneMatch, acceptEncoding);
+		} catch (IllegalArgumentException e) {
+			log.warn("Invalid query for all pets: {}", e.getMessage());
+			return ResponseEntity.badRequest().build();
 		} catch (Exception e) {
 			log.error("Error occurred while retrieving all pets: {}", e.getMessage(), e);
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
 		}
 	}
-}
\ No newline at end of file
+
+	private PetResponseCache.CachedResponse cachedPage(String queryKey, Integer limit, String cursor, String fields,
+													   IntFunction<PetPage> query) {
+		// A projection without limit or cursor returns the whole result as a single page
+		boolean paged = limit != null || cursor != null;
+		int size = !paged ? Integer.MAX_VALUE : limit != null ? limit : DEFAULT_PAGE_SIZE;
+		if (size <= 0) {
+			throw new IllegalArgumentException("limit must be positive");
+		}
+		int pageSize = paged ? Math.min(size, MAX_PAGE_SIZE) : size;
+		Set<PetProjectionWriter.Field> projection = PetProjectionWriter.parseFields(fields);
+
+		String key = queryKey + "&cursor=" + cursor + "&limit=" + pageSize + "&fields=" + projection;
+		return responseCache.getPage(key, () -> query.apply(pageSize), projection);
+	}
+
+	private ResponseEntity<byte[]> cachedResponse(PetResponseCache.CachedResponse cached,
+												  String ifNoneMatch, String acceptEncoding) {
+		// Compresses on the first request that accepts gzip, never for those that do not
+		boolean gzip = acceptsGzip(acceptEncoding) && cached.hasGzip();
+		String etag = gzip ? cached.getGzipEtag() : cached.getEtag();
+
+		if (cached.matches(ifNoneMatch)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+					.eTag(etag)
+					.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+					.build();
+		}
+
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_JSON)
+				.eTag(etag)
+				.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		if (cached.getNextCursor() != null) {
+			response.header(X_NEXT_CURSOR, cached.getNextCursor());
+		}
+		if (gzip) {
+			return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(cached.getGzip());
+		}
+		return response.body(cached.getJson());
+	}
+
+	private static boolean acceptsGzip(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+		for (String token : acceptEncoding.split(",")) {
+			String[] parts = token.trim().split(";");
+			String coding = parts[0].trim();
+			if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+				continue;
+			}
+			for (int i = 1; i < parts.length; i++) {
+				String param = parts[i].trim();
+				if (param.startsWith("q=")) {
+					try {
+						return Double.parseDouble(param.substring(2)) > 0;
+					} catch (NumberFormatException e) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,22 @@
+package com.chtrembl.petstore.pet.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated pet query. {@code nextCursor} is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PetPage {
+    @Builder.Default
+    private List<Pet> items = new ArrayList<>();
+    private String nextCursor;
+}
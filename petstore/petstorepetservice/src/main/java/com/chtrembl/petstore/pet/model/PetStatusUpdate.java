@@ -0,0 +1,21 @@
+package com.chtrembl.petstore.pet.model;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * New status for a pet. {@code id} is taken from the path for single-pet updates.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PetStatusUpdate {
+    private Long id;
+
+    @NotNull
+    private Pet.Status status;
+}
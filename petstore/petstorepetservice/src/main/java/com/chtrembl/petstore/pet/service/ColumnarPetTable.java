@@ -0,0 +1,171 @@
+package com.chtrembl.petstore.pet.service;
+
+import com.chtrembl.petstore.pet.model.Category;
+import com.chtrembl.petstore.pet.model.Pet;
+import com.chtrembl.petstore.pet.model.Tag;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary-encoded, column-oriented {@link PetTable}.
+ * <p>
+ * Pets are held as parallel primitive columns instead of object graphs: ids, status
+ * ordinals, a category dictionary index, tag dictionary indexes packed into one int
+ * array with per-pet offsets, and photo URLs split into a shared prefix (everything up
+ * to the last {@code /}) and a per-pet suffix. Categories, tags and URL prefixes are
+ * stored once. {@link Pet} objects are only materialized by {@link #pet(int)}, i.e. when
+ * a pet is serialized or otherwise returned.
+ */
+final class ColumnarPetTable implements PetTable {
+
+    private static final Pet.Status[] STATUSES = Pet.Status.values();
+
+    private final long[] ids;
+    private final byte[] statuses;
+    private final int[] categoryRefs;
+    private final Category[] categories;
+    private final String[] names;
+    private final int[] urlPrefixRefs;
+    private final String[] urlPrefixes;
+    private final String[] urlSuffixes;
+    private final int[] tagOffsets;
+    private final int[] tagRefs;
+    private final Tag[] tags;
+
+    private ColumnarPetTable(long[] ids, byte[] statuses, int[] categoryRefs, Category[] categories,
+                             String[] names, int[] urlPrefixRefs, String[] urlPrefixes, String[] urlSuffixes,
+                             int[] tagOffsets, int[] tagRefs, Tag[] tags) {
+        this.ids = ids;
+        this.statuses = statuses;
+        this.categoryRefs = categoryRefs;
+        this.categories = categories;
+        this.names = names;
+        this.urlPrefixRefs = urlPrefixRefs;
+        this.urlPrefixes = urlPrefixes;
+        this.urlSuffixes = urlSuffixes;
+        this.tagOffsets = tagOffsets;
+        this.tagRefs = tagRefs;
+        this.tags = tags;
+    }
+
+    static ColumnarPetTable of(List<Pet> catalog) {
+        ListPetTable sorted = ListPetTable.of(catalog);
+        int size = sorted.size();
+
+        long[] ids = new long[size];
+        byte[] statuses = new byte[size];
+        int[] categoryRefs = new int[size];
+        String[] names = new String[size];
+        int[] urlPrefixRefs = new int[size];
+        String[] urlSuffixes = new String[size];
+        int[] tagOffsets = new int[size + 1];
+
+        Dictionary<Category> categories = new Dictionary<>();
+        Dictionary<String> urlPrefixes = new Dictionary<>();
+        Dictionary<Tag> tags = new Dictionary<>();
+        int tagCount = 0;
+        for (int i = 0; i < size; i++) {
+            List<Tag> petTags = sorted.pet(i).getTags();
+            tagCount += petTags != null ? petTags.size() : 0;
+        }
+        int[] tagRefs = new int[tagCount];
+
+        int tagPosition = 0;
+        for (int i = 0; i < size; i++) {
+            Pet pet = sorted.pet(i);
+            ids[i] = pet.getId();
+            statuses[i] = (byte) (pet.getStatus() != null ? pet.getStatus().ordinal() : -1);
+            categoryRefs[i] = pet.getCategory() != null
+                    ? categories.ref(new Category(pet.getCategory().getId(), pet.getCategory().getName()))
+                    : -1;
+            names[i] = pet.getName();
+
+            String url = pet.getPhotoURL();
+            int split = url != null ? url.lastIndexOf('/') + 1 : 0;
+            urlPrefixRefs[i] = split > 0 ? urlPrefixes.ref(url.substring(0, split)) : -1;
+            urlSuffixes[i] = url != null ? url.substring(split) : null;
+
+            tagOffsets[i] = tagPosition;
+            if (pet.getTags() != null) {
+                for (Tag tag : pet.getTags()) {
+                    tagRefs[tagPosition++] = tags.ref(new Tag(tag.getId(), tag.getName()));
+                }
+            }
+        }
+        tagOffsets[size] = tagPosition;
+
+        return new ColumnarPetTable(ids, statuses, categoryRefs, categories.toArray(new Category[0]),
+                names, urlPrefixRefs, urlPrefixes.toArray(new String[0]), urlSuffixes,
+                tagOffsets, tagRefs, tags.toArray(new Tag[0]));
+    }
+
+    @Override
+    public int size() {
+        return ids.length;
+    }
+
+    @Override
+    public long id(int position) {
+        return ids[position];
+    }
+
+    @Override
+    public Pet.Status status(int position) {
+        byte ordinal = statuses[position];
+        return ordinal < 0 ? null : STATUSES[ordinal];
+    }
+
+    @Override
+    public String categoryName(int position) {
+        int ref = categoryRefs[position];
+        return ref < 0 ? null : categories[ref].getName();
+    }
+
+    @Override
+    public Pet pet(int position) {
+        int categoryRef = categoryRefs[position];
+        Category category = categoryRef < 0 ? null
+                : new Category(categories[categoryRef].getId(), categories[categoryRef].getName());
+
+        int prefixRef = urlPrefixRefs[position];
+        String suffix = urlSuffixes[position];
+        String photoURL = prefixRef < 0 ? suffix : urlPrefixes[prefixRef] + suffix;
+
+        List<Tag> petTags = new ArrayList<>(tagOffsets[position + 1] - tagOffsets[position]);
+        for (int i = tagOffsets[position]; i < tagOffsets[position + 1]; i++) {
+            Tag tag = tags[tagRefs[i]];
+            petTags.add(new Tag(tag.getId(), tag.getName()));
+        }
+
+        return Pet.builder()
+                .id(ids[position])
+                .category(category)
+                .name(names[position])
+                .photoURL(photoURL)
+                .tags(petTags)
+                .status(status(position))
+                .build();
+    }
+
+    /**
+     * Assigns dense int references to distinct values in first-seen order.
+     */
+    private static final class Dictionary<T> {
+        private final Map<T, Integer> refs = new HashMap<>();
+        private final List<T> values = new ArrayList<>();
+
+        int ref(T value) {
+            return refs.computeIfAbsent(value, key -> {
+                values.add(key);
+                return values.size() - 1;
+            });
+        }
+
+        T[] toArray(T[] type) {
+            return values.toArray(type);
+        }
+    }
+}
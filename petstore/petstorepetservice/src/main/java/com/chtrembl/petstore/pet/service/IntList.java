@@ -0,0 +1,27 @@
+package com.chtrembl.petstore.pet.service;
+
+import java.util.Arrays;
+
+/**
+ * Growable int array used while building position indexes.
+ */
+final class IntList {
+
+    private int[] values = new int[8];
+    private int size;
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
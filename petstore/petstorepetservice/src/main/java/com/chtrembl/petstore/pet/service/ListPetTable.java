@@ -0,0 +1,62 @@
+package com.chtrembl.petstore.pet.service;
+
+import com.chtrembl.petstore.pet.model.Pet;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * {@link PetTable} over already materialized pets, e.g. the catalog bound from
+ * {@code application.yml}. Pets without an id are dropped.
+ */
+final class ListPetTable implements PetTable {
+
+    private final List<Pet> pets;
+
+    private ListPetTable(List<Pet> pets) {
+        this.pets = pets;
+    }
+
+    static ListPetTable of(List<Pet> catalog) {
+        List<Pet> pets = new ArrayList<>(catalog.size());
+        for (Pet pet : catalog) {
+            if (pet.getId() != null) {
+                pets.add(pet);
+            }
+        }
+        pets.sort(Comparator.comparing(Pet::getId));
+        for (int i = 1; i < pets.size(); i++) {
+            if (pets.get(i).getId().equals(pets.get(i - 1).getId())) {
+                throw new IllegalArgumentException("Duplicate pet id " + pets.get(i).getId());
+            }
+        }
+        return new ListPetTable(List.copyOf(pets));
+    }
+
+    @Override
+    public int size() {
+        return pets.size();
+    }
+
+    @Override
+    public long id(int position) {
+        return pets.get(position).getId();
+    }
+
+    @Override
+    public Pet.Status status(int position) {
+        return pets.get(position).getStatus();
+    }
+
+    @Override
+    public String categoryName(int position) {
+        Pet pet = pets.get(position);
+        return pet.getCategory() != null ? pet.getCategory().getName() : null;
+    }
+
+    @Override
+    public Pet pet(int position) {
+        return pets.get(position);
+    }
+}
@@ -0,0 +1,285 @@
+package com.chtrembl.petstore.pet.service;
+
+import com.chtrembl.petstore.pet.model.Category;
+import com.chtrembl.petstore.pet.model.Pet;
+import com.chtrembl.petstore.pet.model.Tag;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@link PetTable} over a memory-mapped binary catalog file.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ * header     int magic "PCAT", int format version, int pet count, int category count
+ * categories per category: long id, string name
+ * records    per pet, ordered by id: long id, int data offset, int category index (-1 none),
+ *            byte status ordinal (-1 none), 3 bytes padding
+ * data       per pet: string name, string photoURL, int tag count, per tag: long id, string name
+ * </pre>
+ * Strings are an int byte length (-1 for null) followed by UTF-8 bytes; a null id is
+ * stored as {@link Long#MIN_VALUE}. Only the fixed-width record table is read when the
+ * index is built; a pet's name, photo URL and tags are decoded when it is returned.
+ * <p>
+ * A mapping stays valid for the file it was opened on, so catalog updates must replace
+ * the file (write elsewhere, then rename) rather than rewrite it in place.
+ */
+final class MappedPetTable implements PetTable {
+
+    private static final int MAGIC = 0x50434154;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_BYTES = 20;
+    private static final long NULL_ID = Long.MIN_VALUE;
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int recordTable;
+    private final Category[] categories;
+    private final Pet.Status[] statuses = Pet.Status.values();
+
+    private MappedPetTable(ByteBuffer buffer, int count, int recordTable, Category[] categories) {
+        this.buffer = buffer;
+        this.count = count;
+        this.recordTable = recordTable;
+        this.categories = categories;
+    }
+
+    static MappedPetTable open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Pet catalog file exceeds 2 GB: " + path);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a pet catalog file: " + path);
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported pet catalog format version " + buffer.getInt(4) + ": " + path);
+        }
+        int count = buffer.getInt(8);
+        int categoryCount = buffer.getInt(12);
+
+        int position = HEADER_BYTES;
+        Category[] categories = new Category[categoryCount];
+        for (int i = 0; i < categoryCount; i++) {
+            long id = buffer.getLong(position);
+            int length = buffer.getInt(position + 8);
+            categories[i] = new Category(id == NULL_ID ? null : id, readString(buffer, position + 8));
+            position += 12 + Math.max(length, 0);
+        }
+
+        if ((long) position + (long) count * RECORD_BYTES > buffer.capacity()) {
+            throw new IOException("Truncated pet catalog file: " + path);
+        }
+        MappedPetTable table = new MappedPetTable(buffer, count, position, categories);
+        for (int i = 1; i < count; i++) {
+            if (table.id(i) <= table.id(i - 1)) {
+                throw new IOException("Pet catalog file is not ordered by unique id at record " + i + ": " + path);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Writes {@code pets} in this format, replacing {@code path} atomically.
+     */
+    static void write(List<Pet> catalog, Path path) throws IOException {
+        ListPetTable table = ListPetTable.of(catalog);
+        List<Pet> pets = new ArrayList<>(table.size());
+        for (int i = 0; i < table.size(); i++) {
+            pets.add(table.pet(i));
+        }
+
+        Map<Category, Integer> categoryIndex = new HashMap<>();
+        List<Category> categoryList = new ArrayList<>();
+        for (Pet pet : pets) {
+            if (pet.getCategory() != null && !categoryIndex.containsKey(pet.getCategory())) {
+                categoryIndex.put(pet.getCategory(), categoryList.size());
+                categoryList.add(pet.getCategory());
+            }
+        }
+
+        long dataStart = HEADER_BYTES + (long) pets.size() * RECORD_BYTES;
+        for (Category category : categoryList) {
+            dataStart += 12 + utf8Length(category.getName());
+        }
+
+        Path directory = path.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(pets.size());
+            out.writeInt(categoryList.size());
+            for (Category category : categoryList) {
+                out.writeLong(category.getId() != null ? category.getId() : NULL_ID);
+                writeString(out, category.getName());
+            }
+
+            long offset = dataStart;
+            for (Pet pet : pets) {
+                if (offset > Integer.MAX_VALUE) {
+                    throw new IOException("Pet catalog exceeds 2 GB");
+                }
+                out.writeLong(pet.getId());
+                out.writeInt((int) offset);
+                out.writeInt(pet.getCategory() != null ? categoryIndex.get(pet.getCategory()) : -1);
+                out.writeByte(pet.getStatus() != null ? pet.getStatus().ordinal() : -1);
+                out.write(new byte[3]);
+                offset += dataLength(pet);
+            }
+
+            for (Pet pet : pets) {
+                writeString(out, pet.getName());
+                writeString(out, pet.getPhotoURL());
+                List<Tag> tags = pet.getTags() != null ? pet.getTags() : List.of();
+                out.writeInt(tags.size());
+                for (Tag tag : tags) {
+                    out.writeLong(tag.getId() != null ? tag.getId() : NULL_ID);
+                    writeString(out, tag.getName());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public long id(int position) {
+        return buffer.getLong(record(position));
+    }
+
+    @Override
+    public Pet.Status status(int position) {
+        byte ordinal = buffer.get(record(position) + 16);
+        return ordinal < 0 ? null : statuses[ordinal];
+    }
+
+    @Override
+    public String categoryName(int position) {
+        Category category = category(position);
+        return category != null ? category.getName() : null;
+    }
+
+    @Override
+    public Pet pet(int position) {
+        int offset = dataOffset(position);
+
+        String name = readString(buffer, offset);
+        offset += 4 + Math.max(buffer.getInt(offset), 0);
+        String photoURL = readString(buffer, offset);
+        offset += 4 + Math.max(buffer.getInt(offset), 0);
+
+        int tagCount = buffer.getInt(offset);
+        offset += 4;
+        List<Tag> tags = new ArrayList<>(tagCount);
+        for (int i = 0; i < tagCount; i++) {
+            long tagId = buffer.getLong(offset);
+            String tagName = readString(buffer, offset + 8);
+            offset += 12 + Math.max(buffer.getInt(offset + 8), 0);
+            tags.add(new Tag(tagId == NULL_ID ? null : tagId, tagName));
+        }
+
+        Category category = category(position);
+        return Pet.builder()
+                .id(id(position))
+                .category(category != null ? new Category(category.getId(), category.getName()) : null)
+                .name(name)
+                .photoURL(photoURL)
+                .tags(tags)
+                .status(status(position))
+                .build();
+    }
+
+    @Override
+    public boolean sameRecord(int position, PetTable other, int otherPosition) {
+        if (!(other instanceof MappedPetTable mapped)) {
+            return PetTable.super.sameRecord(position, other, otherPosition);
+        }
+        return id(position) == mapped.id(otherPosition)
+                && status(position) == mapped.status(otherPosition)
+                && Objects.equals(category(position), mapped.category(otherPosition))
+                && data(position).equals(mapped.data(otherPosition));
+    }
+
+    private int record(int position) {
+        Objects.checkIndex(position, count);
+        return recordTable + position * RECORD_BYTES;
+    }
+
+    private int dataOffset(int position) {
+        return buffer.getInt(record(position) + 8);
+    }
+
+    private Category category(int position) {
+        int index = buffer.getInt(record(position) + 12);
+        return index < 0 ? null : categories[index];
+    }
+
+    private ByteBuffer data(int position) {
+        int start = dataOffset(position);
+        int end = position + 1 < count ? dataOffset(position + 1) : buffer.capacity();
+        return buffer.slice(start, end - start);
+    }
+
+    private static String readString(ByteBuffer buffer, int offset) {
+        int length = buffer.getInt(offset);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static int utf8Length(String value) {
+        return value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static long dataLength(Pet pet) {
+        long length = 4L + utf8Length(pet.getName()) + 4 + utf8Length(pet.getPhotoURL()) + 4;
+        if (pet.getTags() != null) {
+            for (Tag tag : pet.getTags()) {
+                length += 12 + utf8Length(tag.getName());
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,108 @@
+package com.chtrembl.petstore.pet.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the configured pet catalog file and hot-swaps the catalog when the file is
+ * replaced. Events are debounced so a copy-then-rename produces a single reload; a
+ * file that fails to open leaves the current catalog in place.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PetCatalogFileWatcher {
+
+    private static final long DEBOUNCE_MS = 250;
+
+    private final PetService petService;
+
+    @Value("${petstore.catalog.file:}")
+    private String catalogFile;
+
+    private WatchService watchService;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!StringUtils.hasText(catalogFile)) {
+            return;
+        }
+        Path path = Path.of(catalogFile).toAbsolutePath();
+        watchService = FileSystems.getDefault().newWatchService();
+        path.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        Thread watcher = new Thread(() -> watch(path), "pet-catalog-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        log.info("Watching pet catalog file {} for changes", path);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watch(Path path) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = containsCatalogEvent(key, path);
+                key.reset();
+                if (!changed) {
+                    continue;
+                }
+
+                // Absorb the burst of events a replace produces before reloading once
+                WatchKey next;
+                while ((next = watchService.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS)) != null) {
+                    next.pollEvents();
+                    next.reset();
+                }
+                reload(path);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Pet catalog watcher stopped");
+        }
+    }
+
+    private boolean containsCatalogEvent(WatchKey key, Path path) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path name && name.equals(path.getFileName())) {
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private void reload(Path path) {
+        try {
+            long start = System.nanoTime();
+            petService.reloadCatalog(MappedPetTable.open(path));
+            log.info("Hot-reloaded pet catalog from {} in {} ms", path, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to reload pet catalog from {}, keeping the current catalog: {}",
+                    path, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.chtrembl.petstore.pet.service;
+
+import com.chtrembl.petstore.pet.model.Pet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable lookup structure over a {@link PetTable}.
+ * <p>
+ * Built once per catalog state from the id, status and category columns only: an
+ * open-addressing id hash plus per-status position arrays, both for the whole
+ * catalog and per category name. Single-status queries are a map lookup that
+ * returns a view over a prebuilt array; multi-status queries merge those arrays.
+ * Every result is ordered by id, which is what keyset pagination relies on.
+ * <p>
+ * Status changes derive a new index that shares the id hash, the category arrays
+ * and every status array the change does not touch.
+ */
+final class PetCatalogIndex {
+
+    private static final int[] NONE = new int[0];
+
+    private final PetTable table;
+    private final long[] hashIds;
+    private final int[] hashPositions;
+    private final EnumMap<Pet.Status, int[]> byStatus;
+    private final Map<String, int[]> byCategory;
+    private final Map<String, EnumMap<Pet.Status, int[]>> byCategoryAndStatus;
+
+    private PetCatalogIndex(PetTable table,
+                            long[] hashIds,
+                            int[] hashPositions,
+                            EnumMap<Pet.Status, int[]> byStatus,
+                            Map<String, int[]> byCategory,
+                            Map<String, EnumMap<Pet.Status, int[]>> byCategoryAndStatus) {
+        this.table = table;
+        this.hashIds = hashIds;
+        this.hashPositions = hashPositions;
+        this.byStatus = byStatus;
+        this.byCategory = byCategory;
+        this.byCategoryAndStatus = byCategoryAndStatus;
+    }
+
+    static PetCatalogIndex build(PetTable table) {
+        int size = table.size();
+        int capacity = Integer.highestOneBit(Math.max(2, size) * 2 - 1) << 1;
+        long[] hashIds = new long[capacity];
+        int[] hashPositions = new int[capacity];
+        Arrays.fill(hashPositions, -1);
+
+        EnumMap<Pet.Status, IntList> byStatus = new EnumMap<>(Pet.Status.class);
+        Map<String, IntList> byCategory = new HashMap<>();
+        Map<String, EnumMap<Pet.Status, IntList>> byCategoryAndStatus = new HashMap<>();
+
+        for (int position = 0; position < size; position++) {
+            long id = table.id(position);
+            int slot = slot(id, capacity);
+            while (hashPositions[slot] >= 0) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            hashIds[slot] = id;
+            hashPositions[slot] = position;
+
+            Pet.Status status = table.status(position);
+            String category = table.categoryName(position);
+            if (category != null) {
+                byCategory.computeIfAbsent(category, key -> new IntList()).add(position);
+            }
+            if (status != null) {
+                byStatus.computeIfAbsent(status, key -> new IntList()).add(position);
+                if (category != null) {
+                    byCategoryAndStatus.computeIfAbsent(category, key -> new EnumMap<>(Pet.Status.class))
+                            .computeIfAbsent(status, key -> new IntList())
+                            .add(position);
+                }
+            }
+        }
+
+        EnumMap<Pet.Status, int[]> statusIndex = new EnumMap<>(Pet.Status.class);
+        byStatus.forEach((status, list) -> statusIndex.put(status, list.toArray()));
+        Map<String, int[]> categoryIndex = new HashMap<>();
+        byCategory.forEach((category, list) -> categoryIndex.put(category, list.toArray()));
+        Map<String, EnumMap<Pet.Status, int[]>> categoryStatusIndex = new HashMap<>();
+        byCategoryAndStatus.forEach((category, lists) -> {
+            EnumMap<Pet.Status, int[]> arrays = new EnumMap<>(Pet.Status.class);
+            lists.forEach((status, list) -> arrays.put(status, list.toArray()));
+            categoryStatusIndex.put(category, arrays);
+        });
+
+        return new PetCatalogIndex(table, hashIds, hashPositions, statusIndex, categoryIndex, categoryStatusIndex);
+    }
+
+    /**
+     * Returns the index for {@code next}, which must equal this index's table except for
+     * the statuses of the pets at {@code changed} (ascending positions).
+     */
+    PetCatalogIndex withStatusChanges(PetTable next, int[] changed) {
+        EnumMap<Pet.Status, IntList> removed = new EnumMap<>(Pet.Status.class);
+        EnumMap<Pet.Status, IntList> added = new EnumMap<>(Pet.Status.class);
+        Map<String, EnumMap<Pet.Status, IntList>> removedByCategory = new HashMap<>();
+        Map<String, EnumMap<Pet.Status, IntList>> addedByCategory = new HashMap<>();
+
+        for (int position : changed) {
+            Pet.Status before = table.status(position);
+            Pet.Status after = next.status(position);
+            if (before == after) {
+                continue;
+            }
+            String category = table.categoryName(position);
+            if (before != null) {
+                removed.computeIfAbsent(before, key -> new IntList()).add(position);
+                if (category != null) {
+                    removedByCategory.computeIfAbsent(category, key -> new EnumMap<>(Pet.Status.class))
+                            .computeIfAbsent(before, key -> new IntList()).add(position);
+                }
+            }
+            if (after != null) {
+                added.computeIfAbsent(after, key -> new IntList()).add(position);
+                if (category != null) {
+                    addedByCategory.computeIfAbsent(category, key -> new EnumMap<>(Pet.Status.class))
+                            .computeIfAbsent(after, key -> new IntList()).add(position);
+                }
+            }
+        }
+
+        EnumMap<Pet.Status, int[]> statusIndex = patch(byStatus, removed, added);
+        Map<String, EnumMap<Pet.Status, int[]>> categoryStatusIndex = new HashMap<>(byCategoryAndStatus);
+        Set<String> categories = new HashSet<>(removedByCategory.keySet());
+        categories.addAll(addedByCategory.keySet());
+        for (String category : categories) {
+            categoryStatusIndex.put(category, patch(
+                    byCategoryAndStatus.getOrDefault(category, new EnumMap<>(Pet.Status.class)),
+                    removedByCategory.getOrDefault(category, new EnumMap<>(Pet.Status.class)),
+                    addedByCategory.getOrDefault(category, new EnumMap<>(Pet.Status.class))));
+        }
+
+        return new PetCatalogIndex(next, hashIds, hashPositions, statusIndex, byCategory, categoryStatusIndex);
+    }
+
+    PetTable table() {
+        return table;
+    }
+
+    PetSlice all() {
+        return PetSlice.all(table);
+    }
+
+    int size() {
+        return table.size();
+    }
+
+    Optional<Pet> findById(Long id) {
+        int position = id != null ? positionOf(id) : -1;
+        return position >= 0 ? Optional.of(table.pet(position)) : Optional.empty();
+    }
+
+    /**
+     * Returns the pets for the given ids in request order, skipping unknown ids.
+     */
+    List<Pet> findByIds(Collection<Long> ids) {
+        List<Pet> pets = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            int position = id != null ? positionOf(id) : -1;
+            if (position >= 0) {
+                pets.add(table.pet(position));
+            }
+        }
+        return pets;
+    }
+
+    /**
+     * Returns the pets with any of the given statuses, optionally restricted to a category name.
+     */
+    PetSlice findByStatus(Set<Pet.Status> statuses, String category) {
+        Map<Pet.Status, int[]> source = category == null
+                ? byStatus
+                : byCategoryAndStatus.getOrDefault(category, new EnumMap<>(Pet.Status.class));
+
+        if (statuses.size() == 1) {
+            return PetSlice.of(table, source.getOrDefault(statuses.iterator().next(), NONE));
+        }
+
+        int total = 0;
+        for (Pet.Status status : statuses) {
+            total += source.getOrDefault(status, NONE).length;
+        }
+        int[] merged = new int[total];
+        int offset = 0;
+        for (Pet.Status status : statuses) {
+            int[] positions = source.getOrDefault(status, NONE);
+            System.arraycopy(positions, 0, merged, offset, positions.length);
+            offset += positions.length;
+        }
+        Arrays.sort(merged);
+        return PetSlice.of(table, merged);
+    }
+
+    private static EnumMap<Pet.Status, int[]> patch(EnumMap<Pet.Status, int[]> source,
+                                                    EnumMap<Pet.Status, IntList> removed,
+                                                    EnumMap<Pet.Status, IntList> added) {
+        EnumMap<Pet.Status, int[]> patched = new EnumMap<>(source);
+        for (Pet.Status status : Pet.Status.values()) {
+            if (!removed.containsKey(status) && !added.containsKey(status)) {
+                continue;
+            }
+            int[] positions = patched.getOrDefault(status, NONE);
+            int[] remove = removed.containsKey(status) ? removed.get(status).toArray() : NONE;
+            int[] add = added.containsKey(status) ? added.get(status).toArray() : NONE;
+
+            int[] result = new int[positions.length + add.length];
+            int i = 0;
+            int r = 0;
+            int a = 0;
+            int n = 0;
+            while (i < positions.length || a < add.length) {
+                if (a == add.length || (i < positions.length && positions[i] < add[a])) {
+                    while (r < remove.length && remove[r] < positions[i]) {
+                        r++;
+                    }
+                    if (r == remove.length || remove[r] != positions[i]) {
+                        result[n++] = positions[i];
+                    }
+                    i++;
+                } else {
+                    result[n++] = add[a++];
+                }
+            }
+            if (n == 0) {
+                patched.remove(status);
+            } else {
+                patched.put(status, Arrays.copyOf(result, n));
+            }
+        }
+        return patched;
+    }
+
+    /**
+     * Table position of the pet with {@code id}, or -1.
+     */
+    int positionOf(long id) {
+        int mask = hashPositions.length - 1;
+        int slot = slot(id, hashPositions.length);
+        while (hashPositions[slot] >= 0) {
+            if (hashIds[slot] == id) {
+                return hashPositions[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int slot(long id, int capacity) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (capacity - 1);
+    }
+}
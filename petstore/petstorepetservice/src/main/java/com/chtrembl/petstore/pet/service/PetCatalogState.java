@@ -0,0 +1,29 @@
+package com.chtrembl.petstore.pet.service;
+
+/**
+ * One published catalog version: the lookup index and the search index over the same
+ * {@link PetTable}. Readers take the current state once per request, so they never
+ * mix structures from two versions.
+ */
+final class PetCatalogState {
+
+    private final PetCatalogIndex index;
+    private final PetSearchIndex searchIndex;
+
+    PetCatalogState(PetCatalogIndex index, PetSearchIndex searchIndex) {
+        this.index = index;
+        this.searchIndex = searchIndex;
+    }
+
+    PetCatalogIndex index() {
+        return index;
+    }
+
+    PetSearchIndex searchIndex() {
+        return searchIndex;
+    }
+
+    PetTable table() {
+        return index.table();
+    }
+}
@@ -0,0 +1,130 @@
+package com.chtrembl.petstore.pet.service;
+
+import com.chtrembl.petstore.pet.model.Pet;
+import com.chtrembl.petstore.pet.model.Tag;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes pets as a JSON array containing only the requested properties, straight
+ * from the catalog objects to a streaming generator.
+ */
+@Service
+@RequiredArgsConstructor
+public class PetProjectionWriter {
+
+    private final ObjectMapper objectMapper;
+
+    public enum Field {
+        ID("id"),
+        CATEGORY("category"),
+        NAME("name"),
+        PHOTO_URL("photoURL"),
+        TAGS("tags"),
+        STATUS("status");
+
+        private final String value;
+
+        Field(String value) {
+            this.value = value;
+        }
+
+        public static Field fromValue(String value) {
+            for (Field field : Field.values()) {
+                if (field.value.equals(value)) {
+                    return field;
+                }
+            }
+            throw new IllegalArgumentException("Unknown pet field '" + value + "'");
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * Parses a comma-separated {@code fields} parameter; null or blank selects every field.
+     */
+    public static Set<Field> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return EnumSet.allOf(Field.class);
+        }
+        EnumSet<Field> selected = EnumSet.noneOf(Field.class);
+        for (String name : fields.split(",")) {
+            if (!name.isBlank()) {
+                selected.add(Field.fromValue(name.trim()));
+            }
+        }
+        return selected;
+    }
+
+    public void write(List<Pet> pets, Set<Field> fields, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.writeStartArray();
+            for (Pet pet : pets) {
+                writePet(generator, pet, fields);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private void writePet(JsonGenerator generator, Pet pet, Set<Field> fields) throws IOException {
+        generator.writeStartObject();
+        if (fields.contains(Field.ID)) {
+            if (pet.getId() != null) {
+                generator.writeNumberField("id", pet.getId());
+            } else {
+                generator.writeNullField("id");
+            }
+        }
+        if (fields.contains(Field.CATEGORY)) {
+            generator.writeFieldName("category");
+            if (pet.getCategory() != null) {
+                generator.writeStartObject();
+                writeIdAndName(generator, pet.getCategory().getId(), pet.getCategory().getName());
+                generator.writeEndObject();
+            } else {
+                generator.writeNull();
+            }
+        }
+        if (fields.contains(Field.NAME)) {
+            generator.writeStringField("name", pet.getName());
+        }
+        if (fields.contains(Field.PHOTO_URL)) {
+            generator.writeStringField("photoURL", pet.getPhotoURL());
+        }
+        if (fields.contains(Field.TAGS)) {
+            generator.writeArrayFieldStart("tags");
+            if (pet.getTags() != null) {
+                for (Tag tag : pet.getTags()) {
+                    generator.writeStartObject();
+                    writeIdAndName(generator, tag.getId(), tag.getName());
+                    generator.writeEndObject();
+                }
+            }
+            generator.writeEndArray();
+        }
+        if (fields.contains(Field.STATUS)) {
+            generator.writeStringField("status", pet.getStatus() != null ? pet.getStatus().getValue() : null);
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeIdAndName(JsonGenerator generator, Long id, String name) throws IOException {
+        if (id != null) {
+            generator.writeNumberField("id", id);
+        } else {
+            generator.writeNullField("id");
+        }
+        generator.writeStringField("name", name);
+    }
+}
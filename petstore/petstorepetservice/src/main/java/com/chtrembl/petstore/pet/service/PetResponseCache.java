@@ -0,0 +1,181 @@
+package com.chtrembl.petstore.pet.service;
+
+import com.chtrembl.petstore.catalog.service.CatalogChangeLog;
+import com.chtrembl.petstore.pet.model.Pet;
+import com.chtrembl.petstore.pet.model.PetPage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Per-query cache of pet catalog responses (full lists or projected pages), serialized
+ * to JSON once per catalog version and gzip-compressed on the first request that
+ * accepts gzip.
+ * <p>
+ * Entries belong to a generation keyed by the change log epoch and version; the first
+ * lookup after a catalog change starts a new, empty generation, so stale bodies are
+ * never served and no explicit invalidation is needed. A generation keeps the
+ * {@value #MAX_ENTRIES} most recently used queries. Each entry carries strong ETags for
+ * its identity and gzip representations.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PetResponseCache {
+
+    private static final int MAX_ENTRIES = 256;
+    private static final int MIN_GZIP_BYTES = 256;
+
+    private final PetService petService;
+    private final ObjectMapper objectMapper;
+    private final PetProjectionWriter projectionWriter;
+
+    private volatile Generation generation = new Generation("", -1);
+
+    public CachedResponse get(String key, Supplier<List<Pet>> query) {
+        return lookup(key, generation -> build(generation, serialize(query.get()), null));
+    }
+
+    /**
+     * Caches a page projected to {@code fields}; the key must identify cursor, limit and fields.
+     */
+    public CachedResponse getPage(String key, Supplier<PetPage> query, Set<PetProjectionWriter.Field> fields) {
+        return lookup(key, generation -> {
+            PetPage page = query.get();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                projectionWriter.write(page.getItems(), fields, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return build(generation, out.toByteArray(), page.getNextCursor());
+        });
+    }
+
+    private CachedResponse lookup(String key, Function<Generation, CachedResponse> builder) {
+        CatalogChangeLog<Pet> changeLog = petService.getChangeLog();
+        String epoch = changeLog.getEpoch();
+        long version = changeLog.getVersion();
+
+        Generation current = generation;
+        if (current.version != version || !current.epoch.equals(epoch)) {
+            current = new Generation(epoch, version);
+            generation = current;
+            log.debug("Started pet response cache generation {}:{}", epoch, version);
+        }
+
+        CachedResponse cached = current.entries.getIfPresent(key);
+        if (cached != null) {
+            log.debug("Pet response cache hit for {}", key);
+            return cached;
+        }
+        log.debug("Pet response cache miss for {}", key);
+        cached = builder.apply(current);
+        current.entries.put(key, cached);
+        return cached;
+    }
+
+    private byte[] serialize(List<Pet> pets) {
+        try {
+            return objectMapper.writeValueAsBytes(pets);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private CachedResponse build(Generation generation, byte[] json, String nextCursor) {
+        CRC32 crc = new CRC32();
+        crc.update(json);
+        String tag = generation.epoch + "-" + generation.version + "-" + Long.toHexString(crc.getValue());
+        return new CachedResponse(json, "\"" + tag + "\"", "\"" + tag + "-gz\"", nextCursor);
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static final class Generation {
+        private final String epoch;
+        private final long version;
+        private final Cache<String, CachedResponse> entries = Caffeine.newBuilder()
+                .maximumSize(MAX_ENTRIES)
+                .build();
+
+        private Generation(String epoch, long version) {
+            this.epoch = epoch;
+            this.version = version;
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static final class CachedResponse {
+        private static final byte[] INCOMPRESSIBLE = new byte[0];
+
+        private final byte[] json;
+        private final String etag;
+        private final String gzipEtag;
+        private final String nextCursor;
+        private volatile byte[] gzip;
+
+        /**
+         * Whether a gzip body smaller than the JSON exists; compresses it on first use.
+         */
+        public boolean hasGzip() {
+            return getGzip() != null;
+        }
+
+        /**
+         * The gzip body, compressed on first use, or {@code null} if it would not be
+         * smaller than the JSON. Concurrent first calls may each compress; one result wins.
+         */
+        public byte[] getGzip() {
+            byte[] compressed = gzip;
+            if (compressed == null) {
+                compressed = json.length >= MIN_GZIP_BYTES ? gzip(json) : INCOMPRESSIBLE;
+                if (compressed.length >= json.length) {
+                    compressed = INCOMPRESSIBLE;
+                }
+                gzip = compressed;
+            }
+            return compressed != INCOMPRESSIBLE ? compressed : null;
+        }
+
+        /**
+         * Whether an {@code If-None-Match} header value matches either representation.
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String value = candidate.trim();
+                if (value.equals("*") || value.equals(etag) || value.equals(gzipEtag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.chtrembl.petstore.pet.service;
+
+import com.chtrembl.petstore.pet.model.Pet;
+import com.chtrembl.petstore.pet.model.Tag;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over normalized pet name and tag tokens.
+ * <p>
+ * Each token maps to a sorted array of {@link PetTable} positions. A query matches
+ * pets containing every query token (AND); a query token that is not in the
+ * dictionary is expanded to the closest dictionary tokens by trigram similarity, so
+ * small typos still match. Results of recent queries are kept in a small LRU cache
+ * that lives and dies with this index instance.
+ */
+final class PetSearchIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+    private static final int[] NONE = new int[0];
+    private static final double MIN_SIMILARITY = 0.4;
+    private static final int MAX_FUZZY_TERMS = 5;
+    private static final int RESULT_CACHE_SIZE = 256;
+
+    private final PetTable table;
+    private final Map<String, int[]> postings;
+    private final Map<String, String[]> trigramTokens;
+    private final Map<String, int[]> resultCache;
+
+    private PetSearchIndex(PetTable table, Map<String, int[]> postings) {
+        this(table, postings, buildTrigrams(postings.keySet()), newResultCache());
+    }
+
+    private PetSearchIndex(PetTable table, Map<String, int[]> postings, Map<String, String[]> trigramTokens,
+                           Map<String, int[]> resultCache) {
+        this.table = table;
+        this.postings = postings;
+        this.trigramTokens = trigramTokens;
+        this.resultCache = resultCache;
+    }
+
+    static PetSearchIndex build(PetTable table) {
+        Map<String, IntList> lists = new HashMap<>();
+        for (int position = 0; position < table.size(); position++) {
+            addTokens(lists, table.pet(position), position);
+        }
+        return new PetSearchIndex(table, toArrays(lists));
+    }
+
+    PetTable table() {
+        return table;
+    }
+
+    /**
+     * Builds the index for {@code next}, re-tokenizing only the pets at {@code changed}
+     * (ascending positions in {@code next}). Postings of unchanged pets are carried over
+     * by remapping their positions, which keeps them sorted.
+     */
+    PetSearchIndex update(PetTable next, int[] changed) {
+        int[] oldToNew = new int[table.size()];
+        Arrays.fill(oldToNew, -1);
+        int i = 0;
+        int j = 0;
+        int c = 0;
+        while (i < table.size() && j < next.size()) {
+            long oldId = table.id(i);
+            long newId = next.id(j);
+            if (oldId < newId) {
+                i++;
+            } else if (newId < oldId) {
+                j++;
+            } else {
+                while (c < changed.length && changed[c] < j) {
+                    c++;
+                }
+                if (c == changed.length || changed[c] != j) {
+                    oldToNew[i] = j;
+                }
+                i++;
+                j++;
+            }
+        }
+
+        Map<String, IntList> changedLists = new HashMap<>();
+        for (int position : changed) {
+            addTokens(changedLists, next.pet(position), position);
+        }
+
+        Map<String, int[]> merged = new HashMap<>(postings.size() + changedLists.size());
+        for (Map.Entry<String, int[]> entry : postings.entrySet()) {
+            IntList remapped = new IntList();
+            for (int position : entry.getValue()) {
+                if (oldToNew[position] >= 0) {
+                    remapped.add(oldToNew[position]);
+                }
+            }
+            int[] added = changedLists.containsKey(entry.getKey())
+                    ? changedLists.remove(entry.getKey()).toArray()
+                    : NONE;
+            int[] union = union(remapped.toArray(), added);
+            if (union.length > 0) {
+                merged.put(entry.getKey(), union);
+            }
+        }
+        changedLists.forEach((token, list) -> merged.put(token, list.toArray()));
+
+        return new PetSearchIndex(next, merged);
+    }
+
+    /**
+     * Returns this index over {@code next}, a table with the same pets at the same
+     * positions whose names and tags are unchanged, e.g. after a status change.
+     * Postings and cached results stay valid and are shared.
+     */
+    PetSearchIndex withTable(PetTable next) {
+        return new PetSearchIndex(next, postings, trigramTokens, resultCache);
+    }
+
+    /**
+     * Returns the ascending table positions of pets matching every token of {@code query}.
+     */
+    int[] search(String query) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return NONE;
+        }
+        String key = String.join(" ", tokens);
+        int[] cached = resultCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        int[] result = null;
+        for (String token : new LinkedHashSet<>(tokens)) {
+            int[] matches = matchToken(token);
+            result = result == null ? matches : intersect(result, matches);
+            if (result.length == 0) {
+                break;
+            }
+        }
+        resultCache.put(key, result);
+        return result;
+    }
+
+    private int[] matchToken(String token) {
+        int[] exact = postings.get(token);
+        if (exact != null) {
+            return exact;
+        }
+
+        Set<String> queryTrigrams = trigrams(token);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            for (String candidate : trigramTokens.getOrDefault(trigram, new String[0])) {
+                shared.merge(candidate, 1, Integer::sum);
+            }
+        }
+
+        List<Map.Entry<String, Double>> scored = new ArrayList<>();
+        shared.forEach((candidate, count) -> {
+            int candidateTrigrams = candidate.length() + 1;
+            double similarity = (double) count / (queryTrigrams.size() + candidateTrigrams - count);
+            if (similarity >= MIN_SIMILARITY) {
+                scored.add(Map.entry(candidate, similarity));
+            }
+        });
+        scored.sort(Map.Entry.<String, Double>comparingByValue().reversed());
+
+        int[] result = NONE;
+        for (int i = 0; i < Math.min(MAX_FUZZY_TERMS, scored.size()); i++) {
+            result = union(result, postings.get(scored.get(i).getKey()));
+        }
+        return result;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static void addTokens(Map<String, IntList> lists, Pet pet, int position) {
+        Set<String> tokens = new LinkedHashSet<>(tokenize(pet.getName()));
+        if (pet.getTags() != null) {
+            for (Tag tag : pet.getTags()) {
+                tokens.addAll(tokenize(tag.getName()));
+            }
+        }
+        for (String token : tokens) {
+            lists.computeIfAbsent(token, key -> new IntList()).add(position);
+        }
+    }
+
+    private static Map<String, int[]> newResultCache() {
+        return Collections.synchronizedMap(new LinkedHashMap<>(RESULT_CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest) {
+                return size() > RESULT_CACHE_SIZE;
+            }
+        });
+    }
+
+    private static Map<String, int[]> toArrays(Map<String, IntList> lists) {
+        Map<String, int[]> arrays = new HashMap<>(lists.size() * 2);
+        lists.forEach((token, list) -> arrays.put(token, list.toArray()));
+        return arrays;
+    }
+
+    private static Map<String, String[]> buildTrigrams(Set<String> tokens) {
+        Map<String, List<String>> lists = new HashMap<>();
+        for (String token : tokens) {
+            for (String trigram : trigrams(token)) {
+                lists.computeIfAbsent(trigram, key -> new ArrayList<>()).add(token);
+            }
+        }
+        Map<String, String[]> arrays = new HashMap<>(lists.size() * 2);
+        lists.forEach((trigram, list) -> arrays.put(trigram, list.toArray(new String[0])));
+        return arrays;
+    }
+
+    /**
+     * Trigrams of the token padded with two leading and one trailing space, so a
+     * token of length n has n + 1 trigrams and word starts weigh more.
+     */
+    private static Set<String> trigrams(String token) {
+        String padded = "  " + token + " ";
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        if (a.length == 0) {
+            return b;
+        }
+        if (b.length == 0) {
+            return a;
+        }
+        int[] result = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                result[n++] = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                result[n++] = b[j++];
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+}
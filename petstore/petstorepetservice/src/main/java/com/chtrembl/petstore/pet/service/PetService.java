@@ -1,43 +1,349 @@
 package com.chtrembl.petstore.pet.service;
 
+import com.chtrembl.petstore.catalog.model.CatalogChange;
+import com.chtrembl.petstore.catalog.model.CatalogDelta;
+import com.chtrembl.petstore.catalog.service.CatalogChangeLog;
+import com.chtrembl.petstore.catalog.service.CatalogChangeStream;
 import com.chtrembl.petstore.pet.model.DataPreload;
 import com.chtrembl.petstore.pet.model.Pet;
+import com.chtrembl.petstore.pet.model.PetPage;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class PetService {
 
+    private static final int CHANGE_LOG_CAPACITY = 1024;
+    private static final int MAX_SEARCH_RESULTS = 500;
+
     private final DataPreload dataPreload;
+    private final CatalogChangeLog<Pet> changeLog = new CatalogChangeLog<>(CHANGE_LOG_CAPACITY);
+
+    /**
+     * Single publication point for catalog versions. Writers are serialized and build a
+     * new state that shares everything unchanged with the previous one; readers take
+     * the current state without locking.
+     */
+    private final AtomicReference<PetCatalogState> catalog = new AtomicReference<>();
+    private CatalogChangeStream<Pet> changeStream;
+
+    @Value("${petstore.catalog.file:}")
+    private String catalogFile;
+
+    @Value("${petstore.catalog.storage:objects}")
+    private String catalogStorage;
+
+    @PostConstruct
+    public void initCatalog() {
+        long start = System.nanoTime();
+        PetCatalogIndex index = PetCatalogIndex.build(loadCatalog());
+        log.info("Indexed {} pets in {} ms", index.size(), (System.nanoTime() - start) / 1_000_000);
+
+        start = System.nanoTime();
+        PetSearchIndex searchIndex = PetSearchIndex.build(index.table());
+        log.info("Built pet search index in {} ms", (System.nanoTime() - start) / 1_000_000);
+        catalog.set(new PetCatalogState(index, searchIndex));
+
+        changeStream = new CatalogChangeStream<>("pet", changeLog, () -> catalog.get().index().all());
+        log.info("Pet change log started with epoch {}", changeLog.getEpoch());
+    }
+
+    /**
+     * Swaps in a new catalog and records the difference to the previous one in the
+     * change log. Readers keep using the previous index until the swap and never block.
+     */
+    synchronized void reloadCatalog(PetTable table) {
+        PetCatalogState previous = catalog.get();
+        PetCatalogIndex next = PetCatalogIndex.build(table);
+
+        List<Integer> upserted = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        boolean overflow = !diff(previous.table(), table, upserted, removed);
+
+        // Only changed pets are re-tokenized unless the difference was too large to track
+        PetSearchIndex searchIndex = overflow
+                ? PetSearchIndex.build(table)
+                : previous.searchIndex().update(table,
+                        upserted.stream().mapToInt(Integer::intValue).sorted().toArray());
+        catalog.set(new PetCatalogState(next, searchIndex));
+        if (overflow) {
+            changeLog.recordReset();
+        } else {
+            upserted.forEach(position -> changeLog.recordUpsert(table.id(position), table.pet(position)));
+            removed.forEach(changeLog::recordRemove);
+        }
+        log.info("Reloaded pet catalog: {} pets, {} changed, {} removed{}", next.size(),
+                overflow ? "many" : upserted.size(), overflow ? "many" : removed.size(),
+                overflow ? " (change log reset)" : "");
+    }
+
+    public Optional<Pet> updatePetStatus(Long petId, Pet.Status status) {
+        log.info("Updating status of pet {} to {}", petId, status);
+
+        if (petId == null || catalog.get().index().positionOf(petId) < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(updatePetStatuses(Map.of(petId, status)).get(0));
+    }
+
+    /**
+     * Applies all status changes as one new catalog version and returns the updated pets
+     * in id order. Fails without changing anything if any id is unknown.
+     */
+    public synchronized List<Pet> updatePetStatuses(Map<Long, Pet.Status> statuses) {
+        log.info("Updating status of {} pets", statuses.size());
+
+        PetCatalogState previous = catalog.get();
+        PetCatalogIndex index = previous.index();
+        TreeMap<Integer, Pet.Status> byPosition = new TreeMap<>();
+        statuses.forEach((petId, status) -> {
+            int position = petId != null ? index.positionOf(petId) : -1;
+            if (position < 0) {
+                throw new IllegalArgumentException("Unknown pet id " + petId);
+            }
+            if (status == null) {
+                throw new IllegalArgumentException("Missing status for pet " + petId);
+            }
+            byPosition.put(position, status);
+        });
+
+        int[] positions = byPosition.keySet().stream().mapToInt(Integer::intValue).toArray();
+        Pet.Status[] newStatuses = byPosition.values().toArray(new Pet.Status[0]);
+        PetTable table = StatusOverlayPetTable.of(previous.table(), positions, newStatuses);
+        catalog.set(new PetCatalogState(
+                index.withStatusChanges(table, positions),
+                previous.searchIndex().withTable(table)));
+
+        List<Pet> updated = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            Pet pet = table.pet(position);
+            updated.add(pet);
+            if (previous.table().status(position) != pet.getStatus()) {
+                changeLog.recordUpsert(pet.getId(), pet);
+            }
+        }
+        return updated;
+    }
 
     public List<Pet> findPetsByStatus(List<String> status) {
-        log.info("Finding pets with status: {}", status);
+        return findPetsByStatus(status, null);
+    }
+
+    public List<Pet> findPetsByStatus(List<String> status, String category) {
+        log.info("Finding pets with status: {}, category: {}", status, category);
+
+        return selectByStatus(status, category);
+    }
+
+    public PetPage findPetsPage(List<String> status, String category, String cursor, int limit) {
+        log.info("Finding page of pets with status: {}, category: {}, cursor: {}, limit: {}",
+                status, category, cursor, limit);
+
+        return page(selectByStatus(status, category), cursor, limit);
+    }
+
+    public PetPage getAllPetsPage(String cursor, int limit) {
+        log.info("Getting page of all pets: cursor: {}, limit: {}", cursor, limit);
+
+        return page(catalog.get().index().all(), cursor, limit);
+    }
+
+    public List<Pet> searchPets(String query, List<String> status, int limit) {
+        log.info("Searching pets: query={}, status={}, limit={}", query, status, limit);
 
-        return dataPreload.getPets().stream()
-                .filter(pet -> status.contains(pet.getStatus().getValue()))
-                .toList();
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        PetSearchIndex current = catalog.get().searchIndex();
+        PetTable table = current.table();
+        int[] matches = current.search(query);
+        int max = Math.min(limit, MAX_SEARCH_RESULTS);
+
+        IntList selected = new IntList();
+        for (int i = 0; i < matches.length && selected.size() < max; i++) {
+            Pet.Status petStatus = table.status(matches[i]);
+            if (status == null || status.isEmpty()
+                    || (petStatus != null && status.contains(petStatus.getValue()))) {
+                selected.add(matches[i]);
+            }
+        }
+        return PetSlice.of(table, selected.toArray());
     }
 
     public Optional<Pet> findPetById(Long petId) {
         log.info("Finding pet with id: {}", petId);
 
-        return dataPreload.getPets().stream()
-                .filter(pet -> pet.getId().equals(petId))
-                .findFirst();
+        return catalog.get().index().findById(petId);
+    }
+
+    public List<Pet> findPetsByIds(List<Long> petIds) {
+        log.info("Finding pets with ids: {}", petIds);
+
+        return catalog.get().index().findByIds(petIds);
     }
 
     public List<Pet> getAllPets() {
         log.info("Getting all pets");
-        return dataPreload.getPets();
+        return catalog.get().index().all();
     }
 
     public int getPetCount() {
-        return dataPreload.getPets().size();
+        return catalog.get().index().size();
+    }
+
+    public CatalogChangeLog<Pet> getChangeLog() {
+        return changeLog;
+    }
+
+    public SseEmitter streamChanges(List<String> status, String lastEventId, String epoch, Long since) {
+        log.info("Opening pet change stream: status={}, epoch={}, since={}, lastEventId={}",
+                status, epoch, since, lastEventId);
+
+        return changeStream.subscribe(lastEventId, epoch, since, statusFilter(status));
+    }
+
+    public CatalogDelta<Pet> getChangesSince(List<String> status, String epoch, Long since) {
+        log.info("Computing pet changes: status={}, epoch={}, since={}", status, epoch, since);
+
+        Predicate<Pet> filter = statusFilter(status);
+        Optional<List<CatalogChange<Pet>>> changes = changeLog.getEpoch().equals(epoch) && since != null
+                ? changeLog.changesSince(since)
+                : Optional.empty();
+
+        if (changes.isEmpty()) {
+            // Read the version before the items; clients re-apply any later change idempotently
+            long version = changeLog.getVersion();
+            return CatalogDelta.<Pet>builder()
+                    .epoch(changeLog.getEpoch())
+                    .version(version)
+                    .resyncRequired(true)
+                    .upserts(catalog.get().index().all().stream().filter(filter).toList())
+                    .build();
+        }
+
+        // Several changes to the same pet collapse into its latest state
+        Map<Long, CatalogChange<Pet>> latest = new LinkedHashMap<>();
+        changes.get().forEach(change -> latest.put(change.getId(), change));
+
+        List<Pet> upserts = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        for (CatalogChange<Pet> change : latest.values()) {
+            if (change.getType() == CatalogChange.Type.UPSERT && filter.test(change.getItem())) {
+                upserts.add(change.getItem());
+            } else {
+                removed.add(change.getId());
+            }
+        }
+
+        return CatalogDelta.<Pet>builder()
+                .epoch(changeLog.getEpoch())
+                .version(since + changes.get().size())
+                .upserts(upserts)
+                .removed(removed)
+                .build();
+    }
+
+    private PetPage page(PetSlice pets, String cursor, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        PetSlice window = pets.after(PetCursor.decode(cursor), (int) Math.min(Integer.MAX_VALUE, limit + 1L));
+        if (window.size() <= limit) {
+            return PetPage.builder().items(window).build();
+        }
+        return PetPage.builder()
+                .items(window.subList(0, limit))
+                .nextCursor(PetCursor.encode(window.idAt(limit - 1)))
+                .build();
+    }
+
+    private PetSlice selectByStatus(List<String> status, String category) {
+        EnumSet<Pet.Status> statuses = EnumSet.noneOf(Pet.Status.class);
+        for (Pet.Status candidate : Pet.Status.values()) {
+            if (status.contains(candidate.getValue())) {
+                statuses.add(candidate);
+            }
+        }
+        return catalog.get().index().findByStatus(statuses, category);
+    }
+
+    private PetTable loadCatalog() {
+        if (!StringUtils.hasText(catalogFile)) {
+            if (!"columnar".equalsIgnoreCase(catalogStorage)) {
+                return ListPetTable.of(dataPreload.getPets());
+            }
+            ColumnarPetTable table = ColumnarPetTable.of(dataPreload.getPets());
+            // Drop the bound object graphs so only the columns stay on the heap
+            dataPreload.setPets(new ArrayList<>());
+            log.info("Using columnar pet catalog storage");
+            return table;
+        }
+
+        Path path = Path.of(catalogFile);
+        try {
+            if (Files.notExists(path)) {
+                log.info("Pet catalog file {} does not exist, exporting {} pets from application.yml",
+                        path, dataPreload.getPets().size());
+                MappedPetTable.write(dataPreload.getPets(), path);
+            }
+            log.info("Mapping pet catalog file {}", path);
+            MappedPetTable table = MappedPetTable.open(path);
+            // The file is the catalog from now on; the pets bound from application.yml are not read again
+            dataPreload.setPets(new ArrayList<>());
+            return table;
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to load pet catalog file " + path, e);
+        }
+    }
+
+    /**
+     * Merge-walks two id-ordered tables. Returns false, leaving the lists incomplete, once
+     * the difference exceeds what the change log can retain.
+     */
+    private static boolean diff(PetTable before, PetTable after, List<Integer> upserted, List<Long> removed) {
+        int i = 0;
+        int j = 0;
+        while (i < before.size() || j < after.size()) {
+            if (upserted.size() + removed.size() > CHANGE_LOG_CAPACITY) {
+                return false;
+            }
+            if (j == after.size() || (i < before.size() && before.id(i) < after.id(j))) {
+                removed.add(before.id(i++));
+            } else if (i == before.size() || after.id(j) < before.id(i)) {
+                upserted.add(j++);
+            } else {
+                if (!after.sameRecord(j, before, i)) {
+                    upserted.add(j);
+                }
+                i++;
+                j++;
+            }
+        }
+        return upserted.size() + removed.size() <= CHANGE_LOG_CAPACITY;
+    }
+
+    private Predicate<Pet> statusFilter(List<String> status) {
+        return pet -> status == null || status.isEmpty()
+                || (pet.getStatus() != null && status.contains(pet.getStatus().getValue()));
     }
-}
\ No newline at end of file
+}
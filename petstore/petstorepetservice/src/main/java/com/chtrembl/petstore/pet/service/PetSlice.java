@@ -0,0 +1,85 @@
+package com.chtrembl.petstore.pet.service;
+
+import com.chtrembl.petstore.pet.model.Pet;
+
+import java.util.AbstractList;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Id-ordered list view over selected positions of a {@link PetTable}. Elements are
+ * fetched from the table on access, so a slice of a mapped catalog never holds
+ * decoded pets.
+ */
+final class PetSlice extends AbstractList<Pet> implements RandomAccess {
+
+    private final PetTable table;
+    private final int[] positions;
+    private final int from;
+    private final int to;
+
+    /**
+     * @param positions ascending table positions, or null for every position of the table
+     */
+    PetSlice(PetTable table, int[] positions, int from, int to) {
+        this.table = table;
+        this.positions = positions;
+        this.from = from;
+        this.to = to;
+    }
+
+    static PetSlice all(PetTable table) {
+        return new PetSlice(table, null, 0, table.size());
+    }
+
+    static PetSlice of(PetTable table, int[] positions) {
+        return new PetSlice(table, positions, 0, positions.length);
+    }
+
+    @Override
+    public Pet get(int index) {
+        return table.pet(position(index));
+    }
+
+    @Override
+    public int size() {
+        return to - from;
+    }
+
+    @Override
+    public PetSlice subList(int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, size());
+        return new PetSlice(table, positions, from + fromIndex, from + toIndex);
+    }
+
+    long idAt(int index) {
+        return table.id(position(index));
+    }
+
+    /**
+     * Returns up to {@code count} elements whose id is greater than {@code afterId},
+     * located by binary search on the id column.
+     */
+    PetSlice after(Long afterId, int count) {
+        int start = 0;
+        if (afterId != null) {
+            int low = 0;
+            int high = size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (idAt(mid) <= afterId) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            start = low;
+        }
+        return subList(start, (int) Math.min(size(), (long) start + count));
+    }
+
+    private int position(int index) {
+        Objects.checkIndex(index, size());
+        return positions == null ? from + index : positions[from + index];
+    }
+}
@@ -0,0 +1,35 @@
+package com.chtrembl.petstore.pet.service;
+
+import com.chtrembl.petstore.pet.model.Pet;
+
+import java.util.Objects;
+
+/**
+ * Read-only, id-ordered column view of a pet catalog.
+ * <p>
+ * The index only touches the id, status and category columns, so implementations
+ * backed by an encoded file can leave {@link #pet(int)} decoding until a pet is
+ * actually returned. Implementations must be safe for concurrent readers.
+ */
+interface PetTable {
+
+    int size();
+
+    /**
+     * Id of the pet at {@code position}; ids are strictly increasing with position.
+     */
+    long id(int position);
+
+    Pet.Status status(int position);
+
+    String categoryName(int position);
+
+    Pet pet(int position);
+
+    /**
+     * Whether the pet at {@code position} is identical to the one at {@code otherPosition} in {@code other}.
+     */
+    default boolean sameRecord(int position, PetTable other, int otherPosition) {
+        return Objects.equals(pet(position), other.pet(otherPosition));
+    }
+}
@@ -0,0 +1,78 @@
+package com.chtrembl.petstore.pet.service;
+
+import com.chtrembl.petstore.pet.model.Pet;
+
+/**
+ * {@link PetTable} that shares every column of a base table except the status column,
+ * which it holds in full as ordinals. A {@link StatusOverlayPetTable} that has collected
+ * too many overrides is folded into one, so neither a status write nor a status read
+ * keeps getting dearer until the next reload. Folding again replaces the column over
+ * the same base rather than stacking.
+ */
+final class StatusColumnPetTable implements PetTable {
+
+    private static final Pet.Status[] STATUSES = Pet.Status.values();
+
+    private final PetTable base;
+    private final byte[] statuses;
+
+    private StatusColumnPetTable(PetTable base, byte[] statuses) {
+        this.base = base;
+        this.statuses = statuses;
+    }
+
+    /**
+     * Returns {@code table} with the pets at {@code positions} set to the corresponding
+     * {@code overrides}.
+     */
+    static StatusColumnPetTable fold(PetTable table, int[] positions, Pet.Status[] overrides) {
+        PetTable base;
+        byte[] statuses;
+        if (table instanceof StatusColumnPetTable column) {
+            base = column.base;
+            statuses = column.statuses.clone();
+        } else {
+            base = table;
+            statuses = new byte[table.size()];
+            for (int i = 0; i < statuses.length; i++) {
+                statuses[i] = ordinal(table.status(i));
+            }
+        }
+        for (int i = 0; i < positions.length; i++) {
+            statuses[positions[i]] = ordinal(overrides[i]);
+        }
+        return new StatusColumnPetTable(base, statuses);
+    }
+
+    @Override
+    public int size() {
+        return base.size();
+    }
+
+    @Override
+    public long id(int position) {
+        return base.id(position);
+    }
+
+    @Override
+    public Pet.Status status(int position) {
+        byte ordinal = statuses[position];
+        return ordinal < 0 ? null : STATUSES[ordinal];
+    }
+
+    @Override
+    public String categoryName(int position) {
+        return base.categoryName(position);
+    }
+
+    @Override
+    public Pet pet(int position) {
+        Pet pet = base.pet(position);
+        Pet.Status status = status(position);
+        return pet.getStatus() == status ? pet : StatusOverlayPetTable.withStatus(pet, status);
+    }
+
+    private static byte ordinal(Pet.Status status) {
+        return (byte) (status != null ? status.ordinal() : -1);
+    }
+}
@@ -0,0 +1,106 @@
+package com.chtrembl.petstore.pet.service;
+
+import com.chtrembl.petstore.pet.model.Pet;
+
+import java.util.Arrays;
+
+/**
+ * {@link PetTable} that shares every column of a base table except the statuses of a
+ * few positions, so a status change costs a copy of the overrides rather than of the
+ * catalog. Overlays never stack: patching an overlay merges into a single one over
+ * the original base. Once the overrides pass {@value #MIN_FOLD_OVERRIDES} and 1/64 of
+ * the catalog they are folded into a {@link StatusColumnPetTable}, which the next
+ * overlay starts from.
+ */
+final class StatusOverlayPetTable implements PetTable {
+
+    private static final int MIN_FOLD_OVERRIDES = 1024;
+
+    private final PetTable base;
+    private final int[] positions;
+    private final Pet.Status[] statuses;
+
+    private StatusOverlayPetTable(PetTable base, int[] positions, Pet.Status[] statuses) {
+        this.base = base;
+        this.positions = positions;
+        this.statuses = statuses;
+    }
+
+    /**
+     * Returns {@code table} with the pets at {@code changed} (ascending positions) set to
+     * the corresponding {@code newStatuses}.
+     */
+    static PetTable of(PetTable table, int[] changed, Pet.Status[] newStatuses) {
+        if (!(table instanceof StatusOverlayPetTable overlay)) {
+            return overlayOrFold(table, changed.clone(), newStatuses.clone());
+        }
+
+        int[] positions = new int[overlay.positions.length + changed.length];
+        Pet.Status[] statuses = new Pet.Status[positions.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < overlay.positions.length || j < changed.length) {
+            if (j == changed.length || (i < overlay.positions.length && overlay.positions[i] < changed[j])) {
+                positions[n] = overlay.positions[i];
+                statuses[n++] = overlay.statuses[i++];
+            } else {
+                if (i < overlay.positions.length && overlay.positions[i] == changed[j]) {
+                    i++;
+                }
+                positions[n] = changed[j];
+                statuses[n++] = newStatuses[j++];
+            }
+        }
+        return overlayOrFold(overlay.base, Arrays.copyOf(positions, n), Arrays.copyOf(statuses, n));
+    }
+
+    private static PetTable overlayOrFold(PetTable base, int[] positions, Pet.Status[] statuses) {
+        if (positions.length > Math.max(MIN_FOLD_OVERRIDES, base.size() >> 6)) {
+            return StatusColumnPetTable.fold(base, positions, statuses);
+        }
+        return new StatusOverlayPetTable(base, positions, statuses);
+    }
+
+    /**
+     * Copy of {@code pet} with {@code status}; base pets may be shared instances.
+     */
+    static Pet withStatus(Pet pet, Pet.Status status) {
+        return Pet.builder()
+                .id(pet.getId())
+                .category(pet.getCategory())
+                .name(pet.getName())
+                .photoURL(pet.getPhotoURL())
+                .tags(pet.getTags())
+                .status(status)
+                .build();
+    }
+
+    @Override
+    public int size() {
+        return base.size();
+    }
+
+    @Override
+    public long id(int position) {
+        return base.id(position);
+    }
+
+    @Override
+    public Pet.Status status(int position) {
+        int override = Arrays.binarySearch(positions, position);
+        return override >= 0 ? statuses[override] : base.status(position);
+    }
+
+    @Override
+    public String categoryName(int position) {
+        return base.categoryName(position);
+    }
+
+    @Override
+    public Pet pet(int position) {
+        Pet pet = base.pet(position);
+        int override = Arrays.binarySearch(positions, position);
+        return override < 0 ? pet : withStatus(pet, statuses[override]);
+    }
+}
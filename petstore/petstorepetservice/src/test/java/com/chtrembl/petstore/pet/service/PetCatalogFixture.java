@@ -0,0 +1,71 @@
+package com.chtrembl.petstore.pet.service;
+
+import com.chtrembl.petstore.pet.model.Category;
+import com.chtrembl.petstore.pet.model.DataPreload;
+import com.chtrembl.petstore.pet.model.Pet;
+import com.chtrembl.petstore.pet.model.Tag;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic pet catalogs for the benchmarks in this package, which sit next to the
+ * services because the catalog storage types are package-private.
+ * <p>
+ * Pets have ascending ids, one of the three store categories, a breed-like name drawn
+ * from a few hundred, one to three of twenty tags and a status skewed towards
+ * {@code available}, so dictionaries and status filters see realistic cardinalities.
+ * Every pet gets its own category and tag objects, as binding them from YAML does.
+ */
+final class PetCatalogFixture {
+
+    static final List<String> AVAILABLE = List.of("available");
+
+    private static final String[] CATEGORIES = {"Dog", "Cat", "Fish"};
+    private static final int BREEDS = 300;
+    private static final int TAGS = 20;
+
+    private PetCatalogFixture() {
+    }
+
+    static List<Pet> pets(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Pet> pets = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            int categoryIndex = random.nextInt(CATEGORIES.length);
+            Category category = Category.builder()
+                    .id((long) categoryIndex + 1)
+                    .name(CATEGORIES[categoryIndex])
+                    .build();
+            int breed = random.nextInt(BREEDS);
+            List<Tag> tags = new ArrayList<>(3);
+            for (int t = 0, tagCount = 1 + random.nextInt(3); t < tagCount; t++) {
+                int tag = random.nextInt(TAGS);
+                tags.add(Tag.builder().id((long) tag).name("tag-" + tag).build());
+            }
+            int roll = random.nextInt(10);
+            pets.add(Pet.builder()
+                    .id((long) id)
+                    .category(category)
+                    .name(category.getName() + " breed " + breed)
+                    .photoURL("https://example.com/pets/" + breed + ".jpg")
+                    .tags(tags)
+                    .status(roll < 7 ? Pet.Status.AVAILABLE : roll < 9 ? Pet.Status.PENDING : Pet.Status.SOLD)
+                    .build());
+        }
+        return pets;
+    }
+
+    /**
+     * A started {@link PetService} over {@code count} pets held as objects, as when
+     * neither a catalog file nor columnar storage is configured.
+     */
+    static PetService petService(int count, long seed) {
+        DataPreload dataPreload = new DataPreload();
+        dataPreload.setPets(pets(count, seed));
+        PetService petService = new PetService(dataPreload);
+        petService.initCatalog();
+        return petService;
+    }
+}
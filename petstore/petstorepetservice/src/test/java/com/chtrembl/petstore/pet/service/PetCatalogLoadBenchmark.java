@@ -0,0 +1,91 @@
+package com.chtrembl.petstore.pet.service;
+
+import com.chtrembl.petstore.pet.model.Pet;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading the pet catalog and indexing it, from pets bound as objects (what
+ * {@code application.yml} yields, binding itself not included) and from a memory-mapped
+ * catalog file.
+ * <p>
+ * Each trial also logs the heap the loaded catalog retains, measured after full GCs,
+ * since the mapped file's point is that the catalog stays off the heap. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=PetCatalogLoad}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Slf4j(topic = "benchmark")
+public class PetCatalogLoadBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int pets;
+
+    @Param({"objects", "mapped"})
+    private String storage;
+
+    private Path file;
+    private List<Pet> catalog;
+    private PetCatalogIndex loaded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if ("mapped".equals(storage)) {
+            file = Files.createTempFile("petstore-catalog-benchmark", ".bin");
+            MappedPetTable.write(PetCatalogFixture.pets(pets, 42), file);
+        }
+
+        long before = usedHeap();
+        if ("objects".equals(storage)) {
+            catalog = PetCatalogFixture.pets(pets, 42);
+        }
+        loaded = load();
+        long retained = usedHeap() - before;
+        log.info("{} pets ({}) retain {} KB of heap", loaded.size(), storage, retained / 1024);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        loaded = null;
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Benchmark
+    public PetCatalogIndex load() throws IOException {
+        return PetCatalogIndex.build("mapped".equals(storage)
+                ? MappedPetTable.open(file)
+                : ListPetTable.of(catalog));
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,78 @@
+package com.chtrembl.petstore.pet.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A {@code findByStatus} response body for one category: served from the
+ * {@link PetResponseCache}, and built per request as before the cache existed, with and
+ * without gzip. The catalog does not change during a run, so every cached call is a hit
+ * in the current generation, and {@code cachedGzip} compresses only on its first call. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=PetResponseCache}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PetResponseCacheBenchmark {
+
+    private static final String CATEGORY = "Dog";
+    private static final String KEY = "findByStatus?status=available&category=" + CATEGORY;
+
+    @Param({"1000", "10000"})
+    private int pets;
+
+    private PetService petService;
+    private PetResponseCache responseCache;
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        petService = PetCatalogFixture.petService(pets, 42);
+        objectMapper = new ObjectMapper();
+        responseCache = new PetResponseCache(petService, objectMapper, new PetProjectionWriter(objectMapper));
+    }
+
+    @Benchmark
+    public PetResponseCache.CachedResponse cached() {
+        return responseCache.get(KEY, () -> petService.findPetsByStatus(PetCatalogFixture.AVAILABLE, CATEGORY));
+    }
+
+    @Benchmark
+    public byte[] cachedGzip() {
+        return cached().getGzip();
+    }
+
+    @Benchmark
+    public byte[] serialized() throws IOException {
+        return objectMapper.writeValueAsBytes(petService.findPetsByStatus(PetCatalogFixture.AVAILABLE, CATEGORY));
+    }
+
+    @Benchmark
+    public byte[] serializedGzip() throws IOException {
+        byte[] json = serialized();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,109 @@
+package com.chtrembl.petstore.pet.service;
+
+import com.chtrembl.petstore.pet.model.Pet;
+import com.chtrembl.petstore.pet.model.Tag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Name and tag search over the pet catalog: {@link PetSearchIndex} queries with every
+ * word in the dictionary, with a misspelled word that goes through trigram expansion,
+ * and repeated (served from the index's result cache), against a linear scan of the
+ * table matching the same words, which is what a search without the index costs.
+ * Queries cycle through more distinct strings than the result cache holds, so only
+ * {@code cached} hits it. {@code build} is the full index build done at startup and on
+ * a reload that overflows the change log. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=PetSearch}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class PetSearchBenchmark {
+
+    private static final String[] CATEGORIES = {"dog", "cat", "fish"};
+    private static final String[] TYPOS = {"dogg", "catt", "fissh"};
+    private static final int QUERIES = 1024;
+
+    @Param({"100000", "1000000"})
+    private int pets;
+
+    private PetTable table;
+    private PetSearchIndex index;
+    private String[] exactQueries;
+    private String[] typoQueries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        table = ListPetTable.of(PetCatalogFixture.pets(pets, 42));
+        index = PetSearchIndex.build(table);
+
+        // Category and breed number, e.g. "cat 123"; the fixture names pets "<Category> breed <n>"
+        exactQueries = new String[QUERIES];
+        typoQueries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            exactQueries[i] = CATEGORIES[i % CATEGORIES.length] + " " + i % 300;
+            typoQueries[i] = TYPOS[i % TYPOS.length] + " " + i % 300;
+        }
+    }
+
+    @Benchmark
+    public int indexed() {
+        return index.search(exactQueries[next++ & (QUERIES - 1)]).length;
+    }
+
+    @Benchmark
+    public int indexedTypo() {
+        return index.search(typoQueries[next++ & (QUERIES - 1)]).length;
+    }
+
+    @Benchmark
+    public int cached() {
+        return index.search(exactQueries[0]).length;
+    }
+
+    @Benchmark
+    public int scan() {
+        List<String> tokens = PetSearchIndex.tokenize(exactQueries[next++ & (QUERIES - 1)]);
+        int matches = 0;
+        for (int i = 0, size = table.size(); i < size; i++) {
+            if (containsAll(table.pet(i), tokens)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public PetSearchIndex build() {
+        return PetSearchIndex.build(table);
+    }
+
+    private static boolean containsAll(Pet pet, List<String> tokens) {
+        StringBuilder text = new StringBuilder(pet.getName());
+        if (pet.getTags() != null) {
+            for (Tag tag : pet.getTags()) {
+                text.append(' ').append(tag.getName());
+            }
+        }
+        List<String> words = PetSearchIndex.tokenize(text.toString());
+        return words.containsAll(tokens);
+    }
+}
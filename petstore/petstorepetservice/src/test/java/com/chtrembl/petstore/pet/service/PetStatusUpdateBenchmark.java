@@ -0,0 +1,89 @@
+package com.chtrembl.petstore.pet.service;
+
+import com.chtrembl.petstore.pet.model.Pet;
+import com.chtrembl.petstore.pet.model.PetPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Catalog reads through {@link PetService} while one thread applies status updates at
+ * a fixed rate, against the same reads with no writer. Readers look up a pet by id and
+ * fetch the first page of a category; with copy-on-write states they should not slow
+ * down as the write rate grows. The writer's own score includes the pause that sets its
+ * rate; {@code readOnly} ignores {@code writesPerSecond}. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=PetStatusUpdate}.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PetStatusUpdateBenchmark {
+
+    private static final Pet.Status[] STATUSES = Pet.Status.values();
+
+    @Param({"100000"})
+    private int pets;
+
+    @Param({"100", "1000"})
+    private int writesPerSecond;
+
+    private PetService petService;
+    private long writeIntervalNanos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        petService = PetCatalogFixture.petService(pets, 42);
+        writeIntervalNanos = TimeUnit.SECONDS.toNanos(1) / writesPerSecond;
+    }
+
+    @Benchmark
+    @Group("underWrites")
+    @GroupThreads(3)
+    public Object read() {
+        return readOnce();
+    }
+
+    @Benchmark
+    @Group("underWrites")
+    @GroupThreads(1)
+    public Optional<Pet> write() {
+        LockSupport.parkNanos(writeIntervalNanos);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return petService.updatePetStatus(1L + random.nextInt(pets), STATUSES[random.nextInt(STATUSES.length)]);
+    }
+
+    @Benchmark
+    @Group("readOnly")
+    @GroupThreads(3)
+    public Object readWithoutWrites() {
+        return readOnce();
+    }
+
+    private Object readOnce() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextBoolean()) {
+            return petService.findPetById(1L + random.nextInt(pets)).orElseThrow();
+        }
+        PetPage page = petService.findPetsPage(PetCatalogFixture.AVAILABLE, "Dog", null, 20);
+        return page.getItems().get(0);
+    }
+}
@@ -0,0 +1,110 @@
+package com.chtrembl.petstore.pet.service;
+
+import com.chtrembl.petstore.pet.model.Pet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads against the three pet catalog storages at one million pets: a lookup by id, the
+ * first page of a category and status query (each pet materialized, as when serialized),
+ * and a scan of the whole status column. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=PetTableStorage}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class PetTableStorageBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final Set<Pet.Status> AVAILABLE = EnumSet.of(Pet.Status.AVAILABLE);
+
+    @Param({"1000000"})
+    private int pets;
+
+    @Param({"objects", "columnar", "mapped"})
+    private String storage;
+
+    private Path file;
+    private PetCatalogIndex index;
+    private long[] ids;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<Pet> catalog = PetCatalogFixture.pets(pets, 42);
+        PetTable table = switch (storage) {
+            case "columnar" -> ColumnarPetTable.of(catalog);
+            case "mapped" -> {
+                file = Files.createTempFile("petstore-catalog-benchmark", ".bin");
+                MappedPetTable.write(catalog, file);
+                yield MappedPetTable.open(file);
+            }
+            default -> ListPetTable.of(catalog);
+        };
+        index = PetCatalogIndex.build(table);
+
+        SplittableRandom random = new SplittableRandom(7);
+        ids = new long[4096];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 1 + random.nextInt(pets);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        index = null;
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Benchmark
+    public Pet findById() {
+        long id = ids[next++ & (ids.length - 1)];
+        return index.findById(id).orElseThrow();
+    }
+
+    @Benchmark
+    public int firstPage() {
+        int length = 0;
+        for (Pet pet : index.findByStatus(AVAILABLE, "Dog").after(null, PAGE_SIZE)) {
+            length += pet.getName().length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int scanStatus() {
+        PetTable table = index.table();
+        int sold = 0;
+        for (int i = 0, size = table.size(); i < size; i++) {
+            if (table.status(i) == Pet.Status.SOLD) {
+                sold++;
+            }
+        }
+        return sold;
+    }
+}
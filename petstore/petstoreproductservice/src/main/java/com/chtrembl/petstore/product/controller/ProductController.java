@@ -1,6 +1,9 @@
 package com.chtrembl.petstore.product.controller;
 
+import com.chtrembl.petstore.product.model.PriceRequest;
+import com.chtrembl.petstore.product.model.PricedCart;
 import com.chtrembl.petstore.product.model.Product;
+import com.chtrembl.petstore.product.service.PricingService;
 import com.chtrembl.petstore.product.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -9,15 +12,21 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -29,6 +38,7 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final PricingService pricingService;
 
     @Operation(
             summary = "Find products by status",
@@ -59,6 +69,32 @@ public class ProductController {
         }
     }
 
+    @Operation(
+            summary = "Stream product catalog changes",
+            description = "Server-Sent Events stream of versioned product changes. Sends a snapshot unless the "
+                    + "epoch/since position (or Last-Event-ID) can be resumed from the change log"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Change stream opened",
+                    content = @Content(mediaType = "text/event-stream"))
+    })
+    @GetMapping(value = "/product/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProductChanges(
+            @Parameter(description = "Only stream products with these status values; others are sent as removals",
+                    example = "available")
+            @RequestParam(value = "status", required = false) List<String> status,
+            @Parameter(description = "Change log version the client already has", example = "0")
+            @RequestParam(value = "since", required = false) Long since,
+            @Parameter(description = "Change log epoch the since version belongs to")
+            @RequestParam(value = "epoch", required = false) String epoch,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+
+        log.info("Received GET request to /petstoreproductservice/v2/product/changes/stream with status: {}, since: {}",
+                status, since);
+
+        return productService.streamChanges(status, lastEventId, epoch, since);
+    }
+
     @Operation(
             summary = "Find product by ID",
             description = "Returns a single product by its ID"
@@ -110,4 +146,37 @@ public class ProductController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    @Operation(
+            summary = "Price a cart",
+            description = "Prices every line of a cart in one call, applying the best matching promotion per line"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cart priced successfully",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = PricedCart.class))),
+            @ApiResponse(responseCode = "400", description = "Unknown product or invalid quantity", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    @PostMapping(value = "/product/price", produces = MediaType.APPLICATION_JSON_VALUE,
+            consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<PricedCart> priceCart(
+            @Parameter(description = "Cart lines to price", required = true)
+            @Valid @RequestBody PriceRequest priceRequest) {
+
+        log.info("Received POST request to /petstoreproductservice/v2/product/price with {} lines",
+                priceRequest.getLines().size());
+
+        try {
+            PricedCart pricedCart = pricingService.priceCart(priceRequest.getLines());
+            log.info("Successfully priced {} lines, total: {}", pricedCart.getLines().size(), pricedCart.getTotal());
+            return ResponseEntity.ok(pricedCart);
+        } catch (IllegalArgumentException e) {
+            log.warn("Unable to price cart: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error occurred while pricing cart: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 }
\ No newline at end of file
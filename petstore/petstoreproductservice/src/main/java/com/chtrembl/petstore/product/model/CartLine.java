@@ -0,0 +1,15 @@
+package com.chtrembl.petstore.product.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CartLine {
+    private Long productId;
+    private Integer quantity;
+}
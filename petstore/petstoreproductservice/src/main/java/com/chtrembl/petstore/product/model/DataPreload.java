@@ -14,4 +14,5 @@ import java.util.List;
 @Data
 public class DataPreload {
     private List<Product> products = new ArrayList<>();
+    private List<PromotionRule> promotions = new ArrayList<>();
 }
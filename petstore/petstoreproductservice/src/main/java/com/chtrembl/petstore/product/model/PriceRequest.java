@@ -0,0 +1,22 @@
+package com.chtrembl.petstore.product.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PriceRequest {
+    @Valid
+    @NotNull
+    @Builder.Default
+    private List<@NotNull CartLine> lines = new ArrayList<>();
+}
@@ -0,0 +1,22 @@
+package com.chtrembl.petstore.product.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PricedCart {
+    @Builder.Default
+    private List<PricedLine> lines = new ArrayList<>();
+    private BigDecimal subtotal;
+    private BigDecimal discount;
+    private BigDecimal total;
+}
@@ -0,0 +1,22 @@
+package com.chtrembl.petstore.product.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PricedLine {
+    private Long productId;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+    private BigDecimal percentOff;
+    private BigDecimal discount;
+    private BigDecimal lineTotal;
+    private Long promotionId;
+}
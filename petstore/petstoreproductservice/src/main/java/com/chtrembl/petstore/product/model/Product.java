@@ -10,6 +10,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -30,6 +31,8 @@ public class Product {
     @NotNull
     private String photoURL;
 
+    private BigDecimal price;
+
     @Valid
     @Builder.Default
     private List<Tag> tags = new ArrayList<>();
@@ -0,0 +1,68 @@
+package com.chtrembl.petstore.product.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Promotion rule loaded from configuration. A missing category means the rule
+ * applies to every category.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PromotionRule {
+    private Long id;
+
+    private Type type;
+
+    private String category;
+
+    @Builder.Default
+    private List<String> tags = new ArrayList<>();
+
+    @Builder.Default
+    private Integer minQuantity = 1;
+
+    private BigDecimal percentOff;
+
+    public enum Type {
+        CATEGORY("category"),
+        TAG_BUNDLE("tag-bundle"),
+        QUANTITY_TIER("quantity-tier");
+
+        private final String value;
+
+        Type(String value) {
+            this.value = value;
+        }
+
+        @JsonCreator
+        public static Type fromValue(String value) {
+            for (Type b : Type.values()) {
+                if (b.value.equals(value)) {
+                    return b;
+                }
+            }
+            throw new IllegalArgumentException("Unexpected value '" + value + "'");
+        }
+
+        @JsonValue
+        public String getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(value);
+        }
+    }
+}
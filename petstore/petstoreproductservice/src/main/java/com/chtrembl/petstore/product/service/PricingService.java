@@ -0,0 +1,37 @@
+package com.chtrembl.petstore.product.service;
+
+import com.chtrembl.petstore.product.model.CartLine;
+import com.chtrembl.petstore.product.model.DataPreload;
+import com.chtrembl.petstore.product.model.PricedCart;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PricingService {
+
+    private final DataPreload dataPreload;
+
+    private volatile PromotionDecisionTable decisionTable;
+
+    @PostConstruct
+    public void compileRules() {
+        long startTime = System.nanoTime();
+
+        decisionTable = PromotionDecisionTable.compile(dataPreload.getProducts(), dataPreload.getPromotions());
+
+        log.info("Compiled {} of {} promotion rules against {} products in {} ms",
+                decisionTable.getRuleCount(), dataPreload.getPromotions().size(),
+                decisionTable.getProductCount(), (System.nanoTime() - startTime) / 1_000_000);
+    }
+
+    public PricedCart priceCart(List<CartLine> lines) {
+        log.debug("Pricing cart with {} lines", lines.size());
+        return decisionTable.price(lines);
+    }
+}
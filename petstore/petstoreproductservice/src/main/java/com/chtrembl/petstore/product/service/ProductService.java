@@ -1,14 +1,23 @@
 package com.chtrembl.petstore.product.service;
 
+import com.chtrembl.petstore.catalog.service.CatalogChangeLog;
+import com.chtrembl.petstore.catalog.service.CatalogChangeStream;
 import com.chtrembl.petstore.product.model.DataPreload;
 import com.chtrembl.petstore.product.model.Product;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * The product catalog is a snapshot bound from configuration and has no update path,
+ * so its change log stays at version 0: change stream subscribers get the catalog as a
+ * snapshot, and a new epoch after a restart tells them to take a fresh one.
+ */
 @Service
 @Slf4j
 @RequiredArgsConstructor
@@ -16,6 +25,16 @@ public class ProductService {
 
     private final DataPreload dataPreload;
 
+    private CatalogChangeStream<Product> changeStream;
+
+    @PostConstruct
+    public void initChangeStream() {
+        // Nothing is ever recorded; the log only provides the epoch and version 0
+        CatalogChangeLog<Product> changeLog = new CatalogChangeLog<>(1);
+        changeStream = new CatalogChangeStream<>("product", changeLog, dataPreload::getProducts);
+        log.info("Product change log started with epoch {}", changeLog.getEpoch());
+    }
+
     public List<Product> findProductsByStatus(List<String> status) {
         log.info("Finding products with status: {}", status);
 
@@ -40,4 +59,13 @@ public class ProductService {
     public int getProductCount() {
         return dataPreload.getProducts().size();
     }
-}
\ No newline at end of file
+
+    public SseEmitter streamChanges(List<String> status, String lastEventId, String epoch, Long since) {
+        log.info("Opening product change stream: status={}, epoch={}, since={}, lastEventId={}",
+                status, epoch, since, lastEventId);
+
+        return changeStream.subscribe(lastEventId, epoch, since,
+                product -> status == null || status.isEmpty()
+                        || (product.getStatus() != null && status.contains(product.getStatus().getValue())));
+    }
+}
@@ -0,0 +1,361 @@
+package com.chtrembl.petstore.product.service;
+
+import com.chtrembl.petstore.product.model.CartLine;
+import com.chtrembl.petstore.product.model.PricedCart;
+import com.chtrembl.petstore.product.model.PricedLine;
+import com.chtrembl.petstore.product.model.Product;
+import com.chtrembl.petstore.product.model.PromotionRule;
+import com.chtrembl.petstore.product.model.Tag;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Promotion rules compiled against the product catalog.
+ * <p>
+ * Category and tag-bundle rules do not depend on the cart, so the best of them is
+ * resolved once per product at compile time. Quantity tiers are kept per category
+ * as ascending thresholds with a running maximum discount, so pricing a line is a
+ * slot lookup plus a binary search. Only the single best promotion applies to a line.
+ * Tag sets are bitmasks over the catalog's distinct tags, as many 64-bit words as the
+ * catalog needs. Amounts are held in cents and discounts in basis points.
+ */
+final class PromotionDecisionTable {
+
+    private static final int DENSE_ID_LIMIT = 1 << 20;
+    private static final int NO_SLOT = -1;
+    private static final long NO_PROMOTION = 0L;
+
+    private final int[] denseSlots;
+    private final Map<Long, Integer> sparseSlots;
+    private final long[] unitCents;
+    private final int[] categoryOf;
+    private final int[] staticBasisPoints;
+    private final long[] staticPromotionIds;
+
+    private final int[][] tierThresholds;
+    private final int[][] tierBasisPoints;
+    private final long[][] tierPromotionIds;
+
+    private final int ruleCount;
+
+    private PromotionDecisionTable(int[] denseSlots, Map<Long, Integer> sparseSlots, long[] unitCents,
+                                   int[] categoryOf, int[] staticBasisPoints, long[] staticPromotionIds,
+                                   int[][] tierThresholds, int[][] tierBasisPoints, long[][] tierPromotionIds,
+                                   int ruleCount) {
+        this.denseSlots = denseSlots;
+        this.sparseSlots = sparseSlots;
+        this.unitCents = unitCents;
+        this.categoryOf = categoryOf;
+        this.staticBasisPoints = staticBasisPoints;
+        this.staticPromotionIds = staticPromotionIds;
+        this.tierThresholds = tierThresholds;
+        this.tierBasisPoints = tierBasisPoints;
+        this.tierPromotionIds = tierPromotionIds;
+        this.ruleCount = ruleCount;
+    }
+
+    static PromotionDecisionTable compile(List<Product> products, List<PromotionRule> rules) {
+        Map<String, Integer> categories = new HashMap<>();
+        Map<String, Integer> tagBits = new HashMap<>();
+
+        int productCount = products.size();
+        long[] unitCents = new long[productCount];
+        int[] categoryOf = new int[productCount];
+        BitSet[] productTags = new BitSet[productCount];
+        long maxId = 0;
+
+        for (int slot = 0; slot < productCount; slot++) {
+            Product product = products.get(slot);
+            String category = product.getCategory() != null ? product.getCategory().getName() : null;
+            categoryOf[slot] = categories.computeIfAbsent(String.valueOf(category), k -> categories.size());
+            unitCents[slot] = toCents(product.getPrice());
+            productTags[slot] = productTagMask(product.getTags(), tagBits);
+            if (product.getId() != null) {
+                maxId = Math.max(maxId, product.getId());
+            }
+        }
+        long[][] tagMasks = new long[productCount][];
+        for (int slot = 0; slot < productCount; slot++) {
+            tagMasks[slot] = productTags[slot].toLongArray();
+        }
+
+        // The extra trailing category slot holds rules without a category
+        int any = categories.size();
+        int[] categoryBest = new int[any + 1];
+        long[] categoryBestIds = new long[any + 1];
+        List<Map<BitSet, long[]>> bundles = new ArrayList<>(any + 1);
+        List<List<long[]>> tiers = new ArrayList<>(any + 1);
+        for (int c = 0; c <= any; c++) {
+            bundles.add(new LinkedHashMap<>());
+            tiers.add(new ArrayList<>());
+        }
+
+        int compiled = 0;
+        for (PromotionRule rule : rules) {
+            int category = rule.getCategory() == null ? any : categories.getOrDefault(rule.getCategory(), NO_SLOT);
+            if (category == NO_SLOT || rule.getType() == null) {
+                continue;
+            }
+            int basisPoints = toBasisPoints(rule);
+            long ruleId = rule.getId() != null ? rule.getId() : NO_PROMOTION;
+
+            switch (rule.getType()) {
+                case CATEGORY -> {
+                    if (basisPoints > categoryBest[category]) {
+                        categoryBest[category] = basisPoints;
+                        categoryBestIds[category] = ruleId;
+                    }
+                }
+                case TAG_BUNDLE -> {
+                    BitSet mask = ruleTagMask(rule.getTags(), tagBits);
+                    if (mask == null) {
+                        // Names no tag, or a tag no product carries, so it can never match
+                        continue;
+                    }
+                    long[] best = bundles.get(category).get(mask);
+                    if (best == null || basisPoints > best[0]) {
+                        bundles.get(category).put(mask, new long[]{basisPoints, ruleId});
+                    }
+                }
+                case QUANTITY_TIER -> {
+                    int minQuantity = rule.getMinQuantity() != null ? Math.max(1, rule.getMinQuantity()) : 1;
+                    tiers.get(category).add(new long[]{minQuantity, basisPoints, ruleId});
+                }
+            }
+            compiled++;
+        }
+
+        Map<BitSet, long[]> bundleMasks = new HashMap<>();
+        for (Map<BitSet, long[]> categoryBundles : bundles) {
+            for (BitSet mask : categoryBundles.keySet()) {
+                bundleMasks.computeIfAbsent(mask, BitSet::toLongArray);
+            }
+        }
+
+        int[] staticBasisPoints = new int[productCount];
+        long[] staticPromotionIds = new long[productCount];
+        for (int slot = 0; slot < productCount; slot++) {
+            int category = categoryOf[slot];
+            int best = categoryBest[category];
+            long bestId = categoryBestIds[category];
+            if (categoryBest[any] > best) {
+                best = categoryBest[any];
+                bestId = categoryBestIds[any];
+            }
+            for (int c : new int[]{category, any}) {
+                for (Map.Entry<BitSet, long[]> bundle : bundles.get(c).entrySet()) {
+                    long[] value = bundle.getValue();
+                    if (value[0] > best && containsAll(tagMasks[slot], bundleMasks.get(bundle.getKey()))) {
+                        best = (int) value[0];
+                        bestId = value[1];
+                    }
+                }
+            }
+            staticBasisPoints[slot] = best;
+            staticPromotionIds[slot] = bestId;
+        }
+
+        int[][] tierThresholds = new int[any][];
+        int[][] tierBasisPoints = new int[any][];
+        long[][] tierPromotionIds = new long[any][];
+        for (int c = 0; c < any; c++) {
+            List<long[]> merged = new ArrayList<>(tiers.get(c));
+            merged.addAll(tiers.get(any));
+            merged.sort((a, b) -> Long.compare(a[0], b[0]));
+
+            int size = merged.size();
+            tierThresholds[c] = new int[size];
+            tierBasisPoints[c] = new int[size];
+            tierPromotionIds[c] = new long[size];
+            int runningBest = 0;
+            long runningId = NO_PROMOTION;
+            for (int i = 0; i < size; i++) {
+                long[] tier = merged.get(i);
+                if (tier[1] > runningBest) {
+                    runningBest = (int) tier[1];
+                    runningId = tier[2];
+                }
+                tierThresholds[c][i] = (int) tier[0];
+                tierBasisPoints[c][i] = runningBest;
+                tierPromotionIds[c][i] = runningId;
+            }
+        }
+
+        int[] denseSlots = null;
+        Map<Long, Integer> sparseSlots = null;
+        if (maxId < DENSE_ID_LIMIT) {
+            denseSlots = new int[(int) maxId + 1];
+            Arrays.fill(denseSlots, NO_SLOT);
+            for (int slot = 0; slot < productCount; slot++) {
+                Long id = products.get(slot).getId();
+                if (id != null && id >= 0) {
+                    denseSlots[id.intValue()] = slot;
+                }
+            }
+        } else {
+            sparseSlots = new HashMap<>(productCount * 2);
+            for (int slot = 0; slot < productCount; slot++) {
+                if (products.get(slot).getId() != null) {
+                    sparseSlots.put(products.get(slot).getId(), slot);
+                }
+            }
+        }
+
+        return new PromotionDecisionTable(denseSlots, sparseSlots, unitCents, categoryOf,
+                staticBasisPoints, staticPromotionIds, tierThresholds, tierBasisPoints, tierPromotionIds, compiled);
+    }
+
+    PricedCart price(List<CartLine> lines) {
+        List<PricedLine> pricedLines = new ArrayList<>(lines.size());
+        long subtotal = 0;
+        long discountTotal = 0;
+
+        for (CartLine line : lines) {
+            if (line == null) {
+                throw new IllegalArgumentException("Cart line " + pricedLines.size() + " is missing");
+            }
+            int slot = slotOf(line.getProductId());
+            if (slot == NO_SLOT) {
+                throw new IllegalArgumentException("Product with id " + line.getProductId() + " not found");
+            }
+            int quantity = line.getQuantity() != null ? line.getQuantity() : 0;
+            if (quantity <= 0) {
+                throw new IllegalArgumentException("Quantity for product " + line.getProductId() + " must be positive");
+            }
+
+            int basisPoints = staticBasisPoints[slot];
+            long promotionId = staticPromotionIds[slot];
+
+            int category = categoryOf[slot];
+            int tier = floorIndex(tierThresholds[category], quantity);
+            if (tier >= 0 && tierBasisPoints[category][tier] > basisPoints) {
+                basisPoints = tierBasisPoints[category][tier];
+                promotionId = tierPromotionIds[category][tier];
+            }
+
+            long gross = unitCents[slot] * quantity;
+            long discount = (gross * basisPoints + 5_000L) / 10_000L;
+            subtotal += gross;
+            discountTotal += discount;
+
+            pricedLines.add(PricedLine.builder()
+                    .productId(line.getProductId())
+                    .quantity(quantity)
+                    .unitPrice(BigDecimal.valueOf(unitCents[slot], 2))
+                    .percentOff(BigDecimal.valueOf(basisPoints, 2))
+                    .discount(BigDecimal.valueOf(discount, 2))
+                    .lineTotal(BigDecimal.valueOf(gross - discount, 2))
+                    .promotionId(promotionId != NO_PROMOTION ? promotionId : null)
+                    .build());
+        }
+
+        return PricedCart.builder()
+                .lines(pricedLines)
+                .subtotal(BigDecimal.valueOf(subtotal, 2))
+                .discount(BigDecimal.valueOf(discountTotal, 2))
+                .total(BigDecimal.valueOf(subtotal - discountTotal, 2))
+                .build();
+    }
+
+    int getRuleCount() {
+        return ruleCount;
+    }
+
+    int getProductCount() {
+        return unitCents.length;
+    }
+
+    private int slotOf(Long productId) {
+        if (productId == null) {
+            return NO_SLOT;
+        }
+        if (denseSlots != null) {
+            return productId >= 0 && productId < denseSlots.length ? denseSlots[productId.intValue()] : NO_SLOT;
+        }
+        return sparseSlots.getOrDefault(productId, NO_SLOT);
+    }
+
+    private static int floorIndex(int[] thresholds, int quantity) {
+        int low = 0;
+        int high = thresholds.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (thresholds[mid] <= quantity) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    private static BitSet productTagMask(List<Tag> tags, Map<String, Integer> tagBits) {
+        BitSet mask = new BitSet();
+        if (tags == null) {
+            return mask;
+        }
+        for (Tag tag : tags) {
+            if (tag == null || tag.getName() == null) {
+                continue;
+            }
+            mask.set(tagBits.computeIfAbsent(tag.getName(), k -> tagBits.size()));
+        }
+        return mask;
+    }
+
+    /**
+     * The rule's tags as a mask, or null if it has none or names a tag no product carries.
+     */
+    private static BitSet ruleTagMask(List<String> tags, Map<String, Integer> tagBits) {
+        if (tags == null || tags.isEmpty()) {
+            return null;
+        }
+        BitSet mask = new BitSet();
+        for (String tag : tags) {
+            Integer bit = tagBits.get(tag);
+            if (bit == null) {
+                return null;
+            }
+            mask.set(bit);
+        }
+        return mask;
+    }
+
+    private static boolean containsAll(long[] mask, long[] required) {
+        if (required.length > mask.length) {
+            return false;
+        }
+        for (int word = 0; word < required.length; word++) {
+            if ((mask[word] & required[word]) != required[word]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long toCents(BigDecimal price) {
+        if (price == null) {
+            return 0L;
+        }
+        return price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static int toBasisPoints(PromotionRule rule) {
+        BigDecimal percentOff = rule.getPercentOff() != null ? rule.getPercentOff() : BigDecimal.ZERO;
+        int basisPoints = percentOff.setScale(2, RoundingMode.HALF_UP).unscaledValue().intValueExact();
+        if (basisPoints < 0 || basisPoints > 10_000) {
+            throw new IllegalStateException("Promotion " + rule.getId() + " has invalid percentOff " + percentOff);
+        }
+        return basisPoints;
+    }
+}
@@ -0,0 +1,131 @@
+package com.chtrembl.petstore.product.benchmark;
+
+import com.chtrembl.petstore.product.model.CartLine;
+import com.chtrembl.petstore.product.model.Category;
+import com.chtrembl.petstore.product.model.DataPreload;
+import com.chtrembl.petstore.product.model.PricedCart;
+import com.chtrembl.petstore.product.model.Product;
+import com.chtrembl.petstore.product.model.PromotionRule;
+import com.chtrembl.petstore.product.model.Tag;
+import com.chtrembl.petstore.product.service.PricingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prices whole carts through {@link PricingService} against a synthetic catalog and rule
+ * set, and measures compiling the rules into the decision table.
+ * <p>
+ * The catalog has more distinct tags than fit in one 64-bit word, so multi-word tag
+ * masks are exercised. Rules are an even mix of category, tag-bundle and quantity-tier
+ * promotions. Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=PromotionPricing}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PromotionPricingBenchmark {
+
+    private static final int PRODUCTS = 10_000;
+    private static final int CATEGORIES = 40;
+    private static final int TAGS = 200;
+
+    @Param({"10000"})
+    private int cartLines;
+
+    @Param({"100", "10000"})
+    private int rules;
+
+    private DataPreload dataPreload;
+    private PricingService pricingService;
+    private List<CartLine> cart;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+
+        dataPreload = new DataPreload();
+        dataPreload.setProducts(products(random));
+        dataPreload.setPromotions(promotions(random, rules));
+
+        pricingService = new PricingService(dataPreload);
+        pricingService.compileRules();
+
+        cart = new ArrayList<>(cartLines);
+        for (int i = 0; i < cartLines; i++) {
+            cart.add(CartLine.builder()
+                    .productId((long) random.nextInt(PRODUCTS))
+                    .quantity(1 + random.nextInt(20))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public PricedCart priceCart() {
+        return pricingService.priceCart(cart);
+    }
+
+    @Benchmark
+    public PricingService compileRules() {
+        PricingService service = new PricingService(dataPreload);
+        service.compileRules();
+        return service;
+    }
+
+    private static List<Product> products(SplittableRandom random) {
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        for (int id = 0; id < PRODUCTS; id++) {
+            List<Tag> tags = new ArrayList<>();
+            for (int t = 0, count = 1 + random.nextInt(4); t < count; t++) {
+                tags.add(new Tag().name("tag-" + random.nextInt(TAGS)));
+            }
+            products.add(Product.builder()
+                    .id((long) id)
+                    .name("Product " + id)
+                    .photoURL("https://example.com/" + id + ".jpg")
+                    .category(new Category().name("category-" + id % CATEGORIES))
+                    .price(BigDecimal.valueOf(100 + random.nextInt(10_000), 2))
+                    .tags(tags)
+                    .status(Product.Status.AVAILABLE)
+                    .build());
+        }
+        return products;
+    }
+
+    private static List<PromotionRule> promotions(SplittableRandom random, int count) {
+        PromotionRule.Type[] types = PromotionRule.Type.values();
+        List<PromotionRule> promotions = new ArrayList<>(count);
+        for (int id = 0; id < count; id++) {
+            PromotionRule.Type type = types[id % types.length];
+            PromotionRule.PromotionRuleBuilder rule = PromotionRule.builder()
+                    .id((long) id + 1)
+                    .type(type)
+                    .category(random.nextInt(10) == 0 ? null : "category-" + random.nextInt(CATEGORIES))
+                    .percentOff(BigDecimal.valueOf(1 + random.nextInt(50)));
+            if (type == PromotionRule.Type.TAG_BUNDLE) {
+                rule.tags(List.of("tag-" + random.nextInt(TAGS), "tag-" + random.nextInt(TAGS)));
+            } else if (type == PromotionRule.Type.QUANTITY_TIER) {
+                rule.minQuantity(2 + random.nextInt(15));
+            }
+            promotions.add(rule.build());
+        }
+        return promotions;
+    }
+}